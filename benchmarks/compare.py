@@ -0,0 +1,125 @@
+#!/usr/bin/env python3
+import argparse
+import json
+import sys
+from pathlib import Path
+
+
+ALLOC_METRIC = "gc.alloc.rate.norm"
+
+
+def load_results(path):
+    if not path.exists():
+        raise FileNotFoundError(f"Missing result file: {path}")
+
+    results = {}
+    for entry in json.loads(path.read_text()):
+        params = entry.get("params") or {}
+        key = entry["benchmark"].rsplit(".", 2)[-2:]
+        key = ".".join(key)
+        if params:
+            key += " " + ",".join(f"{k}={params[k]}" for k in sorted(params))
+
+        primary = entry["primaryMetric"]
+        alloc = None
+        for name, metric in (entry.get("secondaryMetrics") or {}).items():
+            # JMH prefixes profiler metrics with a middle dot in some versions.
+            if name.lstrip("·:") == ALLOC_METRIC:
+                alloc = metric["score"]
+        results[key] = {
+            "score": primary["score"],
+            "error": primary.get("scoreError"),
+            "unit": primary["scoreUnit"],
+            "alloc": alloc,
+        }
+    return results
+
+
+def change(base, new):
+    if base is None or new is None:
+        return None
+    if base == 0:
+        return 0.0 if new == 0 else float("inf")
+    return (new - base) / base * 100.0
+
+
+def is_worse(unit, pct):
+    # Time per op gets worse when it grows; throughput (ops/time) when it shrinks.
+    if unit.startswith("ops/"):
+        return pct < 0
+    return pct > 0
+
+
+def format_pct(pct):
+    if pct is None:
+        return "-"
+    return f"{pct:+.1f}%"
+
+
+def format_number(value):
+    if value is None or value != value:
+        return "-"
+    return f"{value:.3f}" if abs(value) < 1000 else f"{value:.0f}"
+
+
+def main():
+    parser = argparse.ArgumentParser(
+        description="Compare two JMH JSON result files (-rf json) and flag regressions."
+    )
+    parser.add_argument("base", type=Path, help="Results of the baseline version")
+    parser.add_argument("new", type=Path, help="Results of the version under test")
+    parser.add_argument(
+        "--threshold",
+        type=float,
+        default=10.0,
+        help="Percent change in time or allocation counted as a regression (default: 10)",
+    )
+    args = parser.parse_args()
+
+    base = load_results(args.base)
+    new = load_results(args.new)
+
+    rows = []
+    regressions = 0
+    for key in sorted(set(base) | set(new)):
+        b = base.get(key)
+        n = new.get(key)
+        if b is None or n is None:
+            rows.append((key, "-", "-", "-", "-", "-", "only in " + ("new" if b is None else "base")))
+            continue
+
+        score_pct = change(b["score"], n["score"])
+        alloc_pct = change(b["alloc"], n["alloc"])
+        notes = []
+        if score_pct is not None and abs(score_pct) >= args.threshold:
+            if is_worse(n["unit"], score_pct):
+                notes.append("SLOWER")
+            else:
+                notes.append("faster")
+        # Allocation is deterministic enough to flag small absolute growth too.
+        if alloc_pct is not None and alloc_pct >= args.threshold and n["alloc"] - b["alloc"] >= 1.0:
+            notes.append("MORE ALLOC")
+        if "SLOWER" in notes or "MORE ALLOC" in notes:
+            regressions += 1
+        rows.append((
+            key,
+            f"{format_number(b['score'])} {b['unit']}",
+            f"{format_number(n['score'])} {n['unit']}",
+            format_pct(score_pct),
+            format_number(n["alloc"]),
+            format_pct(alloc_pct),
+            " ".join(notes),
+        ))
+
+    header = ("benchmark", "base", "new", "change", "B/op", "alloc change", "")
+    widths = [max(len(str(r[i])) for r in rows + [header]) for i in range(len(header))]
+    for row in [header] + rows:
+        print("  ".join(str(v).ljust(widths[i]) for i, v in enumerate(row)).rstrip())
+
+    print()
+    print(f"{regressions} regression(s) beyond {args.threshold:g}%")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,69 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+
+/**
+ * Context whose external files directory is a benchmark data folder.
+ *
+ * The folder is {@code -Dbench.dir} if set, otherwise {@code ftc-logger-bench}
+ * under the system temp directory. Generated runs are kept there between
+ * benchmark runs so large inputs are only written once.
+ */
+final class BenchContext extends Context {
+
+    private final File base;
+
+    private BenchContext(File base) {
+        this.base = base;
+    }
+
+    /**
+     * Returns a context rooted at the benchmark data folder.
+     *
+     * @return Benchmark context.
+     */
+    static BenchContext create() {
+        String dir = System.getProperty("bench.dir");
+        File base = dir != null ? new File(dir) : new File(System.getProperty("java.io.tmpdir"), "ftc-logger-bench");
+        if (!base.isDirectory() && !base.mkdirs()) throw new IllegalStateException("Cannot create " + base);
+        return new BenchContext(base);
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public File getExternalFilesDir(String type) {
+        return base;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return base;
+    }
+
+    @Override
+    public File getCacheDir() {
+        File cache = new File(base, "cache");
+        //noinspection ResultOfMethodCallIgnored
+        cache.mkdirs();
+        return cache;
+    }
+
+    @Override
+    public AssetManager getAssets() {
+        return new AssetManager() {
+            @Override
+            public InputStream open(String fileName) throws FileNotFoundException {
+                throw new FileNotFoundException(fileName);
+            }
+        };
+    }
+}
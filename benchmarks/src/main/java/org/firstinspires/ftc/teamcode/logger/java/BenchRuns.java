@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synthetic benchmark inputs, generated once and kept in the benchmark data folder.
+ *
+ * Each input is an OpMode folder; a {@value #COMPLETE} marker is written last,
+ * so an interrupted generation is redone on the next run.
+ */
+final class BenchRuns {
+
+    private static final String COMPLETE = ".complete";
+
+    /** Channels of a synthetic drive run: IMU axes and odometry. */
+    static final String[] CHANNELS = { "ax", "ay", "az", "gx", "gy", "gz", "x", "y" };
+
+    private BenchRuns() { }
+
+    /**
+     * Returns a run of {@code rows} rows logged at 1 kHz, writing it on first use.
+     *
+     * @param context Benchmark context.
+     * @param format Run file format.
+     * @param rows Number of rows.
+     * @return Run file.
+     */
+    static File run(Context context, LogWriter.Format format, int rows) throws IOException {
+        String opMode = String.format(Locale.US, "data-%s-%d", format.name().toLowerCase(Locale.US), rows);
+        File opDir = new File(FileSystemUtilities.getRootDir(context), opMode);
+        if (!new File(opDir, COMPLETE).isFile()) {
+            deleteTree(opDir);
+            Random random = new Random(rows);
+            try (LogWriter writer = new LogWriter(context, opMode,
+                    new LogWriter.Options().format(format).durability(LogWriter.Durability.NONE))) {
+                int[] ids = new int[CHANNELS.length];
+                for (int c = 0; c < ids.length; c++) ids[c] = writer.channel(CHANNELS[c]);
+                LogWriter.Row row = writer.newRow(TimeUnit.MILLISECONDS);
+                double x = 0;
+                double y = 0;
+                for (int i = 0; i < rows; i++) {
+                    double heading = i * 1e-4;
+                    x += Math.cos(heading) * 0.05;
+                    y += Math.sin(heading) * 0.05;
+                    row.set(ids[0], Math.sin(i * 0.01) + random.nextGaussian() * 0.02)
+                            .set(ids[1], Math.cos(i * 0.01) + random.nextGaussian() * 0.02)
+                            .set(ids[2], 9.81 + random.nextGaussian() * 0.05)
+                            .set(ids[3], random.nextGaussian() * 0.01)
+                            .set(ids[4], random.nextGaussian() * 0.01)
+                            .set(ids[5], 0.1 + random.nextGaussian() * 0.01)
+                            .set(ids[6], Math.rint(x * 1000) / 1000)
+                            .set(ids[7], Math.rint(y * 1000) / 1000)
+                            .commit(i);
+                }
+            }
+            markComplete(opDir);
+        }
+        File[] files = opDir.listFiles((dir, name) -> FileSystemUtilities.runName(name) != null);
+        if (files == null || files.length != 1) throw new IllegalStateException("Expected one run in " + opDir);
+        return files[0];
+    }
+
+    /**
+     * Returns an OpMode folder holding {@code runs} small runs, writing it on first use.
+     *
+     * @param context Benchmark context.
+     * @param runs Number of runs.
+     * @return OpMode name.
+     */
+    static String opMode(Context context, int runs) throws IOException {
+        String opMode = "fs-" + runs;
+        File opDir = new File(FileSystemUtilities.getRootDir(context), opMode);
+        if (!new File(opDir, COMPLETE).isFile()) {
+            deleteTree(opDir);
+            if (!opDir.mkdirs()) throw new IOException("Cannot create " + opDir);
+            byte[] body = "{\"tUnit\":\"ms\"}\n{\"t\":0,\"x\":1}\n".getBytes(StandardCharsets.UTF_8);
+            for (int i = 1; i <= runs; i++) {
+                File run = new File(opDir, String.format(Locale.US, "%04d", i) + FileSystemUtilities.JSONL_EXTENSION);
+                try (FileOutputStream out = new FileOutputStream(run)) {
+                    out.write(body);
+                }
+            }
+            markComplete(opDir);
+        }
+        return opMode;
+    }
+
+    private static void markComplete(File opDir) throws IOException {
+        File marker = new File(opDir, COMPLETE);
+        if (!marker.isFile() && !marker.createNewFile()) throw new IOException("Cannot create " + marker);
+    }
+
+    static void deleteTree(File f) {
+        File[] children = f.listFiles();
+        if (children != null) for (File c : children) deleteTree(c);
+        //noinspection ResultOfMethodCallIgnored
+        f.delete();
+    }
+}
@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fi.iki.elonen.NanoHTTPD;
+
+/**
+ * GET request with fixed query parameters, for calling handlers without a server.
+ */
+final class BenchSession implements NanoHTTPD.IHTTPSession {
+
+    private final Map<String, List<String>> params = new HashMap<>();
+    private final Map<String, String> headers = new HashMap<>();
+
+    /**
+     * Creates a request.
+     *
+     * @param keyValuePairs Alternating query parameter names and values; empty values are left out.
+     */
+    BenchSession(String... keyValuePairs) {
+        for (int i = 0; i + 1 < keyValuePairs.length; i += 2) {
+            if (keyValuePairs[i + 1].isEmpty()) continue;
+            params.put(keyValuePairs[i], Collections.singletonList(keyValuePairs[i + 1]));
+        }
+    }
+
+    /**
+     * Reads a response body to the end, failing on anything but 200 OK.
+     *
+     * @param response Handler response.
+     * @return Body length in bytes.
+     */
+    static long drain(NanoHTTPD.Response response) throws IOException {
+        if (response.getStatus() != NanoHTTPD.Response.Status.OK) {
+            throw new IllegalStateException("Request failed: " + response.getStatus());
+        }
+        byte[] buf = new byte[64 * 1024];
+        long total = 0;
+        try (InputStream in = response.getData()) {
+            int n;
+            while ((n = in.read(buf)) > 0) total += n;
+        }
+        return total;
+    }
+
+    @Override
+    public void execute() { }
+
+    @Override
+    public NanoHTTPD.CookieHandler getCookies() {
+        return null;
+    }
+
+    @Override
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return null;
+    }
+
+    @Override
+    public NanoHTTPD.Method getMethod() {
+        return NanoHTTPD.Method.GET;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public Map<String, String> getParms() {
+        Map<String, String> first = new HashMap<>();
+        for (Map.Entry<String, List<String>> e : params.entrySet()) first.put(e.getKey(), e.getValue().get(0));
+        return first;
+    }
+
+    @Override
+    public Map<String, List<String>> getParameters() {
+        return params;
+    }
+
+    @Override
+    public String getQueryParameterString() {
+        return "";
+    }
+
+    @Override
+    public String getUri() {
+        return "/";
+    }
+
+    @Override
+    public void parseBody(Map<String, String> files) { }
+
+    @Override
+    public String getRemoteIpAddress() {
+        return "127.0.0.1";
+    }
+
+    @Override
+    public String getRemoteHostName() {
+        return "localhost";
+    }
+}
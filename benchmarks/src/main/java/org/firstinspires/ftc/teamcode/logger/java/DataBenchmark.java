@@ -0,0 +1,69 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to answer /logger/api/data for a whole synthetic run (8 channels at 1 kHz),
+ * including reading the full response body.
+ *
+ * {@code cache=cold} drops the run from {@link RunCache} before every request,
+ * so each one parses the file; {@code warm} measures serving a cached run
+ * (runs over the cache budget are parsed every time either way).
+ * {@code maxPoints=2000} is what the web UI asks for when it opens a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class DataBenchmark {
+
+    @Param({ "10000", "100000", "1000000", "10000000" })
+    public int rows;
+
+    @Param({ "JSONL", "FLOG" })
+    public LogWriter.Format format;
+
+    @Param({ "cold", "warm" })
+    public String cache;
+
+    @Param({ "0", "2000" })
+    public int maxPoints;
+
+    private File run;
+    private ApiHandler handler;
+    private BenchSession session;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchContext context = BenchContext.create();
+        run = BenchRuns.run(context, format, rows);
+        handler = new ApiHandler(context, ApiHandler.Route.DATA);
+        session = new BenchSession(
+                "opMode", run.getParentFile().getName(),
+                "run", FileSystemUtilities.runName(run.getName()),
+                "maxPoints", maxPoints > 0 ? Integer.toString(maxPoints) : "");
+        RunCache.shared().invalidate(run);
+    }
+
+    @Benchmark
+    public long data() throws Exception {
+        if (cache.equals("cold")) RunCache.shared().invalidate(run);
+        return BenchSession.drain(handler.getResponse(session));
+    }
+}
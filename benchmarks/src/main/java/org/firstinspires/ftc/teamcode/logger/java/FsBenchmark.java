@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to answer /logger/api/fs for one OpMode folder with many runs.
+ *
+ * {@code index=cold} drops the folder from {@link FsIndex} before every
+ * request, so each one lists and stats the folder; {@code warm} serves the
+ * cached listing. {@code limit=50} is the file manager's page size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FsBenchmark {
+
+    @Param({ "1000", "5000" })
+    public int runs;
+
+    @Param({ "0", "50" })
+    public int limit;
+
+    @Param({ "name", "modified" })
+    public String sort;
+
+    @Param({ "cold", "warm" })
+    public String index;
+
+    private File opDir;
+    private ApiHandler handler;
+    private BenchSession session;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchContext context = BenchContext.create();
+        String opMode = BenchRuns.opMode(context, runs);
+        opDir = new File(FileSystemUtilities.getRootDir(context), opMode);
+        handler = new ApiHandler(context, ApiHandler.Route.FS);
+        session = new BenchSession(
+                "opMode", opMode,
+                "sort", sort,
+                "limit", limit > 0 ? Integer.toString(limit) : "");
+    }
+
+    @Benchmark
+    public long fs() throws Exception {
+        if (index.equals("cold")) FsIndex.shared().invalidate(opDir);
+        return BenchSession.drain(handler.getResponse(session));
+    }
+}
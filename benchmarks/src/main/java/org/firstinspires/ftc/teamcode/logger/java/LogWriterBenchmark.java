@@ -0,0 +1,95 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of logging one row on the OpMode thread.
+ *
+ * Each measurement iteration logs into a fresh run, deleted afterwards. Run
+ * with {@code -prof gc} to see bytes allocated per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogWriterBenchmark {
+
+    @Param({ "1", "4", "16" })
+    public int fields;
+
+    @Param({ "JSONL", "FLOG", "FLOG_COMPACT" })
+    public LogWriter.Format format;
+
+    @Param({ "STREAM", "MAPPED" })
+    public LogWriter.Backend backend;
+
+    @Param({ "GROUP_COMMIT", "NONE" })
+    public LogWriter.Durability durability;
+
+    private BenchContext context;
+    private LogWriter writer;
+    private Object[] keyValuePairs;
+    private int[] channels;
+    private LogWriter.Row row;
+    private double t;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        context = BenchContext.create();
+        keyValuePairs = new Object[fields * 2];
+        for (int i = 0; i < fields; i++) {
+            keyValuePairs[2 * i] = "field" + i;
+            keyValuePairs[2 * i + 1] = i * 0.25;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        writer = new LogWriter(context, "logwriter",
+                new LogWriter.Options().format(format).backend(backend).durability(durability));
+        if (!writer.isReady()) throw new IllegalStateException(writer.getInitError());
+        channels = new int[fields];
+        for (int i = 0; i < fields; i++) channels[i] = writer.channel("field" + i);
+        row = writer.newRow(TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        writer.close();
+        File run = writer.getRunFile();
+        //noinspection ResultOfMethodCallIgnored
+        run.delete();
+        FileSystemUtilities.deleteSidecars(run);
+    }
+
+    /** Key/value API, as most OpModes call it. Values are pre-boxed. */
+    @Benchmark
+    public void logMilliseconds() {
+        writer.logMilliseconds(t++, keyValuePairs);
+    }
+
+    /** Typed channel API. */
+    @Benchmark
+    public void rowCommit() {
+        double v = t;
+        for (int channel : channels) row.set(channel, v++);
+        row.commit(t++);
+    }
+}
@@ -0,0 +1,61 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to allocate the next run file (what a {@link LogWriter} does when an OpMode starts).
+ *
+ * {@code counter=missing} deletes the counter file first, forcing the folder
+ * scan that runs when the counter is absent. Each allocated run is deleted
+ * again, so the folder keeps its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunNumbersBenchmark {
+
+    @Param({ "0", "1000", "5000" })
+    public int runs;
+
+    @Param({ "present", "missing" })
+    public String counter;
+
+    private File opDir;
+    private File counterFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchContext context = BenchContext.create();
+        opDir = new File(FileSystemUtilities.getRootDir(context), BenchRuns.opMode(context, runs));
+        counterFile = new File(opDir, RunNumbers.COUNTER_FILE);
+    }
+
+    @Benchmark
+    public File allocate() throws IOException {
+        if (counter.equals("missing")) {
+            //noinspection ResultOfMethodCallIgnored
+            counterFile.delete();
+        }
+        File run = RunNumbers.allocate(opDir, FileSystemUtilities.JSONL_EXTENSION);
+        //noinspection ResultOfMethodCallIgnored
+        run.delete();
+        return run;
+    }
+}
@@ -0,0 +1,21 @@
+package android.content;
+
+import android.content.res.AssetManager;
+
+import java.io.File;
+
+/**
+ * Stand-in for the Android class: only the methods the logger calls.
+ */
+public abstract class Context {
+
+    public abstract Context getApplicationContext();
+
+    public abstract File getExternalFilesDir(String type);
+
+    public abstract File getFilesDir();
+
+    public abstract File getCacheDir();
+
+    public abstract AssetManager getAssets();
+}
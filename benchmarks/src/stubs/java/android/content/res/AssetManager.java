@@ -0,0 +1,12 @@
+package android.content.res;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stand-in for the Android class: only the methods the logger calls.
+ */
+public abstract class AssetManager {
+
+    public abstract InputStream open(String fileName) throws IOException;
+}
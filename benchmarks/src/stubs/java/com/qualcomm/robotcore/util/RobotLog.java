@@ -0,0 +1,13 @@
+package com.qualcomm.robotcore.util;
+
+/**
+ * Stand-in for the FTC SDK class: only the methods the logger calls. Messages are dropped.
+ */
+public final class RobotLog {
+
+    private RobotLog() { }
+
+    public static void ii(String tag, String format, Object... args) { }
+
+    public static void ee(String tag, Throwable throwable, String format, Object... args) { }
+}
@@ -0,0 +1,11 @@
+package com.qualcomm.robotcore.util;
+
+import org.firstinspires.ftc.robotcore.internal.webserver.WebHandler;
+
+/**
+ * Stand-in for the FTC SDK class: only the methods the logger calls.
+ */
+public interface WebHandlerManager {
+
+    void register(String command, WebHandler webHandler);
+}
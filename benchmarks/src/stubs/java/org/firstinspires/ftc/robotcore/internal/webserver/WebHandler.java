@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.robotcore.internal.webserver;
+
+import java.io.IOException;
+
+import fi.iki.elonen.NanoHTTPD;
+
+/**
+ * Stand-in for the FTC SDK interface.
+ */
+public interface WebHandler {
+
+    NanoHTTPD.Response getResponse(NanoHTTPD.IHTTPSession session) throws IOException, NanoHTTPD.ResponseException;
+}
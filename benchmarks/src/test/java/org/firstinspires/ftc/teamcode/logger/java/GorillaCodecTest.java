@@ -0,0 +1,247 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Round trips of {@link GorillaCodec} columns, compared bit for bit: every
+ * value that was set must decode to the same raw bits (so -0.0 stays -0.0),
+ * and every unset (NaN) row must decode as unset.
+ *
+ * Blocks of 1, 2, 3, 255 and 256 rows cover the first value, the first delta,
+ * the first delta of delta, a partial last bitmap byte and a full block.
+ */
+class GorillaCodecTest {
+
+    private static final int[] SIZES = { 1, 2, 3, 255, 256 };
+
+    private final Random random = new Random(16);
+
+    @Test
+    void steadyMillisecondTime() throws EOFException {
+        for (int n : SIZES) {
+            double[] t = new double[n];
+            for (int i = 0; i < n; i++) t[i] = 1000 + 20 * i;
+            assertTimeRoundTrip(t, n, 0);
+        }
+    }
+
+    @Test
+    void irregularTime() throws EOFException {
+        for (int n : SIZES) {
+            // Loop periods of 5 to 40 ms measured to the microsecond, with rare stalls.
+            double[] t = new double[n];
+            long us = 123_456_789L;
+            for (int i = 0; i < n; i++) {
+                t[i] = us / 1000.0;
+                us += 5_000 + random.nextInt(35_000);
+                if (random.nextInt(50) == 0) us += 2_000_000;
+            }
+            assertTimeRoundTrip(t, n, 3);
+        }
+    }
+
+    @Test
+    void timeDeltasOfEveryWidth() throws EOFException {
+        // Deltas of delta of 0, 7, 9, 12, 32 and 64 bits, in both directions.
+        long[] steps = { 10, 10, 70, 10, 300, 10, 2_000, 10, 1_000_000_000L, 10, 1L << 40, 10, 10 };
+        double[] t = new double[steps.length + 1];
+        long v = -5_000;
+        t[0] = v;
+        for (int i = 0; i < steps.length; i++) {
+            v += steps[i];
+            t[i + 1] = v;
+        }
+        assertTimeRoundTrip(t, t.length, 0);
+    }
+
+    @Test
+    void nanosecondTime() throws EOFException {
+        for (int n : SIZES) {
+            double[] t = new double[n];
+            long ns = 1_700_000_000_000_000L;
+            for (int i = 0; i < n; i++) {
+                t[i] = ns;
+                ns += 10_000_000 + random.nextInt(1_000_000) * 1024L;
+            }
+            assertTimeRoundTrip(t, n, 0);
+        }
+    }
+
+    @Test
+    void timeWithoutExactScaleFallsBackToXor() throws EOFException {
+        for (int n : SIZES) {
+            double[] t = new double[n];
+            double s = 0;
+            for (int i = 0; i < n; i++) {
+                t[i] = s;
+                s += random.nextDouble();
+            }
+            if (n > 1) assertEquals(-1, GorillaCodec.timeScale(t, n));
+            assertValuesRoundTrip(t, n);
+        }
+    }
+
+    @Test
+    void negativeZeroTimeFallsBackToXor() throws EOFException {
+        double[] t = { -0.0, 1, 2 };
+        assertEquals(-1, GorillaCodec.timeScale(t, t.length));
+        assertValuesRoundTrip(t, t.length);
+    }
+
+    @Test
+    void randomValues() throws EOFException {
+        for (int n : SIZES) {
+            double[] col = new double[n];
+            for (int i = 0; i < n; i++) col[i] = random.nextGaussian() * 1e3;
+            assertValuesRoundTrip(col, n);
+        }
+    }
+
+    @Test
+    void constantAndSlowValues() throws EOFException {
+        for (int n : SIZES) {
+            double[] col = new double[n];
+            for (int i = 0; i < n; i++) col[i] = i < n / 2 ? 12.5 : 12.5 + (i / 16) * 0.25;
+            assertValuesRoundTrip(col, n);
+        }
+    }
+
+    @Test
+    void signedZeros() throws EOFException {
+        for (int n : SIZES) {
+            double[] col = new double[n];
+            for (int i = 0; i < n; i++) col[i] = i % 3 == 0 ? -0.0 : i % 3 == 1 ? 0.0 : -1e-300;
+            assertValuesRoundTrip(col, n);
+        }
+    }
+
+    @Test
+    void specialValues() throws EOFException {
+        double[] col = {
+                Double.MAX_VALUE, -Double.MAX_VALUE, Double.MIN_VALUE, -Double.MIN_VALUE,
+                Double.MIN_NORMAL, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.longBitsToDouble(1), Double.longBitsToDouble(0x7FEFFFFFFFFFFFFEL), 1, -1, 0
+        };
+        assertValuesRoundTrip(col, col.length);
+    }
+
+    @Test
+    void everyBitPattern() throws EOFException {
+        // XOR windows of every width and position, including all 64 bits.
+        double[] col = new double[256];
+        for (int i = 0; i < col.length; i++) {
+            long bits;
+            do {
+                bits = random.nextLong() >>> random.nextInt(64) << random.nextInt(64);
+            } while (Double.isNaN(Double.longBitsToDouble(bits)));
+            col[i] = Double.longBitsToDouble(bits);
+        }
+        assertValuesRoundTrip(col, col.length);
+    }
+
+    @Test
+    void lowBitChanges() throws EOFException {
+        // XORs with more leading zeros than the 5-bit field holds.
+        long base = Double.doubleToRawLongBits(1.0);
+        double[] col = new double[256];
+        for (int i = 0; i < col.length; i++) {
+            int width = 1 + i % 40;
+            col[i] = Double.longBitsToDouble(base ^ (random.nextLong() >>> (64 - width)));
+        }
+        assertValuesRoundTrip(col, col.length);
+    }
+
+    @Test
+    void sparseValues() throws EOFException {
+        for (int n : SIZES) {
+            for (int every : new int[] { 2, 3, 7, 8, 9, 100 }) {
+                double[] col = new double[n];
+                for (int i = 0; i < n; i++) col[i] = i % every == 1 ? -0.0 + i * 0.1 : Double.NaN;
+                assertValuesRoundTrip(col, n);
+            }
+        }
+    }
+
+    @Test
+    void sparseFirstAndLastRows() throws EOFException {
+        for (int n : SIZES) {
+            double[] col = new double[n];
+            Arrays.fill(col, Double.NaN);
+            col[0] = 3.25;
+            col[n - 1] = -0.0;
+            assertValuesRoundTrip(col, n);
+        }
+    }
+
+    @Test
+    void allNaN() throws EOFException {
+        for (int n : SIZES) {
+            double[] col = new double[n];
+            Arrays.fill(col, Double.NaN);
+            assertValuesRoundTrip(col, n);
+        }
+    }
+
+    @Test
+    void decodeIntoReusedBuffers() throws EOFException {
+        // Readers reuse one column array per block; stale values must be overwritten.
+        double[] out = new double[256];
+        Arrays.fill(out, 99);
+        double[] col = new double[256];
+        Arrays.fill(col, Double.NaN);
+        col[5] = 1;
+        GorillaCodec.BitWriter w = new GorillaCodec.BitWriter();
+        GorillaCodec.encodeValues(col, col.length, w);
+        GorillaCodec.decodeValues(w.bytes(), 0, w.length(), out, col.length);
+        assertSameBits(col, out, col.length);
+    }
+
+    /**
+     * Encodes a time column as {@link FlogEncoder} does for a scalable block and checks it decodes exactly.
+     */
+    private static void assertTimeRoundTrip(double[] t, int n, int expectedScale) throws EOFException {
+        int scale = GorillaCodec.timeScale(t, n);
+        assertEquals(expectedScale, scale, "time scale");
+        GorillaCodec.BitWriter w = new GorillaCodec.BitWriter();
+        GorillaCodec.encodeTime(t, n, scale, w);
+        double[] out = new double[n];
+        // Decode from an offset, as the reader does from its scratch buffer.
+        byte[] buf = new byte[w.length() + 3];
+        System.arraycopy(w.bytes(), 0, buf, 3, w.length());
+        GorillaCodec.decodeTime(buf, 3, w.length(), out, n);
+        assertSameBits(t, out, n);
+    }
+
+    private static void assertValuesRoundTrip(double[] col, int n) throws EOFException {
+        GorillaCodec.BitWriter w = new GorillaCodec.BitWriter();
+        GorillaCodec.encodeValues(col, n, w);
+        double[] out = new double[n];
+        byte[] buf = new byte[w.length() + 5];
+        System.arraycopy(w.bytes(), 0, buf, 5, w.length());
+        GorillaCodec.decodeValues(buf, 5, w.length(), out, n);
+        assertSameBits(col, out, n);
+    }
+
+    private static void assertSameBits(double[] expected, double[] actual, int n) {
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(expected[i])) {
+                assertTrue(Double.isNaN(actual[i]), "row " + i + " of " + n + " should be unset");
+                continue;
+            }
+            long e = Double.doubleToRawLongBits(expected[i]);
+            long a = Double.doubleToRawLongBits(actual[i]);
+            if (e != a) {
+                fail("row " + i + " of " + n + ": expected " + expected[i] + " (0x" + Long.toHexString(e)
+                        + ") but was " + actual[i] + " (0x" + Long.toHexString(a) + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * {@link MergeQueue} with several real logging threads and one consumer:
+ * each source keeps its order, the merged output is in t order (within the
+ * merge window when producers wait for a full ring), no row is
+ * lost or handed out twice across {@link MergeQueue#close()}, and
+ * {@link LogWriter.OverflowPolicy#BLOCK} holds a producer at a full ring
+ * until the consumer frees a slot.
+ */
+class MergeQueueTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final ChannelSchema schema = new ChannelSchema();
+    private final int seqChannel = schema.idOf("seq");
+    private final int sourceChannel = schema.idOf(LogWriter.SOURCE_CHANNEL);
+
+    @Test
+    void mergesSourcesInTimeOrder() throws Exception {
+        // Rings large enough that no producer ever waits: every row is queued
+        // right after its t is taken, so the output is strictly in t order.
+        List<Double> t = logConcurrently(4, 20_000, 1 << 15, WINDOW_NANOS);
+        for (int i = 1; i < t.size(); i++) {
+            if (t.get(i) < t.get(i - 1)) fail("row " + i + " at t=" + t.get(i) + " after t=" + t.get(i - 1));
+        }
+    }
+
+    @Test
+    void fullRingsStayWithinTheWindow() throws Exception {
+        // With BLOCK and small rings a producer can take its t and then wait for
+        // a slot while rows of other threads pass it, but not by more than the
+        // merge window, plus the time the scheduler takes to run the waiting threads.
+        long window = TimeUnit.MILLISECONDS.toNanos(50);
+        List<Double> t = logConcurrently(4, 5_000, 64, window);
+        double boundUs = 2 * window / 1e3;
+        double latest = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < t.size(); i++) {
+            if (t.get(i) < latest - boundUs) fail("row " + i + " at t=" + t.get(i) + " after t=" + latest);
+            latest = Math.max(latest, t.get(i));
+        }
+    }
+
+    /**
+     * Logs {@code rowsPerThread} rows from each of {@code threads} threads,
+     * stamped in microseconds from one clock, with {@link LogWriter.OverflowPolicy#BLOCK}.
+     * Checks that no row is lost, duplicated or reordered within its source.
+     *
+     * @return t of every row in the order the consumer received them.
+     */
+    private List<Double> logConcurrently(int threads, final int rowsPerThread, int capacity, long windowNanos)
+            throws Exception {
+        final MergeQueue queue = new MergeQueue(capacity, LogWriter.OverflowPolicy.BLOCK, -1, sourceChannel, windowNanos);
+        Consumer consumer = new Consumer(queue);
+        consumer.start();
+
+        final long start = System.nanoTime();
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final CountDownLatch go = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < threads; p++) {
+            producers.add(start(new Runnable() {
+                @Override
+                public void run() {
+                    // Register before the clock matters, as a logger's first call is slow.
+                    MergeQueue.Producer producer = queue.producer();
+                    ready.countDown();
+                    await(go);
+                    for (int i = 0; i < rowsPerThread; i++) {
+                        double t = (System.nanoTime() - start) / 1e3;
+                        assertTrue(producer.offer(t, "us", new Object[] { "seq", i }, schema, Double.NaN));
+                    }
+                }
+            }));
+        }
+        ready.await();
+        go.countDown();
+        joinAll(producers);
+        queue.close();
+        consumer.finish();
+
+        assertEquals(threads * rowsPerThread, consumer.t.size());
+        assertEquals(0, queue.droppedCount());
+        for (int p = 0; p < threads; p++) {
+            assertEquals(sequence(rowsPerThread), consumer.seqOf(p), "source " + p);
+        }
+        return consumer.t;
+    }
+
+    @Test
+    void closeKeepsEveryAcceptedRow() throws Exception {
+        for (LogWriter.OverflowPolicy policy : new LogWriter.OverflowPolicy[] {
+                LogWriter.OverflowPolicy.BLOCK, LogWriter.OverflowPolicy.DROP_NEWEST }) {
+            for (int round = 0; round < 100; round++) {
+                closeWhileLogging(policy, 3, 16, round % 5);
+            }
+        }
+    }
+
+    /**
+     * Closes the queue while producers are still logging and checks that every
+     * row an offer accepted is handed out exactly once, in order, and every
+     * refused row is counted as dropped.
+     */
+    private void closeWhileLogging(LogWriter.OverflowPolicy policy, int threads, int capacity, long closeAfterMs)
+            throws Exception {
+        MergeQueue queue = new MergeQueue(capacity, policy, -1, sourceChannel, WINDOW_NANOS);
+        Consumer consumer = new Consumer(queue);
+        consumer.start();
+
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicInteger attempted = new AtomicInteger();
+        final List<List<Integer>> accepted = new ArrayList<>();
+        final int[] ids = new int[threads];
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < threads; p++) {
+            final List<Integer> mine = new ArrayList<>();
+            accepted.add(mine);
+            final int index = p;
+            producers.add(start(new Runnable() {
+                @Override
+                public void run() {
+                    MergeQueue.Producer producer = queue.producer();
+                    ids[index] = producer.id;
+                    for (int i = 0; !stop.get(); i++) {
+                        attempted.incrementAndGet();
+                        if (producer.offer(i, "ms", new Object[] { "seq", i }, schema, Double.NaN)) mine.add(i);
+                    }
+                }
+            }));
+        }
+        Thread.sleep(closeAfterMs);
+        queue.close();
+        stop.set(true);
+        joinAll(producers);
+        consumer.finish();
+
+        long kept = 0;
+        for (int p = 0; p < threads; p++) {
+            assertEquals(accepted.get(p), consumer.seqOf(ids[p]), policy + " source " + ids[p]);
+            kept += accepted.get(p).size();
+        }
+        assertEquals(attempted.get() - kept, queue.droppedCount(), policy + " dropped");
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void blockWaitsForAFullRing() throws Exception {
+        final int capacity = 8;
+        final int rows = 100;
+        final MergeQueue queue = new MergeQueue(capacity, LogWriter.OverflowPolicy.BLOCK, -1, sourceChannel, 0);
+        final AtomicInteger offered = new AtomicInteger();
+        Thread producer = start(new Runnable() {
+            @Override
+            public void run() {
+                MergeQueue.Producer p = queue.producer();
+                for (int i = 0; i < rows; i++) {
+                    assertTrue(p.offer(i, "ms", new Object[] { "seq", i }, schema, Double.NaN));
+                    offered.incrementAndGet();
+                }
+            }
+        });
+
+        // Nobody drains yet: the producer fills its ring and then waits.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (offered.get() < capacity && System.nanoTime() < deadline) Thread.sleep(1);
+        Thread.sleep(50);
+        assertEquals(capacity, offered.get());
+        assertTrue(producer.isAlive());
+        assertEquals(capacity, queue.size());
+
+        Consumer consumer = new Consumer(queue);
+        consumer.start();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(producer.isAlive(), "producer still blocked");
+        queue.close();
+        consumer.finish();
+
+        assertEquals(sequence(rows), consumer.seqOf(0));
+        assertEquals(0, queue.droppedCount());
+        assertEquals(capacity, queue.highWater());
+    }
+
+    @Test
+    void blockedProducerGivesUpOnClose() throws Exception {
+        final MergeQueue queue = new MergeQueue(4, LogWriter.OverflowPolicy.BLOCK, -1, sourceChannel, 0);
+        final AtomicInteger accepted = new AtomicInteger();
+        Thread producer = start(new Runnable() {
+            @Override
+            public void run() {
+                MergeQueue.Producer p = queue.producer();
+                for (int i = 0; i < 10; i++) {
+                    if (p.offer(i, "ms", new Object[] { "seq", i }, schema, Double.NaN)) accepted.incrementAndGet();
+                }
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (accepted.get() < 4 && System.nanoTime() < deadline) Thread.sleep(1);
+        queue.close();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(producer.isAlive(), "producer still blocked after close");
+
+        Consumer consumer = new Consumer(queue);
+        consumer.start();
+        consumer.finish();
+        assertEquals(sequence(4), consumer.seqOf(0));
+        assertEquals(6, queue.droppedCount());
+    }
+
+    private static List<Integer> sequence(int n) {
+        List<Integer> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) list.add(i);
+        return list;
+    }
+
+    private static Thread start(Runnable r) {
+        Thread thread = new Thread(r);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            assertFalse(thread.isAlive(), "producer did not finish");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /** Drains the queue on its own thread, as the writer thread does, until it is closed and empty. */
+    private final class Consumer extends Thread {
+        private final MergeQueue queue;
+        final List<Double> t = new ArrayList<>();
+        final List<Integer> source = new ArrayList<>();
+        final List<Integer> seq = new ArrayList<>();
+        private volatile Throwable error;
+
+        Consumer(MergeQueue queue) {
+            this.queue = queue;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            LogRow[] batch = new LogRow[queue.capacity()];
+            for (int i = 0; i < batch.length; i++) batch[i] = new LogRow();
+            try {
+                int n;
+                while ((n = queue.drainTo(batch, 10)) >= 0) {
+                    for (int i = 0; i < n; i++) {
+                        t.add(batch[i].t);
+                        source.add((int) field(batch[i], sourceChannel));
+                        seq.add((int) field(batch[i], seqChannel));
+                    }
+                }
+            } catch (Throwable e) {
+                error = e;
+            }
+        }
+
+        /** Waits for the consumer to see the closed queue empty. */
+        void finish() throws InterruptedException {
+            join(TimeUnit.SECONDS.toMillis(30));
+            assertFalse(isAlive(), "consumer did not finish");
+            if (error != null) throw new AssertionError("consumer failed", error);
+        }
+
+        List<Integer> seqOf(int sourceId) {
+            List<Integer> list = new ArrayList<>();
+            for (int i = 0; i < seq.size(); i++) {
+                if (source.get(i) == sourceId) list.add(seq.get(i));
+            }
+            return list;
+        }
+
+        private double field(LogRow row, int id) {
+            for (int i = 0; i < row.size; i++) {
+                if (row.ids[i] == id) return row.values[i];
+            }
+            throw new AssertionError("row at t=" + row.t + " has no channel " + schema.name(id));
+        }
+    }
+}
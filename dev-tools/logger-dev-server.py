@@ -46,10 +46,14 @@ def build_fake_data(path):
             continue
         t_vals.append(float(t))
 
+        # Series stay aligned with t: rows that do not set a key hold None.
         for key, val in row.items():
             if key == "t" or not isinstance(val, (int, float)):
                 continue
-            series.setdefault(key, []).append(float(val))
+            series.setdefault(key, [None] * (len(t_vals) - 1)).append(float(val))
+        for vals in series.values():
+            if len(vals) < len(t_vals):
+                vals.append(None)
 
     payload = {"t": t_vals, "series": series}
     if t_unit:
@@ -57,6 +61,21 @@ def build_fake_data(path):
     return payload
 
 
+def build_fake_compare(op_mode, runs, align):
+    out = {}
+    for run in runs:
+        data = build_fake_data(resolve_run_file(op_mode, run))
+        t_vals = data["t"]
+        offset = t_vals[0] if align and t_vals else 0.0
+        out[run] = {
+            "t": [t - offset for t in t_vals],
+            "series": data["series"],
+            "tUnit": data.get("tUnit", "s"),
+            "tOffset": offset,
+        }
+    return {"opMode": "DEV_TEST", "align": "start" if align else "none", "runs": out}
+
+
 def list_fake_runs():
     return [p.stem for p in sorted(Path(__file__).parent.glob("*.jsonl"))]
 
@@ -182,13 +201,43 @@ class LoggerDevHandler(http.server.SimpleHTTPRequestHandler):
                 "exists": run_file.exists(),
                 "bytes": run_file.stat().st_size if run_file.exists() else 0,
             }
+        elif parsed.path.startswith("/logger/api/keys"):
+            data = build_fake_data(resolve_run_file(op_mode, run))
+            payload = {
+                "opMode": "DEV_TEST",
+                "run": run or "",
+                "tUnit": data.get("tUnit", "s"),
+                "keys": list(data["series"].keys()),
+            }
         elif parsed.path.startswith("/logger/api/data"):
             run_file = resolve_run_file(op_mode, run)
             payload = build_fake_data(run_file)
+            wanted = [s for s in (qs.get("series") or [""])[0].split(",") if s]
+            if wanted:
+                payload["series"] = {k: v for k, v in payload["series"].items() if k in wanted}
+        elif parsed.path.startswith("/logger/api/tail"):
+            # Fake runs are never being written; report the end so Live stops at once.
+            payload = {"t": [], "series": {}, "tUnit": "s", "offset": 0, "active": False}
+        elif parsed.path.startswith("/logger/api/compare"):
+            runs = [r for r in (qs.get("runs") or [""])[0].split(",") if r]
+            align = (qs.get("align") or [""])[0] == "start"
+            payload = build_fake_compare(op_mode, runs, align)
         elif parsed.path.startswith("/logger/api/fs"):
+            runs = list_fake_run_meta()
+            if (qs.get("sort") or [""])[0] == "modified":
+                runs.sort(key=lambda r: r["modified"], reverse=True)
+            offset = int((qs.get("offset") or ["0"])[0] or 0)
+            limit = int((qs.get("limit") or ["0"])[0] or 0)
+            page = runs[offset:offset + limit] if limit else runs[offset:]
             payload = {
                 "opModes": [
-                    {"name": "DEV_TEST", "runs": list_fake_run_meta()}
+                    {
+                        "name": "DEV_TEST",
+                        "runCount": len(runs),
+                        "bytes": sum(r["bytes"] for r in runs),
+                        "offset": min(offset, len(runs)),
+                        "runs": page,
+                    }
                 ]
             }
         elif parsed.path.startswith("/logger/api/rename"):
@@ -197,6 +246,14 @@ class LoggerDevHandler(http.server.SimpleHTTPRequestHandler):
             payload = rename_fake_run(op_mode, run, suffix, base)
         elif parsed.path.startswith("/logger/api/delete"):
             payload = delete_fake_run(op_mode, run)
+        elif parsed.path.startswith("/logger/api/loop"):
+            payload = {"opMode": op_mode, "run": run, "active": False, "loopTiming": None}
+        elif parsed.path.startswith("/logger/api/metrics"):
+            # Fake runs are never written, so there are no writers to report.
+            payload = {
+                "writers": [],
+                "cache": {"entries": 0, "bytes": 0, "budget": 0, "hits": 0, "misses": 0, "evictions": 0},
+            }
 
         if payload is None:
             self.send_error(HTTPStatus.NOT_FOUND, "Unknown fake endpoint")
@@ -0,0 +1,187 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of run files that an open {@link LogWriter} is still writing.
+ *
+ * Writers bump a per-run version each time rows reach the file, so the tail
+ * route can long-poll without re-reading the file on a timer. Bumping is a
+ * single atomic increment unless a request is actually waiting. Writers also
+ * publish how many bytes they have written, which is less than the file length
+ * for memory-mapped runs (see {@link MappedRunOutput}).
+ *
+ * Each run carries its writer's {@link WriterMetrics}; the last few finished
+ * runs are kept as well, so /metrics can still explain a run after its OpMode
+ * stopped.
+ */
+final class ActiveRuns {
+
+    private static final ConcurrentHashMap<String, Run> RUNS = new ConcurrentHashMap<>();
+
+    /** Finished runs kept for /metrics. */
+    private static final int RECENT_LIMIT = 8;
+    private static final Deque<Run> RECENT = new ArrayDeque<>();
+
+    private ActiveRuns() { }
+
+    /** Write notifications for one run file. */
+    static final class Run {
+        final File file;
+        final WriterMetrics metrics;
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicInteger waiters = new AtomicInteger();
+        private volatile long length;
+        private volatile boolean closed;
+
+        Run(File file, WriterMetrics metrics) {
+            this.file = file;
+            this.metrics = metrics;
+        }
+
+        /**
+         * Records that new bytes reached the file and wakes waiting requests.
+         *
+         * @param written Bytes written to the file so far.
+         */
+        void changed(long written) {
+            length = written;
+            version.incrementAndGet();
+            if (waiters.get() > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        long version() {
+            return version.get();
+        }
+
+        long length() {
+            return length;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Waits until the version moves past {@code seen}, the run closes, or the timeout passes.
+         *
+         * @param seen Version observed before the caller last read the file.
+         * @param timeoutMs Maximum wait.
+         */
+        void await(long seen, long timeoutMs) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            waiters.incrementAndGet();
+            try {
+                synchronized (this) {
+                    while (version.get() == seen && !closed) {
+                        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                        if (remaining <= 0) return;
+                        wait(remaining);
+                    }
+                }
+            } finally {
+                waiters.decrementAndGet();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Marks a run file as being written.
+     *
+     * @param file Run file.
+     * @param metrics Metrics of the writer.
+     * @return Handle to notify on writes and pass to {@link #unregister}.
+     */
+    static Run register(File file, WriterMetrics metrics) {
+        Run run = new Run(file, metrics);
+        RUNS.put(file.getAbsolutePath(), run);
+        return run;
+    }
+
+    /**
+     * Marks a run as finished and wakes any waiting requests.
+     *
+     * @param run Handle from {@link #register}.
+     */
+    static void unregister(Run run) {
+        RUNS.remove(run.file.getAbsolutePath(), run);
+        run.close();
+        synchronized (RECENT) {
+            RECENT.addFirst(run);
+            while (RECENT.size() > RECENT_LIMIT) RECENT.removeLast();
+        }
+    }
+
+    /**
+     * Returns the runs being written, then the most recently finished ones, newest first.
+     *
+     * @return Run handles.
+     */
+    static List<Run> withRecent() {
+        List<Run> runs = new ArrayList<>(RUNS.values());
+        synchronized (RECENT) {
+            runs.addAll(RECENT);
+        }
+        return runs;
+    }
+
+    /**
+     * Returns the handle for a run file if a writer still has it open.
+     *
+     * @param file Run file.
+     * @return Handle or null.
+     */
+    static Run get(File file) {
+        return RUNS.get(file.getAbsolutePath());
+    }
+
+    /**
+     * Returns true if a writer still has the run file open.
+     *
+     * @param file Run file.
+     * @return True while the run is being written.
+     */
+    static boolean isActive(File file) {
+        return RUNS.containsKey(file.getAbsolutePath());
+    }
+
+    /**
+     * Returns the length of a run's data: the bytes written so far while a
+     * writer has it open, otherwise the file length.
+     *
+     * @param file Run file.
+     * @return Data length in bytes.
+     */
+    static long length(File file) {
+        Run run = RUNS.get(file.getAbsolutePath());
+        return run != null ? run.length() : file.length();
+    }
+
+    /**
+     * Returns true if no writer has a run file open.
+     *
+     * @return True while nothing is being logged.
+     */
+    static boolean isIdle() {
+        return RUNS.isEmpty();
+    }
+}
@@ -8,16 +8,20 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import fi.iki.elonen.NanoHTTPD;
 
@@ -26,19 +30,38 @@ import fi.iki.elonen.NanoHTTPD;
  *
  * Filesystem layout:
  *   <external files>/ftc-logger/<OpMode>/<RunNumber>.jsonl
+ *   <external files>/ftc-logger/<OpMode>/<RunNumber>.flog   (binary format, see FlogEncoder)
+ *   <external files>/ftc-logger/<OpMode>/<RunNumber>.jsonl.gz   (archived JSONL, see RunArchiver)
+ *   <external files>/ftc-logger/<OpMode>/<RunNumber>.jsonl.idx   (block index, see RunIndex)
+ *   <external files>/ftc-logger/<OpMode>/<RunNumber>.<ext>.summary   (cached stats, see RunSummary)
  *
  * Endpoints:
  *   GET /logger/api/opmodes
  *   GET /logger/api/runs?opMode=NAME
  *   GET /logger/api/run?opMode=NAME&run=RUN
- *   GET /logger/api/data?opMode=NAME&run=RUN
- *   GET /logger/api/fs
+ *   GET /logger/api/keys?opMode=NAME&run=RUN
+ *   GET /logger/api/data?opMode=NAME&run=RUN[&series=NAME,...][&tStart=T&tEnd=T][&maxPoints=N]
+ *   GET /logger/api/summary?opMode=NAME&run=RUN[&tStart=T&tEnd=T]
+ *   GET /logger/api/loop?opMode=NAME&run=RUN
+ *   GET /logger/api/tail?opMode=NAME&run=RUN[&offset=CURSOR][&wait=SECONDS]
+ *   GET /logger/api/compare?opMode=NAME&runs=RUN,RUN,...[&series=NAME,...][&align=start][&maxPoints=N]
+ *   GET /logger/api/fs[?opMode=NAME][&sort=name|modified][&offset=N][&limit=N]
  *   GET /logger/api/rename?opMode=NAME&run=RUN&suffix=SUFFIX
  *   GET /logger/api/delete?opMode=NAME&run=RUN
+ *   GET /logger/api/metrics
  */
 public final class ApiHandler implements WebHandler {
 
-    public enum Route { OPMODES, RUNS, RUN_META, DATA, FS, RENAME, DELETE }
+    public enum Route { OPMODES, RUNS, RUN_META, KEYS, DATA, SUMMARY, TAIL, COMPARE, FS, RENAME, DELETE, METRICS, LOOP }
+
+    /** Longest a tail request may wait for new rows, in seconds. */
+    private static final int MAX_TAIL_WAIT_S = 25;
+
+    /** Most runs one compare request may load. */
+    private static final int MAX_COMPARE_RUNS = 16;
+
+    /** Cache subdirectory for /data spool files. */
+    private static final String SPOOL_DIR = "ftc-logger-data";
 
     private final Context context;
     private final Route route;
@@ -56,38 +79,78 @@ public final class ApiHandler implements WebHandler {
      */
     @Override
     public NanoHTTPD.Response getResponse(NanoHTTPD.IHTTPSession session) {
+        boolean gzip = GzipResponse.accepts(session);
         try {
             switch (route) {
                 case OPMODES:
-                    return okJson(opModesJson());
+                    return okJson(gzip, opModesJson());
                 case RUNS:
-                    return okJson(runsJson(getFirstQuery(session, "opMode")));
+                    return okJson(gzip, runsJson(getFirstQuery(session, "opMode")));
                 case RUN_META:
-                    return okJson(runMetaJson(getFirstQuery(session, "opMode"), getFirstQuery(session, "run")));
+                    return okJson(gzip, runMetaJson(getFirstQuery(session, "opMode"), getFirstQuery(session, "run")));
+                case KEYS:
+                    return okJson(gzip, keysJson(getFirstQuery(session, "opMode"), getFirstQuery(session, "run")));
                 case DATA:
-                    return okJson(dataJson(getFirstQuery(session, "opMode"), getFirstQuery(session, "run")));
+                    return dataResponse(
+                            getFirstQuery(session, "opMode"),
+                            getFirstQuery(session, "run"),
+                            getFirstQuery(session, "series"),
+                            parseOptionalDouble(getFirstQuery(session, "tStart"), "tStart"),
+                            parseOptionalDouble(getFirstQuery(session, "tEnd"), "tEnd"),
+                            parseOptionalInt(getFirstQuery(session, "maxPoints"), "maxPoints"),
+                            gzip);
+                case SUMMARY:
+                    return okJson(gzip, summaryJson(
+                            getFirstQuery(session, "opMode"),
+                            getFirstQuery(session, "run"),
+                            parseOptionalDouble(getFirstQuery(session, "tStart"), "tStart"),
+                            parseOptionalDouble(getFirstQuery(session, "tEnd"), "tEnd")));
+                case TAIL:
+                    return tailResponse(
+                            getFirstQuery(session, "opMode"),
+                            getFirstQuery(session, "run"),
+                            parseOptionalLong(getFirstQuery(session, "offset"), "offset", -1),
+                            parseOptionalInt(getFirstQuery(session, "wait"), "wait"),
+                            gzip);
+                case COMPARE:
+                    return compareResponse(
+                            getFirstQuery(session, "opMode"),
+                            getFirstQuery(session, "runs"),
+                            getFirstQuery(session, "series"),
+                            getFirstQuery(session, "align"),
+                            parseOptionalInt(getFirstQuery(session, "maxPoints"), "maxPoints"),
+                            gzip);
                 case FS:
-                    return okJson(fsJson());
+                    return okJson(gzip, fsJson(
+                            getFirstQuery(session, "opMode"),
+                            getFirstQuery(session, "sort"),
+                            parseOptionalInt(getFirstQuery(session, "offset"), "offset"),
+                            parseOptionalInt(getFirstQuery(session, "limit"), "limit")));
                 case RENAME:
-                    return okJson(renameJson(
+                    return okJson(gzip, renameJson(
                             getFirstQuery(session, "opMode"),
                             getFirstQuery(session, "run"),
                             getFirstQuery(session, "suffix"),
                             getFirstQuery(session, "base")));
                 case DELETE:
-                    return okJson(deleteJson(
+                    return okJson(gzip, deleteJson(
                             getFirstQuery(session, "opMode"),
                             getFirstQuery(session, "run")));
+                case METRICS:
+                    return okJson(gzip, metricsJson());
+                case LOOP:
+                    return okJson(gzip, loopJson(getFirstQuery(session, "opMode"), getFirstQuery(session, "run")));
                 default:
                     return badRequest("Unknown route");
             }
         } catch (IllegalArgumentException e) {
             return badRequest(e.getMessage());
         } catch (Throwable e) {
-            return NanoHTTPD.newFixedLengthResponse(
+            return GzipResponse.fixed(
                     NanoHTTPD.Response.Status.INTERNAL_ERROR,
                     "application/json; charset=utf-8",
-                    new JSONObjectSafe().put("ok", false).put("error", String.valueOf(e)).toString()
+                    utf8(new JSONObjectSafe().put("ok", false).put("error", String.valueOf(e)).toString()),
+                    false
             );
         }
     }
@@ -99,17 +162,13 @@ public final class ApiHandler implements WebHandler {
      */
     private JSONObject opModesJson() throws JSONException {
         File root = FileSystemUtilities.getRootDir(context);
-        JSONArray modes = new JSONArray();
-        File[] children = root.listFiles();
-        if (children != null) {
-            Arrays.sort(children, Comparator.comparing(File::getName, String::compareToIgnoreCase));
-            for (File f : children) if (f.isDirectory()) modes.put(f.getName());
-        }
-        return new JSONObject().put("opModes", modes);
+        return new JSONObject().put("opModes", new JSONArray(FsIndex.shared().opModes(root)));
     }
 
     /**
-     * Returns run file names for the provided OpMode (without .jsonl extension).
+     * Returns run file names for the provided OpMode (without .jsonl/.flog/.jsonl.gz extension).
+     *
+     * A run being archived briefly has both its .jsonl and .jsonl.gz file; it is listed once.
      *
      * @param opMode OpMode name.
      * @return JSON payload containing run names.
@@ -119,17 +178,8 @@ public final class ApiHandler implements WebHandler {
 
         File opDir = new File(FileSystemUtilities.getRootDir(context), opMode);
         JSONArray runs = new JSONArray();
-
-        File[] children = opDir.listFiles();
-        if (children != null) {
-            Arrays.sort(children, (a, b) -> b.getName().compareToIgnoreCase(a.getName()));
-            for (File f : children) {
-                if (!f.isFile()) continue;
-                String name = f.getName();
-                if (!name.endsWith(".jsonl")) continue;
-                runs.put(name.substring(0, name.length() - 6));
-            }
-        }
+        List<FsIndex.Run> byName = FsIndex.shared().runs(opDir).byName;
+        for (int i = byName.size() - 1; i >= 0; i--) runs.put(byName.get(i).name);
 
         return new JSONObject().put("opMode", opMode).put("runs", runs);
     }
@@ -151,45 +201,145 @@ public final class ApiHandler implements WebHandler {
                 .put("opMode", opMode)
                 .put("run", run)
                 .put("exists", log.exists())
-                .put("bytes", log.exists() ? log.length() : 0);
+                .put("bytes", log.exists() ? ActiveRuns.length(log) : 0);
     }
 
     /**
      * Returns the OpMode/run file structure for management UI.
      *
+     * Each OpMode carries its total run count and size; its runs can be paged
+     * with {@code offset}/{@code limit} so large archives load incrementally.
+     *
+     * @param opMode Only list this OpMode (optional).
+     * @param sort "name" (natural order, default) or "modified" (newest first).
+     * @param offset Runs to skip in each OpMode.
+     * @param limit Most runs to return per OpMode, or 0 for all.
      * @return JSON payload containing OpMode folders and run files.
      */
-    private JSONObject fsJson() throws JSONException {
+    private JSONObject fsJson(String opMode, String sort, int offset, int limit) throws JSONException {
+        boolean byModified;
+        if (sort == null || sort.isEmpty() || sort.equals("name")) byModified = false;
+        else if (sort.equals("modified")) byModified = true;
+        else throw new IllegalArgumentException("Invalid query param: sort");
+        if (offset < 0) throw new IllegalArgumentException("Invalid query param: offset");
+        if (limit < 0) throw new IllegalArgumentException("Invalid query param: limit");
+
         File root = FileSystemUtilities.getRootDir(context);
+        FsIndex index = FsIndex.shared();
+        List<String> names;
+        if (opMode == null || opMode.isEmpty()) {
+            names = index.opModes(root);
+        } else {
+            if (!isSafeName(opMode)) throw new IllegalArgumentException("Invalid opMode");
+            names = Collections.singletonList(opMode);
+        }
+
         JSONArray modes = new JSONArray();
-        File[] children = root.listFiles();
-        if (children != null) {
-            Arrays.sort(children, Comparator.comparing(File::getName, String::compareToIgnoreCase));
-            for (File opDir : children) {
-                if (!opDir.isDirectory()) continue;
-                JSONArray runs = new JSONArray();
-                File[] runFiles = opDir.listFiles();
-                if (runFiles != null) {
-                    Arrays.sort(runFiles, Comparator.comparing(File::getName, String::compareToIgnoreCase));
-                    for (File f : runFiles) {
-                        if (!f.isFile()) continue;
-                        String name = f.getName();
-                        if (!name.endsWith(".jsonl")) continue;
-                        String base = name.substring(0, name.length() - 6);
-                        runs.put(new JSONObject()
-                                .put("name", base)
-                                .put("bytes", f.length())
-                                .put("modified", f.lastModified()));
-                    }
-                }
-                modes.put(new JSONObject()
-                        .put("name", opDir.getName())
-                        .put("runs", runs));
+        for (String name : names) {
+            FsIndex.Runs all = index.runs(new File(root, name));
+            List<FsIndex.Run> list = byModified ? all.byModified : all.byName;
+            int from = Math.min(offset, list.size());
+            int to = limit == 0 ? list.size() : (int) Math.min((long) from + limit, list.size());
+            JSONArray runs = new JSONArray();
+            for (FsIndex.Run r : list.subList(from, to)) {
+                runs.put(new JSONObject()
+                        .put("name", r.name)
+                        .put("bytes", r.bytes())
+                        .put("modified", r.modified));
             }
+            modes.put(new JSONObject()
+                    .put("name", name)
+                    .put("runCount", list.size())
+                    .put("bytes", all.bytes())
+                    .put("offset", from)
+                    .put("runs", runs));
         }
         return new JSONObject().put("opModes", modes);
     }
 
+    /**
+     * Returns the self-instrumentation of every open writer and the last few
+     * closed ones, plus the run cache counters.
+     *
+     * @return JSON payload with {@code writers} (open first) and {@code cache}.
+     */
+    private JSONObject metricsJson() throws JSONException {
+        long now = System.currentTimeMillis();
+        JSONArray writers = new JSONArray();
+        for (ActiveRuns.Run run : ActiveRuns.withRecent()) {
+            WriterMetrics m = run.metrics;
+            long closed = m.closedMillis();
+            long rows = m.rows.sum();
+            double seconds = ((closed > 0 ? closed : now) - m.openedMillis()) / 1000.0;
+            JSONObject w = new JSONObject()
+                    .put("opMode", run.file.getParentFile().getName())
+                    .put("run", FileSystemUtilities.runName(run.file.getName()))
+                    .put("active", !run.isClosed())
+                    .put("opened", m.openedMillis())
+                    .put("closed", closed > 0 ? closed : JSONObject.NULL)
+                    .put("rows", rows)
+                    .put("rowsPerSecond", seconds > 0 ? rows / seconds : 0)
+                    .put("bytes", m.bytes.sum())
+                    .put("flushes", m.flushes.sum())
+                    .put("syncs", m.syncs.sum())
+                    .put("skippedFields", m.skipped.sum())
+                    .put("errors", m.errors.sum())
+                    .put("lastError", m.lastError() != null ? m.lastError() : JSONObject.NULL)
+                    .put("encodeNs", histogramJson(m.encodeNanos))
+                    .put("writeNs", histogramJson(m.writeNanos))
+                    .put("syncNs", histogramJson(m.syncNanos));
+            if (m.loopNanos.count() > 0) w.put("loopNs", histogramJson(m.loopNanos));
+            RowBuffer queue = m.queue();
+            if (queue != null) {
+                w.put("queue", new JSONObject()
+                        .put("capacity", queue.capacity())
+                        .put("queued", queue.size())
+                        .put("highWater", queue.highWater())
+                        .put("dropped", queue.droppedCount()));
+            }
+            if (queue instanceof MergeQueue) {
+                JSONArray sources = new JSONArray();
+                for (MergeQueue.Producer p : ((MergeQueue) queue).producers()) {
+                    sources.put(new JSONObject()
+                            .put("id", p.id)
+                            .put("name", p.name)
+                            .put("rows", p.rows())
+                            .put("queued", p.size())
+                            .put("highWater", p.highWater())
+                            .put("dropped", p.dropped()));
+                }
+                w.put("sources", sources);
+            }
+            writers.put(w);
+        }
+        RunCache cache = RunCache.shared();
+        return new JSONObject()
+                .put("writers", writers)
+                .put("cache", new JSONObject()
+                        .put("entries", cache.entryCount())
+                        .put("bytes", cache.sizeBytes())
+                        .put("budget", cache.budgetBytes())
+                        .put("hits", cache.hitCount())
+                        .put("misses", cache.missCount())
+                        .put("evictions", cache.evictionCount()));
+    }
+
+    /**
+     * Summarizes a latency histogram.
+     *
+     * @param h Histogram of nanosecond durations.
+     * @return JSON object with count, mean, p50, p90, p99 and max.
+     */
+    private static JSONObject histogramJson(LatencyHistogram h) throws JSONException {
+        return new JSONObject()
+                .put("count", h.count())
+                .put("mean", h.mean())
+                .put("p50", h.percentile(50))
+                .put("p90", h.percentile(90))
+                .put("p99", h.percentile(99))
+                .put("max", h.max());
+    }
+
     /**
      * Renames a run by replacing (or removing) the suffix after the first space.
      *
@@ -224,9 +374,12 @@ public final class ApiHandler implements WebHandler {
         if (newBase.equals(run)) {
             return new JSONObject().put("ok", true).put("run", newBase);
         }
-        File dst = new File(opDir, newBase + ".jsonl");
+        File dst = new File(opDir, newBase + FileSystemUtilities.runExtension(src.getName()));
         if (dst.exists()) throw new IllegalArgumentException("Target already exists");
         if (!src.renameTo(dst)) throw new IllegalArgumentException("Rename failed");
+        FileSystemUtilities.moveSidecars(src, dst);
+        RunCache.shared().invalidate(src);
+        FsIndex.shared().invalidate(opDir);
 
         return new JSONObject().put("ok", true).put("run", newBase);
     }
@@ -246,12 +399,18 @@ public final class ApiHandler implements WebHandler {
         boolean ok;
         if (run == null || run.trim().isEmpty()) {
             ok = deleteRecursive(opDir);
+            RunCache.shared().invalidateDir(opDir);
+            FsIndex.shared().invalidate(opDir);
+            FsIndex.shared().invalidate(opDir.getParentFile());
             return new JSONObject().put("ok", ok).put("opMode", opMode);
         }
 
         if (!isSafeName(run)) throw new IllegalArgumentException("Invalid run name");
         File log = resolveRunFile(opMode, run);
         ok = log.delete();
+        if (ok) FileSystemUtilities.deleteSidecars(log);
+        RunCache.shared().invalidate(log);
+        FsIndex.shared().invalidate(opDir);
         return new JSONObject().put("ok", ok).put("run", run);
     }
 
@@ -259,17 +418,123 @@ public final class ApiHandler implements WebHandler {
      * Returns:
      * {
      *   "t": [ ... ],
-     *   "series": { "fieldName": [ ... ], ... }
+     *   "series": { "fieldName": [ v|null, ... ], ... }
      * }
      *
-     * Expects each log line to be JSON:
-     *   {"t": <number>, "key": <number>, ...}
+     * Series are aligned with t and hold null where a row did not set the field,
+     * such as channels thinned by {@link LogWriter.Options#maxRate} and the other
+     * channel policies.
+     *
+     * Reads .jsonl runs ({"t": <number>, "key": <number>, ...} per line) and
+     * binary .flog runs into the same shape.
+     *
+     * The run is parsed into columns (cached in memory for small runs, spooled to
+     * the app cache dir otherwise) and the JSON is rendered from them as a chunked
+     * response, so it is never built as one string.
+     *
+     * tStart/tEnd (run time units) limit the rows to a window; JSONL runs then
+     * only parse the blocks their {@link RunIndex} marks as overlapping. With maxPoints,
+     * windows holding more rows than that are reduced by {@link Downsampler}
+     * and the payload gains "downsampled": true|false.
+     *
+     * series limits the payload to the named series. Runs too large for the
+     * cache are parsed with the filter pushed into the reader, so other fields
+     * are skipped rather than decoded.
+     *
+     * @param opMode OpMode name.
+     * @param run Run folder name.
+     * @param seriesParam Comma-separated series names, or empty for all.
+     * @param tStart Window start, or NaN for none.
+     * @param tEnd Window end, or NaN for none.
+     * @param maxPoints Most rows in the reply, shared by all series (at least two per series), or 0 for all rows.
+     * @param gzip True to gzip the body while streaming it.
+     * @return Chunked HTTP response containing time series data.
+     */
+    private NanoHTTPD.Response dataResponse(String opMode, String run, String seriesParam, double tStart, double tEnd,
+                                            int maxPoints, boolean gzip) throws Exception {
+        requireNonEmpty(opMode, "Missing query param: opMode");
+        requireNonEmpty(run, "Missing query param: run");
+        if (maxPoints < 0) throw new IllegalArgumentException("Invalid query param: maxPoints");
+
+        File log = resolveRunFile(opMode, run);
+        if (!log.exists()) {
+            throw new IllegalArgumentException("Log not found: " + log.getAbsolutePath());
+        }
+
+        RunColumns columns = loadColumns(log, tStart, tEnd, parseSeries(seriesParam));
+        Downsampler.Selection selection;
+        try {
+            selection = Downsampler.select(columns, tStart, tEnd, maxPoints);
+        } catch (Exception e) {
+            columns.release();
+            throw e;
+        }
+        Map<String, Object> extra = null;
+        if (maxPoints > 0) extra = Collections.<String, Object>singletonMap("downsampled", selection.reduced);
+        return GzipResponse.chunked(
+                NanoHTTPD.Response.Status.OK,
+                "application/json; charset=utf-8",
+                new DataJsonStream(columns, selection.rows, extra),
+                gzip
+        );
+    }
+
+    /**
+     * Returns the parsed columns of a run.
+     *
+     * Runs small enough for {@link RunCache} are parsed in full into memory and
+     * cached, then projected to the requested series, so fetching the other
+     * series later is a cache hit. Larger runs are spooled to the cache dir,
+     * reading only the requested series from the blocks that may overlap the window.
+     *
+     * @param log Run file.
+     * @param tStart Window start, or NaN for none.
+     * @param tEnd Window end, or NaN for none.
+     * @param series Series to include, or null for all.
+     * @return Columns for the response; release them when done.
+     */
+    private RunColumns loadColumns(File log, double tStart, double tEnd, Set<String> series) throws Exception {
+        RunCache cache = RunCache.shared();
+        ArrayColumns cached = cache.get(log);
+        if (cached != null) return project(cached, series);
+
+        if (cache.accepts(log)) {
+            long length = ActiveRuns.length(log);
+            long modified = log.lastModified();
+            ArrayColumns columns = new ArrayColumns();
+            RunReader.read(log, columns);
+            cache.put(log, length, modified, columns.trim());
+            return project(columns, series);
+        }
+
+        DataSpool spool = new DataSpool(new File(context.getCacheDir(), SPOOL_DIR));
+        try {
+            RunReader.readWindow(log, tStart, tEnd, series, spool);
+            spool.finishWriting();
+        } catch (Exception e) {
+            spool.close();
+            throw e;
+        }
+        return spool;
+    }
+
+    private static RunColumns project(RunColumns columns, Set<String> series) {
+        return series == null ? columns : new ProjectedColumns(columns, series, 0);
+    }
+
+    /**
+     * Returns a run's loop timing report (see {@link LogWriter.Options#loopTiming}):
+     * { "opMode": "NAME", "run": "RUN", "active": false, "loopTiming": {count, mean, p50, p90, p99, max, buckets} }
+     *
+     * Finished runs answer from the summary written at the end of the run, without
+     * reading its rows; runs still being written report the live histogram.
+     * {@code loopTiming} is null if the run was logged without loop timing.
      *
      * @param opMode OpMode name.
      * @param run Run folder name.
-     * @return JSON payload containing time series data.
+     * @return JSON payload containing the loop timing summary.
      */
-    private JSONObject dataJson(String opMode, String run) throws Exception {
+    private JSONObject loopJson(String opMode, String run) throws Exception {
         requireNonEmpty(opMode, "Missing query param: opMode");
         requireNonEmpty(run, "Missing query param: run");
 
@@ -278,60 +543,273 @@ public final class ApiHandler implements WebHandler {
             throw new IllegalArgumentException("Log not found: " + log.getAbsolutePath());
         }
 
-        List<Double> t = new ArrayList<>();
-        JSONObject series = new JSONObject();
-        String tUnit = "s";
+        ActiveRuns.Run live = ActiveRuns.get(log);
+        LoopTiming loop;
+        if (live != null) {
+            loop = live.metrics.loopNanos.count() > 0 ? LoopTiming.of(live.metrics.loopNanos) : null;
+        } else {
+            loop = LoopTiming.read(log);
+        }
+        return new JSONObject()
+                .put("opMode", opMode)
+                .put("run", run)
+                .put("active", live != null)
+                .put("loopTiming", loop != null ? loop.toJson() : JSONObject.NULL);
+    }
 
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(new FileInputStream(log), StandardCharsets.UTF_8))) {
+    /**
+     * Returns a run's series names without reading its rows:
+     * { "opMode": "NAME", "run": "RUN", "tUnit": "ms", "keys": ["name", ...] }
+     *
+     * JSONL runs answer from their {@link RunIndex} sidecar (built on first use);
+     * .flog runs read only their channel records.
+     *
+     * @param opMode OpMode name.
+     * @param run Run folder name.
+     * @return JSON payload containing the series names.
+     */
+    private JSONObject keysJson(String opMode, String run) throws Exception {
+        requireNonEmpty(opMode, "Missing query param: opMode");
+        requireNonEmpty(run, "Missing query param: run");
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
+        File log = resolveRunFile(opMode, run);
+        if (!log.exists()) {
+            throw new IllegalArgumentException("Log not found: " + log.getAbsolutePath());
+        }
 
-                JSONObject row;
-                try {
-                    row = new JSONObject(line);
-                } catch (JSONException ignored) {
-                    continue;
-                }
+        final String[] unit = {"s"};
+        final JSONArray keys = new JSONArray();
+        RunReader.readChannels(log, new RunVisitor() {
+            @Override
+            public void timeUnit(String u) {
+                unit[0] = u;
+            }
 
-                if (row.has("tUnit")) {
-                    tUnit = row.optString("tUnit", tUnit);
-                    continue;
-                }
-                if (row.has("t_unit")) {
-                    tUnit = row.optString("t_unit", tUnit);
-                    continue;
-                }
-                if (!row.has("t")) continue;
-                double ti = row.optDouble("t", Double.NaN);
-                if (Double.isNaN(ti)) continue;
+            @Override
+            public void channel(int id, String name) {
+                keys.put(name);
+            }
+
+            @Override
+            public void row(double t, int[] ids, double[] values, int count) { }
+        });
+        return new JSONObject()
+                .put("opMode", opMode)
+                .put("run", run)
+                .put("tUnit", unit[0])
+                .put("keys", keys);
+    }
+
+    /**
+     * Returns per-series statistics for a run (see {@link RunSummary#toJson()}).
+     *
+     * The whole-run summary is cached in a sidecar; a tStart/tEnd window is
+     * computed on the fly.
+     *
+     * @param opMode OpMode name.
+     * @param run Run folder name.
+     * @param tStart Window start, or NaN for none.
+     * @param tEnd Window end, or NaN for none.
+     * @return JSON payload containing the summary.
+     */
+    private JSONObject summaryJson(String opMode, String run, double tStart, double tEnd) throws Exception {
+        requireNonEmpty(opMode, "Missing query param: opMode");
+        requireNonEmpty(run, "Missing query param: run");
+
+        File log = resolveRunFile(opMode, run);
+        if (!log.exists()) {
+            throw new IllegalArgumentException("Log not found: " + log.getAbsolutePath());
+        }
+
+        JSONObject summary = Double.isNaN(tStart) && Double.isNaN(tEnd)
+                ? RunSummary.load(log)
+                : RunSummary.compute(log, tStart, tEnd);
+        return summary.put("opMode", opMode).put("run", run);
+    }
+
+    /**
+     * Returns rows written to a run after a cursor, waiting for them if the run is still open:
+     * {
+     *   "t": [...], "series": { "name": [v|null, ...], ... }, "tUnit": "ms",
+     *   "offset": CURSOR, "active": true|false[, "reset": true]
+     * }
+     *
+     * As in /data, series are aligned with t and hold null where a row did not
+     * set the field, so clients can drop rows they already have by t.
+     *
+     * The cursor is opaque: pass -1 (or leave it out) to get the current end
+     * without rows, then pass each response's "offset" to the next request. If
+     * the cursor is past the end of the run, or is not a record boundary of a
+     * .flog run, reading restarts from the beginning and "reset" is set. One
+     * response decodes about 1 MB of the run; the next request continues.
+     * With wait, a request for an active run with no new rows blocks until the
+     * writer flushes, the run closes, or the wait (capped at
+     * {@link #MAX_TAIL_WAIT_S} seconds) runs out.
+     *
+     * @param opMode OpMode name.
+     * @param run Run folder name.
+     * @param offset Cursor from a previous response, or -1 for the current end.
+     * @param waitSeconds Seconds to wait for new rows, or 0 to return at once.
+     * @param gzip True to gzip the body while streaming it.
+     * @return Chunked HTTP response containing the new rows.
+     */
+    private NanoHTTPD.Response tailResponse(String opMode, String run, long offset, int waitSeconds, boolean gzip)
+            throws Exception {
+        requireNonEmpty(opMode, "Missing query param: opMode");
+        requireNonEmpty(run, "Missing query param: run");
+        if (waitSeconds < 0) throw new IllegalArgumentException("Invalid query param: wait");
 
-                t.add(ti);
+        File log = resolveRunFile(opMode, run);
+        if (!log.exists()) {
+            throw new IllegalArgumentException("Log not found: " + log.getAbsolutePath());
+        }
 
-                for (java.util.Iterator<String> it = row.keys(); it.hasNext(); ) {
-                    String key = it.next();
-                    if ("t".equals(key)) continue;
+        long deadline = System.currentTimeMillis() + 1000L * Math.min(waitSeconds, MAX_TAIL_WAIT_S);
+        while (true) {
+            ActiveRuns.Run live = ActiveRuns.get(log);
+            long seen = live == null ? 0 : live.version();
+            RunTail tail = RunTail.read(log, offset);
+            boolean active = live != null && !live.isClosed();
+            long remaining = deadline - System.currentTimeMillis();
+            if (tail.rows.rowCount() > 0 || tail.reset || offset < 0 || !active || remaining <= 0) {
+                Map<String, Object> extra = new LinkedHashMap<>();
+                extra.put("offset", tail.next);
+                extra.put("active", active);
+                if (tail.reset) extra.put("reset", true);
+                return GzipResponse.chunked(
+                        NanoHTTPD.Response.Status.OK,
+                        "application/json; charset=utf-8",
+                        new DataJsonStream(tail.rows, null, extra),
+                        gzip
+                );
+            }
+            live.await(seen, remaining);
+        }
+    }
+
+    /**
+     * Returns several runs of one OpMode for overlaying:
+     * {
+     *   "opMode": "NAME", "align": "start"|"none",
+     *   "runs": {
+     *     "RUN": { "t": [...], "series": { "name": [v|null, ...], ... }, "tUnit": "ms",
+     *              "tOffset": T0[, "downsampled": true|false] }, ...
+     *   }
+     * }
+     *
+     * Runs are loaded in parallel on {@link ParseExecutor}, through the same
+     * cache and spool as /data, and rendered in request order as one chunked
+     * response. series limits each run to the named series. With align=start
+     * each run's t is shifted so it starts at 0 and tOffset holds the first t
+     * that was subtracted (0 otherwise). Series are aligned with t and hold
+     * null where a row did not set the field.
+     *
+     * @param opMode OpMode name.
+     * @param runsParam Comma-separated run names.
+     * @param seriesParam Comma-separated series names, or empty for all.
+     * @param align "start" to align run starts, or empty/"none".
+     * @param maxPoints Most rows per run, shared by its series (at least two per series), or 0 for all rows.
+     * @param gzip True to gzip the body while streaming it.
+     * @return Chunked HTTP response containing every run.
+     */
+    private NanoHTTPD.Response compareResponse(String opMode, String runsParam, String seriesParam, String align,
+                                               final int maxPoints, boolean gzip) throws Exception {
+        requireNonEmpty(opMode, "Missing query param: opMode");
+        requireNonEmpty(runsParam, "Missing query param: runs");
+        if (maxPoints < 0) throw new IllegalArgumentException("Invalid query param: maxPoints");
+        final boolean alignStart;
+        if (align == null || align.isEmpty() || align.equals("none")) alignStart = false;
+        else if (align.equals("start")) alignStart = true;
+        else throw new IllegalArgumentException("Invalid query param: align");
+
+        Set<String> runs = splitList(runsParam);
+        if (runs.isEmpty() || runs.size() > MAX_COMPARE_RUNS) {
+            throw new IllegalArgumentException("Invalid query param: runs");
+        }
+        final Set<String> series = parseSeries(seriesParam);
 
-                    Object v = row.opt(key);
-                    if (!(v instanceof Number)) continue;
+        List<File> logs = new ArrayList<>();
+        for (String run : runs) {
+            File log = resolveRunFile(opMode, run);
+            if (!log.exists()) {
+                throw new IllegalArgumentException("Log not found: " + log.getAbsolutePath());
+            }
+            logs.add(log);
+        }
 
-                    JSONArray arr = series.optJSONArray(key);
-                    if (arr == null) {
-                        arr = new JSONArray();
-                        series.put(key, arr);
+        List<Future<InputStream>> futures = new ArrayList<>();
+        for (final File log : logs) {
+            futures.add(ParseExecutor.shared().submit(() -> compareStream(log, series, alignStart, maxPoints)));
+        }
+        List<InputStream> parts = new ArrayList<>();
+        Throwable failure = null;
+        for (int next = 0; next < futures.size(); next++) {
+            try {
+                parts.add(futures.get(next).get());
+            } catch (ExecutionException e) {
+                if (failure == null) failure = e.getCause();
+            } catch (InterruptedException e) {
+                // Stop waiting: cancel the runs still loading and close the ones already done.
+                for (Future<InputStream> f : futures.subList(next, futures.size())) {
+                    if (f.cancel(true) || f.isCancelled()) continue;
+                    try {
+                        parts.add(f.get());
+                    } catch (ExecutionException ignored) {
+                        // Failed on its own; nothing to close.
                     }
-                    arr.put(((Number) v).doubleValue());
                 }
+                Thread.currentThread().interrupt();
+                for (InputStream part : parts) part.close();
+                throw e;
             }
         }
+        if (failure != null) {
+            for (InputStream part : parts) part.close();
+            if (failure instanceof Exception) throw (Exception) failure;
+            throw new RuntimeException(failure);
+        }
 
-        JSONArray tArr = new JSONArray();
-        for (double ti : t) tArr.put(ti);
+        StringBuilder head = new StringBuilder("{\"opMode\":");
+        JsonBytes.appendQuoted(head, opMode);
+        head.append(",\"align\":\"").append(alignStart ? "start" : "none").append("\",\"runs\":{");
+        List<InputStream> body = new ArrayList<>();
+        int i = 0;
+        for (String run : runs) {
+            if (i > 0) head.append(',');
+            JsonBytes.appendQuoted(head, run);
+            head.append(':');
+            body.add(utf8Stream(head.toString()));
+            body.add(parts.get(i++));
+            head.setLength(0);
+        }
+        body.add(utf8Stream("}}"));
+        return GzipResponse.chunked(
+                NanoHTTPD.Response.Status.OK,
+                "application/json; charset=utf-8",
+                new SequenceInputStream(Collections.enumeration(body)),
+                gzip
+        );
+    }
 
-        return new JSONObject().put("t", tArr).put("series", series).put("tUnit", tUnit);
+    /**
+     * Loads one run for /compare and wraps it in a stream of its JSON object.
+     * Runs on {@link ParseExecutor}.
+     */
+    private InputStream compareStream(File log, Set<String> series, boolean alignStart, int maxPoints)
+            throws Exception {
+        RunColumns columns = loadColumns(log, Double.NaN, Double.NaN, series);
+        try {
+            double tOffset = alignStart ? ProjectedColumns.firstT(columns) : 0;
+            RunColumns view = new ProjectedColumns(columns, null, tOffset);
+            Downsampler.Selection selection = Downsampler.select(view, Double.NaN, Double.NaN, maxPoints);
+            Map<String, Object> extra = new LinkedHashMap<>();
+            extra.put("tOffset", tOffset);
+            if (maxPoints > 0) extra.put("downsampled", selection.reduced);
+            return new DataJsonStream(view, selection.rows, extra);
+        } catch (Exception e) {
+            columns.release();
+            throw e;
+        }
     }
 
     // ---- helpers ----
@@ -339,14 +817,16 @@ public final class ApiHandler implements WebHandler {
     /**
      * Creates a 200 OK JSON response.
      *
+     * @param gzip True if the client accepts gzip.
      * @param obj JSON payload to return.
      * @return HTTP response.
      */
-    private static NanoHTTPD.Response okJson(JSONObject obj) {
-        return NanoHTTPD.newFixedLengthResponse(
+    private static NanoHTTPD.Response okJson(boolean gzip, JSONObject obj) {
+        return GzipResponse.fixed(
                 NanoHTTPD.Response.Status.OK,
                 "application/json; charset=utf-8",
-                obj.toString()
+                utf8(obj.toString()),
+                gzip
         );
     }
 
@@ -357,10 +837,11 @@ public final class ApiHandler implements WebHandler {
      * @return HTTP response.
      */
     private static NanoHTTPD.Response badRequest(String message) {
-        return NanoHTTPD.newFixedLengthResponse(
+        return GzipResponse.fixed(
                 NanoHTTPD.Response.Status.BAD_REQUEST,
                 "application/json; charset=utf-8",
-                new JSONObjectSafe().put("ok", false).put("error", message).toString()
+                utf8(new JSONObjectSafe().put("ok", false).put("error", message).toString()),
+                false
         );
     }
 
@@ -378,6 +859,91 @@ public final class ApiHandler implements WebHandler {
         return vals.get(0);
     }
 
+    /**
+     * Parses an optional numeric query parameter.
+     *
+     * @param s Raw value (may be empty).
+     * @param name Parameter name for the error message.
+     * @return Parsed value, or NaN if empty.
+     */
+    private static double parseOptionalDouble(String s, String name) {
+        if (s == null || s.trim().isEmpty()) return Double.NaN;
+        try {
+            double v = Double.parseDouble(s.trim());
+            if (Double.isNaN(v)) throw new NumberFormatException();
+            return v;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid query param: " + name);
+        }
+    }
+
+    /**
+     * Parses an optional integer query parameter.
+     *
+     * @param s Raw value (may be empty).
+     * @param name Parameter name for the error message.
+     * @return Parsed value, or 0 if empty.
+     */
+    private static int parseOptionalInt(String s, String name) {
+        if (s == null || s.trim().isEmpty()) return 0;
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid query param: " + name);
+        }
+    }
+
+    /**
+     * Parses an optional long query parameter.
+     *
+     * @param s Raw value (may be empty).
+     * @param name Parameter name for the error message.
+     * @param fallback Value to return if empty.
+     * @return Parsed value, or fallback if empty.
+     */
+    private static long parseOptionalLong(String s, String name, long fallback) {
+        if (s == null || s.trim().isEmpty()) return fallback;
+        try {
+            return Long.parseLong(s.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid query param: " + name);
+        }
+    }
+
+    /**
+     * Splits a comma-separated query parameter, dropping blanks and duplicates.
+     *
+     * @param s Raw value.
+     * @return Trimmed values in order.
+     */
+    private static Set<String> splitList(String s) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String part : s.split(",")) {
+            String v = part.trim();
+            if (!v.isEmpty()) out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * Parses an optional series list.
+     *
+     * @param s Comma-separated names (may be empty).
+     * @return Names, or null for all series.
+     */
+    private static Set<String> parseSeries(String s) {
+        if (s == null || s.trim().isEmpty()) return null;
+        return splitList(s);
+    }
+
+    private static InputStream utf8Stream(String s) {
+        return new ByteArrayInputStream(utf8(s));
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * Throws if the provided string is null/blank.
      *
@@ -389,17 +955,15 @@ public final class ApiHandler implements WebHandler {
     }
 
     /**
-     * Resolves a run parameter to a .jsonl file under the OpMode directory.
+     * Resolves a run parameter to a .jsonl, .flog or .jsonl.gz file under the OpMode directory.
      *
      * @param opMode OpMode name.
-     * @param run Run number or filename (with/without .jsonl).
+     * @param run Run number or filename (with/without extension).
      * @return Log file for the run.
      */
     private File resolveRunFile(String opMode, String run) {
         File opDir = new File(FileSystemUtilities.getRootDir(context), opMode);
-        String name = run;
-        if (!name.endsWith(".jsonl")) name = name + ".jsonl";
-        return new File(opDir, name);
+        return FileSystemUtilities.findRunFile(opDir, run);
     }
 
     private static boolean isSafeName(String name) {
@@ -0,0 +1,135 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parsed run held in primitive {@code double[]} columns.
+ *
+ * Filled as a {@link RunVisitor}, then {@link #trim()}med and treated as
+ * read-only, so one instance can serve concurrent responses from {@link RunCache}.
+ */
+final class ArrayColumns implements RunColumns, RunVisitor {
+
+    private final List<String> channelNames = new ArrayList<>();
+    private final List<Integer> columnOf = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private double[] t = new double[1024];
+    private double[][] values = new double[0][];
+    private int rows;
+    private String tUnit = "s";
+
+    @Override
+    public void timeUnit(String unit) {
+        tUnit = unit;
+    }
+
+    @Override
+    public void channel(int id, String name) {
+        while (channelNames.size() <= id) {
+            channelNames.add(null);
+            columnOf.add(-1);
+        }
+        channelNames.set(id, name);
+    }
+
+    @Override
+    public void row(double ti, int[] ids, double[] vals, int count) {
+        if (!JsonBytes.isFinite(ti)) return;
+        if (rows == t.length) grow(rows * 2);
+        t[rows] = ti;
+        for (int i = 0; i < count; i++) {
+            double v = vals[i];
+            if (!JsonBytes.isFinite(v)) continue;
+            int c = columnOf.get(ids[i]);
+            if (c < 0) c = addColumn(ids[i]);
+            values[c][rows] = v;
+        }
+        rows++;
+    }
+
+    private int addColumn(int id) {
+        int c = names.size();
+        names.add(channelNames.get(id));
+        columnOf.set(id, c);
+        values = Arrays.copyOf(values, c + 1);
+        values[c] = new double[t.length];
+        Arrays.fill(values[c], Double.NaN);
+        return c;
+    }
+
+    private void grow(int capacity) {
+        t = Arrays.copyOf(t, capacity);
+        for (int c = 0; c < values.length; c++) {
+            int old = values[c].length;
+            values[c] = Arrays.copyOf(values[c], capacity);
+            Arrays.fill(values[c], old, capacity, Double.NaN);
+        }
+    }
+
+    /**
+     * Shrinks the columns to the row count once parsing is done.
+     *
+     * @return This instance.
+     */
+    ArrayColumns trim() {
+        if (t.length != rows) {
+            t = Arrays.copyOf(t, rows);
+            for (int c = 0; c < values.length; c++) values[c] = Arrays.copyOf(values[c], rows);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the approximate heap used by the columns.
+     *
+     * @return Size in bytes.
+     */
+    long byteSize() {
+        long bytes = 8L * t.length;
+        for (double[] col : values) bytes += 8L * col.length;
+        for (String n : names) bytes += 40 + 2L * n.length();
+        return bytes;
+    }
+
+    @Override
+    public String timeUnit() {
+        return tUnit;
+    }
+
+    @Override
+    public long rowCount() {
+        return rows;
+    }
+
+    @Override
+    public int seriesCount() {
+        return names.size();
+    }
+
+    @Override
+    public String seriesName(int index) {
+        return names.get(index);
+    }
+
+    @Override
+    public Cursor open(int index) {
+        final double[] col = index == T ? t : values[index];
+        return new Cursor() {
+            private int i;
+
+            @Override
+            public double next() {
+                return col[i++];
+            }
+
+            @Override
+            public void close() { }
+        };
+    }
+
+    /** Cached columns outlive the response; nothing to release. */
+    @Override
+    public void release() { }
+}
@@ -0,0 +1,144 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-channel write policies of one run (see {@link LogWriter.Options#maxRate},
+ * {@link LogWriter.Options#deadband} and {@link LogWriter.Options#everyNth}).
+ *
+ * {@link #apply} removes the fields a policy holds back from a row before it is
+ * encoded, so slowly changing channels only cost bytes when they are written.
+ * A field is kept only if every policy of its channel lets it through; state
+ * (sample counts, the time and value last written) is kept per channel id.
+ * Rates are checked against the row's own time, so the result does not depend
+ * on when the writer thread gets to the row.
+ *
+ * Not thread-safe: used by {@link RowWriter} only.
+ */
+final class ChannelPolicies {
+
+    /** Settings for one channel, collected by {@link LogWriter.Options} before the schema exists. */
+    static final class Policy {
+        /** Least time between written values in seconds, or 0 for no limit. */
+        double minIntervalSeconds;
+        /** Change needed to write a value, or -1 for none. */
+        double deadband = -1;
+        /** Write one of every this many samples. */
+        int every = 1;
+    }
+
+    private final ChannelSchema schema;
+    private final Map<String, Policy> byName;
+    private final WriterMetrics metrics;
+    /** Channel ids whose policy has been looked up. */
+    private int known;
+
+    private double[] minInterval = new double[0];
+    private double[] deadband = new double[0];
+    private int[] every = new int[0];
+    private long[] samples = new long[0];
+    /** Earliest time (seconds) the next value may be written under the rate limit. */
+    private double[] nextT = new double[0];
+    /** Time (seconds) of the last written value. */
+    private double[] lastT = new double[0];
+    private double[] lastValue = new double[0];
+    private boolean[] written = new boolean[0];
+
+    /**
+     * Creates the policies of a run. Names are matched to channel ids as the
+     * channels are registered, so a policy for a channel that is never logged
+     * adds nothing to the run.
+     *
+     * @param schema Channel schema of the run.
+     * @param policies Policies by channel name; copied.
+     * @param metrics Metrics that count the fields left out.
+     */
+    ChannelPolicies(ChannelSchema schema, Map<String, Policy> policies, WriterMetrics metrics) {
+        this.schema = schema;
+        this.byName = new HashMap<>();
+        for (Map.Entry<String, Policy> e : policies.entrySet()) {
+            Policy p = new Policy();
+            p.minIntervalSeconds = e.getValue().minIntervalSeconds;
+            p.deadband = e.getValue().deadband;
+            p.every = e.getValue().every;
+            byName.put(e.getKey(), p);
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * Removes the fields held back by their channel's policy.
+     *
+     * @param row Row to filter in place.
+     * @return False if the row had fields and none are left, so it need not be written.
+     */
+    boolean apply(LogRow row) {
+        if (row.size == 0) return true;
+        if (known < schema.size()) resolve();
+        double tSeconds = row.t * secondsPerUnit(row.unit);
+        int kept = 0;
+        for (int i = 0; i < row.size; i++) {
+            int id = row.ids[i];
+            double v = row.values[i];
+            if (keep(id, tSeconds, v)) {
+                row.ids[kept] = id;
+                row.values[kept] = v;
+                kept++;
+            }
+        }
+        if (kept < row.size) metrics.skipped.add(row.size - kept);
+        row.size = kept;
+        return kept > 0;
+    }
+
+    private boolean keep(int id, double tSeconds, double v) {
+        if (every[id] > 1 && samples[id]++ % every[id] != 0) return false;
+        double interval = minInterval[id];
+        // Time going backwards (a new time base) restarts the rate limit.
+        boolean forward = written[id] && tSeconds >= lastT[id];
+        if (written[id]) {
+            if (interval > 0 && forward && tSeconds < nextT[id]) return false;
+            if (deadband[id] >= 0 && Math.abs(v - lastValue[id]) <= deadband[id]) return false;
+        }
+        if (interval > 0) {
+            // Step from the previous slot so jitter in the loop period does not
+            // lower the average rate, but never allow two values within half a period.
+            double next = forward ? nextT[id] + interval : tSeconds + interval;
+            if (next <= tSeconds) next = tSeconds + interval;
+            else if (next < tSeconds + interval / 2) next = tSeconds + interval / 2;
+            nextT[id] = next;
+        }
+        written[id] = true;
+        lastT[id] = tSeconds;
+        lastValue[id] = v;
+        return true;
+    }
+
+    /** Looks up the policies of channels registered since the last call. */
+    private void resolve() {
+        int n = schema.size();
+        minInterval = Arrays.copyOf(minInterval, n);
+        deadband = Arrays.copyOf(deadband, n);
+        every = Arrays.copyOf(every, n);
+        samples = Arrays.copyOf(samples, n);
+        nextT = Arrays.copyOf(nextT, n);
+        lastT = Arrays.copyOf(lastT, n);
+        lastValue = Arrays.copyOf(lastValue, n);
+        written = Arrays.copyOf(written, n);
+        for (int id = known; id < n; id++) {
+            Policy p = byName.get(schema.name(id));
+            minInterval[id] = p == null ? 0 : p.minIntervalSeconds;
+            deadband[id] = p == null ? -1 : p.deadband;
+            every[id] = p == null ? 1 : p.every;
+        }
+        known = n;
+    }
+
+    private static double secondsPerUnit(String unit) {
+        if ("ms".equals(unit)) return 1e-3;
+        if ("ns".equals(unit)) return 1e-9;
+        return 1;
+    }
+}
@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Field names registered for one run, each mapped to a dense integer id.
+ *
+ * Lookups are lock-free so the OpMode loop and the writer thread can share one
+ * schema; registration of a new name is serialized.
+ */
+final class ChannelSchema {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+
+    /**
+     * Returns the id for a name, registering it if needed.
+     *
+     * @param name Field name.
+     * @return Channel id.
+     */
+    int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        return register(name);
+    }
+
+    private synchronized int register(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        String[] next = Arrays.copyOf(names, names.length + 1);
+        next[names.length] = name;
+        names = next;
+        ids.put(name, names.length - 1);
+        return names.length - 1;
+    }
+
+    /**
+     * Returns the name registered for an id.
+     *
+     * @param id Channel id.
+     * @return Field name.
+     */
+    String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Returns the number of registered channels.
+     *
+     * @return Channel count.
+     */
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * Checks that a name can be used as a channel.
+     *
+     * @param name Field name.
+     */
+    static void requireValidName(String name) {
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("Channel name must not be empty");
+        if (isReserved(name)) throw new IllegalArgumentException("Channel name is reserved: " + name);
+    }
+
+    /**
+     * Returns true for names the run formats use for the time and its unit.
+     *
+     * @param name Field name.
+     * @return True for "t", "tUnit" and "t_unit".
+     */
+    static boolean isReserved(String name) {
+        return "t".equals(name) || "tUnit".equals(name) || "t_unit".equals(name);
+    }
+}
@@ -0,0 +1,170 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Renders {@link RunColumns} as the /data JSON document on demand:
+ *
+ *   {"t":[...],"series":{"name":[...],...},"tUnit":"ms"}
+ *
+ * Only rows in the selection are written. Series are aligned with t and hold
+ * null where a row did not set the field, so series[name][i] pairs with t[i].
+ * Extra top-level fields (numbers or booleans) follow "tUnit".
+ *
+ * Bytes are produced a chunk at a time as the HTTP server reads, so the response
+ * is never materialized as a whole. Closing the stream releases the columns.
+ */
+final class DataJsonStream extends InputStream {
+
+    private static final byte[] T_PREFIX = "{\"t\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SERIES_PREFIX = ",\"series\":{".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRAILER_PREFIX = "},\"tUnit\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    /** Target size of each rendered chunk. */
+    private static final int CHUNK_BYTES = 16 * 1024;
+
+    private final RunColumns columns;
+    private final BitSet selected;
+    private final long rows;
+    private final Map<String, Object> extra;
+    private final JsonBytes out = new JsonBytes(CHUNK_BYTES + 64);
+    private int pos;
+
+    /** -1 = t column, 0..n-1 = series, n = trailer, n+1 = done. */
+    private int section = -1;
+    private RunColumns.Cursor in;
+    private long row;
+    private boolean first;
+    private boolean closed;
+
+    /**
+     * Creates a stream over parsed run columns.
+     *
+     * @param columns Run columns; released when this stream is closed.
+     * @param selected Rows to write, or null for every row.
+     * @param extra Extra top-level fields in order (Boolean or Number values), or null for none.
+     */
+    DataJsonStream(RunColumns columns, BitSet selected, Map<String, Object> extra) {
+        this.columns = columns;
+        this.selected = selected;
+        this.rows = columns.rowCount();
+        this.extra = extra;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (pos == out.length()) {
+            out.clear();
+            pos = 0;
+            fill();
+            if (out.length() == 0) {
+                close();
+                return -1;
+            }
+        }
+        int n = Math.min(len, out.length() - pos);
+        System.arraycopy(out.buffer(), pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return out.length() - pos;
+    }
+
+    /**
+     * Renders the next chunk (at least one byte unless the document is complete).
+     */
+    private void fill() throws IOException {
+        int n = columns.seriesCount();
+        while (out.length() < CHUNK_BYTES && section <= n) {
+            if (section == n) {
+                out.writeBytes(TRAILER_PREFIX);
+                out.writeString(columns.timeUnit());
+                if (extra != null) writeExtra();
+                out.writeByte('}');
+                section++;
+                break;
+            }
+            if (in == null) openSection();
+            while (row < rows && out.length() < CHUNK_BYTES) {
+                double v = in.next();
+                boolean keep = selected == null || selected.get((int) row);
+                row++;
+                if (!keep || (Double.isNaN(v) && section < 0)) continue;
+                if (!first) out.writeByte(',');
+                first = false;
+                if (Double.isNaN(v)) out.writeBytes(NULL);
+                else out.writeDouble(v);
+            }
+            if (row == rows) {
+                out.writeByte(']');
+                if (section < 0) out.writeBytes(SERIES_PREFIX);
+                in.close();
+                in = null;
+                section++;
+            }
+        }
+    }
+
+    private void writeExtra() {
+        for (Map.Entry<String, Object> e : extra.entrySet()) {
+            out.writeByte(',');
+            out.writeString(e.getKey());
+            out.writeByte(':');
+            Object v = e.getValue();
+            if (v instanceof Boolean) {
+                out.writeBytes((Boolean) v ? TRUE : FALSE);
+            } else if (v instanceof Long || v instanceof Integer) {
+                out.writeLong(((Number) v).longValue());
+            } else {
+                out.writeDouble(((Number) v).doubleValue());
+            }
+        }
+    }
+
+    private void openSection() throws IOException {
+        if (section < 0) {
+            out.writeBytes(T_PREFIX);
+            in = columns.open(RunColumns.T);
+        } else {
+            if (section > 0) out.writeByte(',');
+            out.writeString(columns.seriesName(section));
+            out.writeByte(':');
+            out.writeByte('[');
+            in = columns.open(section);
+        }
+        row = 0;
+        first = true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException ignored) { }
+            in = null;
+        }
+        columns.release();
+    }
+
+}
@@ -0,0 +1,199 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed run columns spooled to temp files so the /data response never holds every row in memory.
+ *
+ * The t column and each series are written as raw doubles to their own file
+ * while the run is read; {@link DataJsonStream} then reads them back one column
+ * at a time. Every column holds one value per row, NaN where the field was not
+ * set, so a row index addresses the same sample in every file.
+ *
+ * Memory use is one small write buffer per series, independent of run length.
+ */
+final class DataSpool implements RunVisitor, RunColumns, Closeable {
+
+    /** Spool dirs older than this are left over from an interrupted response and get removed. */
+    private static final long STALE_MS = 60L * 60L * 1000L;
+    private static final int SPOOL_BUFFER_BYTES = 4 * 1024;
+
+    private final File dir;
+    private final DataOutputStream tOut;
+    private final List<String> channelNames = new ArrayList<>();
+    private final List<Column> byId = new ArrayList<>();
+    private final List<Column> columns = new ArrayList<>();
+    private long rows;
+    private String tUnit = "s";
+    private boolean writing = true;
+
+    /** One spooled series, in first-seen order. */
+    private static final class Column {
+        final String name;
+        final File file;
+        DataOutputStream out;
+        double pending = Double.NaN;
+
+        Column(String name, File file) {
+            this.name = name;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Creates an empty spool in a fresh directory under {@code root}.
+     *
+     * @param root Parent directory for spool directories (e.g. the app cache dir).
+     */
+    DataSpool(File root) throws IOException {
+        deleteStale(root);
+        File d = new File(root, "data-" + System.nanoTime() + "-" + Thread.currentThread().getId());
+        if (!d.mkdirs()) throw new IOException("Could not create spool dir: " + d.getAbsolutePath());
+        this.dir = d;
+        this.tOut = open(new File(d, "t.bin"));
+    }
+
+    @Override
+    public void timeUnit(String unit) {
+        tUnit = unit;
+    }
+
+    @Override
+    public void channel(int id, String name) {
+        while (channelNames.size() <= id) {
+            channelNames.add(null);
+            byId.add(null);
+        }
+        channelNames.set(id, name);
+    }
+
+    @Override
+    public void row(double t, int[] ids, double[] values, int count) {
+        if (!JsonBytes.isFinite(t)) return;
+        try {
+            for (int i = 0; i < count; i++) {
+                double v = values[i];
+                if (!JsonBytes.isFinite(v)) continue;
+                column(ids[i]).pending = v;
+            }
+            tOut.writeDouble(t);
+            for (Column c : columns) {
+                c.out.writeDouble(c.pending);
+                c.pending = Double.NaN;
+            }
+            rows++;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write data spool", e);
+        }
+    }
+
+    private Column column(int id) throws IOException {
+        Column c = byId.get(id);
+        if (c == null) {
+            c = new Column(channelNames.get(id), new File(dir, columns.size() + ".bin"));
+            c.out = open(c.file);
+            for (long r = 0; r < rows; r++) c.out.writeDouble(Double.NaN);
+            byId.set(id, c);
+            columns.add(c);
+        }
+        return c;
+    }
+
+    /**
+     * Flushes and closes the write side. Must be called before reading columns back.
+     */
+    void finishWriting() throws IOException {
+        if (!writing) return;
+        writing = false;
+        tOut.close();
+        for (Column c : columns) c.out.close();
+    }
+
+    @Override
+    public String timeUnit() {
+        return tUnit;
+    }
+
+    @Override
+    public long rowCount() {
+        return rows;
+    }
+
+    @Override
+    public int seriesCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String seriesName(int index) {
+        return columns.get(index).name;
+    }
+
+    @Override
+    public Cursor open(int index) throws IOException {
+        File f = index == T ? new File(dir, "t.bin") : columns.get(index).file;
+        final DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(f), SPOOL_BUFFER_BYTES * 4));
+        return new Cursor() {
+            @Override
+            public double next() throws IOException {
+                return in.readDouble();
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        };
+    }
+
+    /** Deletes the spool; it belongs to a single response. */
+    @Override
+    public void release() {
+        close();
+    }
+
+    /**
+     * Closes any open writers and deletes the spool directory.
+     */
+    @Override
+    public void close() {
+        try {
+            finishWriting();
+        } catch (IOException ignored) { }
+        deleteDir(dir);
+    }
+
+    private static DataOutputStream open(File f) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), SPOOL_BUFFER_BYTES));
+    }
+
+    private static void deleteStale(File root) {
+        File[] children = root.listFiles();
+        if (children == null) return;
+        long cutoff = System.currentTimeMillis() - STALE_MS;
+        for (File c : children) {
+            if (c.isDirectory() && c.getName().startsWith("data-") && c.lastModified() < cutoff) deleteDir(c);
+        }
+    }
+
+    private static void deleteDir(File d) {
+        File[] children = d.listFiles();
+        if (children != null) {
+            for (File c : children) {
+                if (!c.delete()) c.deleteOnExit();
+            }
+        }
+        if (!d.delete()) d.deleteOnExit();
+    }
+}
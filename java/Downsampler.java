@@ -0,0 +1,125 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Picks which parsed rows the /data response includes for a time window and point budget.
+ *
+ * Reduction is min/max per bucket: for every series the rows holding its
+ * smallest and largest value in each of a number of equal time buckets are
+ * kept (plus the first and last row of the window). Spikes survive at any zoom
+ * level, and the y extents of the reduced data match the full data exactly.
+ *
+ * All series share one t array and every series is sent at every kept row, so
+ * {@code maxPoints} bounds the rows in total: with n series the window is split
+ * into {@code maxPoints / (2 * n)} buckets, but never fewer than one, so every
+ * series keeps its extremes. The union of their rows is at most
+ * {@code max(maxPoints, 2 * n)} plus the first and last row.
+ */
+final class Downsampler {
+
+    private Downsampler() { }
+
+    /**
+     * Selects rows with {@code tStart <= t <= tEnd}, reduced to the row budget.
+     *
+     * @param cols Parsed run columns.
+     * @param tStart Window start in run time units, or NaN for no lower bound.
+     * @param tEnd Window end in run time units, or NaN for no upper bound.
+     * @param maxPoints Most rows to keep (shared by all series, but at least two per series), or 0 for no reduction.
+     * @return Rows to include in the response.
+     */
+    static Selection select(RunColumns cols, double tStart, double tEnd, int maxPoints) throws IOException {
+        int rows = (int) cols.rowCount();
+        BitSet window = new BitSet(rows);
+        int inWindow = 0;
+        int firstRow = -1;
+        int lastRow = -1;
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+
+        try (RunColumns.Cursor tIn = cols.open(RunColumns.T)) {
+            for (int r = 0; r < rows; r++) {
+                double t = tIn.next();
+                if (t < tStart || t > tEnd) continue;
+                window.set(r);
+                inWindow++;
+                if (firstRow < 0) firstRow = r;
+                lastRow = r;
+                lo = Math.min(lo, t);
+                hi = Math.max(hi, t);
+            }
+        }
+
+        if (maxPoints <= 0 || inWindow <= maxPoints) {
+            return new Selection(inWindow == rows ? null : window, false);
+        }
+
+        int n = cols.seriesCount();
+        int buckets = Math.max(1, maxPoints / (2 * Math.max(1, n)));
+        double span = hi - lo;
+        double[][] minV = new double[n][buckets];
+        double[][] maxV = new double[n][buckets];
+        int[][] minRow = new int[n][buckets];
+        int[][] maxRow = new int[n][buckets];
+        for (int c = 0; c < n; c++) {
+            Arrays.fill(minRow[c], -1);
+            Arrays.fill(maxRow[c], -1);
+        }
+
+        RunColumns.Cursor tIn = cols.open(RunColumns.T);
+        RunColumns.Cursor[] in = new RunColumns.Cursor[n];
+        try {
+            for (int c = 0; c < n; c++) in[c] = cols.open(c);
+            for (int r = 0; r < rows; r++) {
+                double t = tIn.next();
+                boolean keep = window.get(r);
+                int b = 0;
+                if (keep && span > 0) b = Math.min(buckets - 1, (int) ((t - lo) / span * buckets));
+                for (int c = 0; c < n; c++) {
+                    double v = in[c].next();
+                    if (!keep || Double.isNaN(v)) continue;
+                    if (minRow[c][b] < 0 || v < minV[c][b]) {
+                        minV[c][b] = v;
+                        minRow[c][b] = r;
+                    }
+                    if (maxRow[c][b] < 0 || v > maxV[c][b]) {
+                        maxV[c][b] = v;
+                        maxRow[c][b] = r;
+                    }
+                }
+            }
+        } finally {
+            tIn.close();
+            for (RunColumns.Cursor s : in) {
+                if (s != null) s.close();
+            }
+        }
+
+        BitSet keep = new BitSet(rows);
+        keep.set(firstRow);
+        keep.set(lastRow);
+        for (int c = 0; c < n; c++) {
+            for (int b = 0; b < buckets; b++) {
+                if (minRow[c][b] >= 0) keep.set(minRow[c][b]);
+                if (maxRow[c][b] >= 0) keep.set(maxRow[c][b]);
+            }
+        }
+        return new Selection(keep, true);
+    }
+
+    /** Rows chosen for a response. */
+    static final class Selection {
+        /** Selected row indices, or null for every row. */
+        final BitSet rows;
+        /** True if rows inside the window were dropped to meet the row budget. */
+        final boolean reduced;
+
+        Selection(BitSet rows, boolean reduced) {
+            this.rows = rows;
+            this.reduced = reduced;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/** Appends a run file's bytes with one write call per flush. */
+final class FileRunOutput implements RunOutput {
+
+    private final FileOutputStream out;
+
+    /**
+     * Opens a run file for appending.
+     *
+     * @param runFile Run file.
+     */
+    FileRunOutput(File runFile) throws FileNotFoundException {
+        this.out = new FileOutputStream(runFile, true);
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) throws IOException {
+        out.write(buf, off, len);
+    }
+
+    @Override
+    public void force() throws IOException {
+        out.getChannel().force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
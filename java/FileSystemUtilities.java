@@ -27,6 +27,146 @@ public final class FileSystemUtilities {
         return dir;
     }
 
+    /** Extension of JSON Lines run files. */
+    public static final String JSONL_EXTENSION = ".jsonl";
+
+    /** Extension of binary columnar run files. */
+    public static final String FLOG_EXTENSION = ".flog";
+
+    /** Extension of gzip-compressed JSON Lines runs, written by {@link RunArchiver}. */
+    public static final String JSONL_GZ_EXTENSION = ".jsonl.gz";
+
+    /** Every extension a run file may have, in the order {@link #findRunFile} prefers them. */
+    static final String[] RUN_EXTENSIONS = { JSONL_EXTENSION, FLOG_EXTENSION, JSONL_GZ_EXTENSION };
+
+    /** Extensions of derived files kept next to a run, appended to the run file name. */
+    static final String[] SIDECAR_EXTENSIONS = { RunIndex.EXTENSION, RunSummary.EXTENSION };
+
+    /**
+     * Returns the run extension of a file name, or null if it is not a run file.
+     *
+     * @param fileName File name.
+     * @return Matching extension or null.
+     */
+    public static String runExtension(String fileName) {
+        for (String ext : RUN_EXTENSIONS) {
+            if (fileName.endsWith(ext)) return ext;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the run name (file name without its run extension), or null if it is not a run file.
+     *
+     * @param fileName File name.
+     * @return Run name or null.
+     */
+    public static String runName(String fileName) {
+        String ext = runExtension(fileName);
+        if (ext == null) return null;
+        return fileName.substring(0, fileName.length() - ext.length());
+    }
+
+    /**
+     * Returns true if a run file is gzip-compressed.
+     *
+     * @param run Run file.
+     * @return True for .jsonl.gz runs.
+     */
+    static boolean isCompressed(File run) {
+        return run.getName().endsWith(JSONL_GZ_EXTENSION);
+    }
+
+    /**
+     * Finds the file for a run in an OpMode folder, whatever its format.
+     *
+     * @param opDir OpMode directory.
+     * @param run Run name, with or without extension.
+     * @return Existing run file, or the .jsonl path if none exists.
+     */
+    public static File findRunFile(File opDir, String run) {
+        if (runExtension(run) != null) return new File(opDir, run);
+        for (String ext : RUN_EXTENSIONS) {
+            File f = new File(opDir, run + ext);
+            if (f.exists()) return f;
+        }
+        return new File(opDir, run + JSONL_EXTENSION);
+    }
+
+    /**
+     * Orders run names with digit runs compared by value, so "10000" sorts after "9999".
+     * Other characters compare case-insensitively.
+     *
+     * @param a First name.
+     * @param b Second name.
+     * @return Negative, zero or positive, as for {@link java.util.Comparator#compare}.
+     */
+    static int compareRunNames(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                int si = i;
+                int sj = j;
+                while (si < a.length() && a.charAt(si) == '0') si++;
+                while (sj < b.length() && b.charAt(sj) == '0') sj++;
+                int ei = si;
+                int ej = sj;
+                while (ei < a.length() && Character.isDigit(a.charAt(ei))) ei++;
+                while (ej < b.length() && Character.isDigit(b.charAt(ej))) ej++;
+                if (ei - si != ej - sj) return (ei - si) - (ej - sj);
+                for (int k = 0; k < ei - si; k++) {
+                    int d = a.charAt(si + k) - b.charAt(sj + k);
+                    if (d != 0) return d;
+                }
+                i = ei;
+                j = ej;
+                continue;
+            }
+            int d = Character.toLowerCase(ca) - Character.toLowerCase(cb);
+            if (d != 0) return d;
+            i++;
+            j++;
+        }
+        int rest = (a.length() - i) - (b.length() - j);
+        return rest != 0 ? rest : a.compareTo(b);
+    }
+
+    /**
+     * Renames the sidecars of a run to follow the run file to its new name.
+     * Sidecars that cannot be moved are deleted; they are rebuilt on demand.
+     *
+     * @param src Old run file.
+     * @param dst New run file.
+     */
+    static void moveSidecars(File src, File dst) {
+        for (String ext : SIDECAR_EXTENSIONS) {
+            File from = new File(src.getParentFile(), src.getName() + ext);
+            if (!from.exists()) continue;
+            File to = new File(dst.getParentFile(), dst.getName() + ext);
+            //noinspection ResultOfMethodCallIgnored
+            to.delete();
+            if (!from.renameTo(to)) {
+                //noinspection ResultOfMethodCallIgnored
+                from.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes the sidecars of a run.
+     *
+     * @param run Run file.
+     */
+    static void deleteSidecars(File run) {
+        for (String ext : SIDECAR_EXTENSIONS) {
+            //noinspection ResultOfMethodCallIgnored
+            new File(run.getParentFile(), run.getName() + ext).delete();
+        }
+    }
+
     public static String sanitize(String name) {
         if (name == null) return "UnknownOpMode";
         // Keep it filesystem safe
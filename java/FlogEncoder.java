@@ -0,0 +1,305 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes rows into the binary columnar run format (.flog).
+ *
+ * All integers are little-endian.
+ *
+ * File header:
+ *   "FLOG"          4 bytes magic
+ *   version         u8 (1, or 2 if packed columns may appear)
+ *   unit length     u8, then the time unit ("s" | "ms" | "ns") in ASCII
+ *
+ * Then a sequence of tagged records:
+ *   'C' channel     u16 id, u16 name length, UTF-8 name
+ *                   (written before the first block that uses the id)
+ *   'B' block       u16 column count N, u32 row count R,
+ *                   t column, then N value columns for channel ids 0..N-1,
+ *                   footer: f64 tMin, f64 tMax, u32 block length in bytes
+ *                   (from the 'B' tag to the end of the footer), u32 "BEND"
+ *
+ * Each column is a type byte followed by R fixed-width values:
+ *   'd' f64, 'f' f32, 'i' i32 (Integer.MIN_VALUE = not set), 'n' no payload (never set).
+ * The narrowest type that holds every value in the block exactly is chosen;
+ * in 'd' and 'f' columns NaN means the field was not set on that row.
+ *
+ * A closed run may end with a loop timing record ('L', see {@link LoopTiming}).
+ *
+ * Version 2 files may also hold packed columns, used when they are smaller:
+ *   'T' delta-of-delta time, 'x' XOR-compressed values (see {@link GorillaCodec}),
+ * each a type byte, u32 payload length, then the payload.
+ *
+ * Rows are staged in memory and written one block at a time, so a run that is
+ * killed without {@link LogWriter#close()} loses at most its last partial block
+ * (a group commit delay, see {@link LogWriter.Options#groupCommit}, writes it early).
+ */
+final class FlogEncoder implements RunEncoder {
+
+    static final byte[] MAGIC = {'F', 'L', 'O', 'G'};
+    static final int VERSION = 1;
+    static final int VERSION_PACKED = 2;
+    static final byte TAG_CHANNEL = 'C';
+    static final byte TAG_BLOCK = 'B';
+    static final byte TYPE_F64 = 'd';
+    static final byte TYPE_F32 = 'f';
+    static final byte TYPE_I32 = 'i';
+    static final byte TYPE_NONE = 'n';
+    static final byte TYPE_TIME_DOD = 'T';
+    static final byte TYPE_XOR = 'x';
+    static final int I32_MISSING = Integer.MIN_VALUE;
+    /** "BEND" read as a little-endian u32. */
+    static final int BLOCK_END = 0x444E4542;
+    static final int BLOCK_HEADER_BYTES = 1 + 2 + 4;
+    static final int BLOCK_FOOTER_BYTES = 8 + 8 + 4 + 4;
+
+    private final ChannelSchema schema;
+    private final int blockRows;
+    private final GorillaCodec.BitWriter packer;
+    private final double[] tCol;
+    private double[][] cols = new double[0][];
+    private int rows;
+    private int emittedChannels;
+    private byte[] buf;
+    private int len;
+
+    /**
+     * Creates an encoder that writes a block every {@code blockRows} rows.
+     *
+     * @param schema Channel names for the run.
+     * @param blockRows Rows per block.
+     */
+    FlogEncoder(ChannelSchema schema, int blockRows) {
+        this(schema, blockRows, false);
+    }
+
+    /**
+     * Creates an encoder that writes a block every {@code blockRows} rows.
+     *
+     * @param schema Channel names for the run.
+     * @param blockRows Rows per block.
+     * @param packed True to bit-pack columns wherever that is smaller than fixed width.
+     */
+    FlogEncoder(ChannelSchema schema, int blockRows, boolean packed) {
+        this.schema = schema;
+        this.blockRows = blockRows;
+        this.packer = packed ? new GorillaCodec.BitWriter() : null;
+        this.tCol = new double[blockRows];
+        this.buf = new byte[16 * 1024];
+    }
+
+    @Override
+    public void header(String unit) {
+        byte[] u = unit.getBytes(StandardCharsets.US_ASCII);
+        writeBytes(MAGIC);
+        writeByte(packer != null ? VERSION_PACKED : VERSION);
+        writeByte(u.length);
+        writeBytes(u);
+    }
+
+    @Override
+    public boolean row(LogRow row) {
+        if (Double.isNaN(row.t) || Double.isInfinite(row.t)) return false;
+        for (int i = 0; i < row.size; i++) {
+            int id = row.ids[i];
+            if (id >= cols.length) addColumns(id + 1);
+            cols[id][rows] = row.values[i];
+        }
+        tCol[rows++] = row.t;
+        if (rows == blockRows) emitBlock();
+        return true;
+    }
+
+    @Override
+    public void finish() {
+        emitBlock();
+    }
+
+    @Override
+    public void trailer(LoopTiming loop) {
+        writeBytes(loop.flogRecord());
+    }
+
+    @Override
+    public boolean hasStaged() {
+        return rows > 0;
+    }
+
+    @Override
+    public byte[] buffer() {
+        return buf;
+    }
+
+    @Override
+    public int length() {
+        return len;
+    }
+
+    @Override
+    public void clear() {
+        len = 0;
+    }
+
+    private void addColumns(int count) {
+        int old = cols.length;
+        cols = Arrays.copyOf(cols, count);
+        for (int c = old; c < count; c++) {
+            cols[c] = new double[blockRows];
+            Arrays.fill(cols[c], Double.NaN);
+        }
+    }
+
+    /**
+     * Appends the staged rows as one block and resets the staging columns.
+     */
+    private void emitBlock() {
+        if (rows == 0) return;
+        int n = cols.length;
+        for (int id = emittedChannels; id < n; id++) {
+            byte[] name = schema.name(id).getBytes(StandardCharsets.UTF_8);
+            writeByte(TAG_CHANNEL);
+            writeShort(id);
+            writeShort(name.length);
+            writeBytes(name);
+        }
+        emittedChannels = Math.max(emittedChannels, n);
+
+        int start = len;
+        writeByte(TAG_BLOCK);
+        writeShort(n);
+        writeInt(rows);
+        writeColumn(tCol, rows, true);
+        for (int c = 0; c < n; c++) writeColumn(cols[c], rows, false);
+
+        double tMin = tCol[0];
+        double tMax = tCol[0];
+        for (int i = 1; i < rows; i++) {
+            tMin = Math.min(tMin, tCol[i]);
+            tMax = Math.max(tMax, tCol[i]);
+        }
+        writeLong(Double.doubleToRawLongBits(tMin));
+        writeLong(Double.doubleToRawLongBits(tMax));
+        writeInt(len - start + 8);
+        writeInt(BLOCK_END);
+
+        for (double[] col : cols) Arrays.fill(col, 0, rows, Double.NaN);
+        rows = 0;
+    }
+
+    private void writeColumn(double[] col, int n, boolean time) {
+        byte type = narrowestType(col, n);
+        if (packer != null && type != TYPE_NONE && writePacked(col, n, time, type)) return;
+        writeByte(type);
+        switch (type) {
+            case TYPE_I32:
+                ensure(4 * n);
+                for (int i = 0; i < n; i++) writeInt(Double.isNaN(col[i]) ? I32_MISSING : (int) col[i]);
+                break;
+            case TYPE_F32:
+                ensure(4 * n);
+                for (int i = 0; i < n; i++) writeInt(Float.floatToRawIntBits((float) col[i]));
+                break;
+            case TYPE_F64:
+                ensure(8 * n);
+                for (int i = 0; i < n; i++) writeLong(Double.doubleToRawLongBits(col[i]));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Writes a column bit-packed if that beats its fixed-width encoding.
+     *
+     * @param col Column values (NaN = not set).
+     * @param n Number of rows.
+     * @param time True for the t column.
+     * @param fixedType Narrowest fixed-width type for the column.
+     * @return True if the column was written.
+     */
+    private boolean writePacked(double[] col, int n, boolean time, byte fixedType) {
+        packer.reset();
+        byte type = TYPE_XOR;
+        int scale = time ? GorillaCodec.timeScale(col, n) : -1;
+        if (scale >= 0) {
+            GorillaCodec.encodeTime(col, n, scale, packer);
+            type = TYPE_TIME_DOD;
+        } else {
+            GorillaCodec.encodeValues(col, n, packer);
+        }
+        int fixedBytes = n * (fixedType == TYPE_F64 ? 8 : 4);
+        if (4 + packer.length() >= fixedBytes) return false;
+        writeByte(type);
+        writeInt(packer.length());
+        ensure(packer.length());
+        System.arraycopy(packer.bytes(), 0, buf, len, packer.length());
+        len += packer.length();
+        return true;
+    }
+
+    /**
+     * Picks the smallest column type that represents every value exactly.
+     *
+     * @param col Column values (NaN = not set).
+     * @param n Number of rows.
+     * @return Column type byte.
+     */
+    static byte narrowestType(double[] col, int n) {
+        boolean any = false;
+        boolean intOk = true;
+        boolean floatOk = true;
+        for (int i = 0; i < n; i++) {
+            double v = col[i];
+            if (Double.isNaN(v)) continue;
+            any = true;
+            if (intOk && (v != Math.rint(v) || v <= I32_MISSING || v > Integer.MAX_VALUE
+                    || Double.doubleToRawLongBits(v) == Long.MIN_VALUE)) {
+                intOk = false;
+            }
+            if (floatOk && (double) (float) v != v) floatOk = false;
+            if (!intOk && !floatOk) return TYPE_F64;
+        }
+        if (!any) return TYPE_NONE;
+        if (intOk) return TYPE_I32;
+        return floatOk ? TYPE_F32 : TYPE_F64;
+    }
+
+    private void writeBytes(byte[] b) {
+        ensure(b.length);
+        System.arraycopy(b, 0, buf, len, b.length);
+        len += b.length;
+    }
+
+    private void writeByte(int v) {
+        ensure(1);
+        buf[len++] = (byte) v;
+    }
+
+    private void writeShort(int v) {
+        ensure(2);
+        buf[len++] = (byte) v;
+        buf[len++] = (byte) (v >>> 8);
+    }
+
+    private void writeInt(int v) {
+        ensure(4);
+        buf[len++] = (byte) v;
+        buf[len++] = (byte) (v >>> 8);
+        buf[len++] = (byte) (v >>> 16);
+        buf[len++] = (byte) (v >>> 24);
+    }
+
+    private void writeLong(long v) {
+        writeInt((int) v);
+        writeInt((int) (v >>> 32));
+    }
+
+    private void ensure(int extra) {
+        if (len + extra <= buf.length) return;
+        byte[] bigger = new byte[Math.max(buf.length * 2, len + extra)];
+        System.arraycopy(buf, 0, bigger, 0, len);
+        buf = bigger;
+    }
+}
@@ -0,0 +1,363 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Streaming decoder for binary .flog run files (format described on {@link FlogEncoder}).
+ *
+ * Blocks are read one at a time; each column is copied out of the file with a
+ * single bulk read and converted from little-endian in place, or unpacked by
+ * {@link GorillaCodec}. A truncated or
+ * corrupt trailing block (an interrupted run, or zero bytes a power cut left at
+ * the end of the file) ends the read without an error.
+ * Columns of channels outside the requested series are skipped unread.
+ */
+final class FlogReader {
+
+    /**
+     * Most rows a block may claim. Writers use far fewer; a larger count is
+     * garbage left by a power cut, not a block to allocate for.
+     */
+    private static final int MAX_BLOCK_ROWS = 1 << 20;
+
+    private FlogReader() { }
+
+    /**
+     * Parses a .flog stream and reports its contents to a visitor.
+     *
+     * @param in Run file contents.
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    static void read(InputStream in, RunVisitor visitor) throws IOException {
+        read(in, null, visitor, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Parses a .flog stream and reports some of its channels to a visitor.
+     * Reported channel ids are renumbered densely.
+     *
+     * @param in Run file contents.
+     * @param series Channel names to report, or null for all.
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    static void read(InputStream in, Set<String> series, RunVisitor visitor) throws IOException {
+        read(in, series, visitor, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reports only the unit and channels of a .flog stream, skipping every block.
+     *
+     * @param in Run file contents.
+     * @param visitor Receiver for unit and channels; gets no rows.
+     */
+    static void readChannels(InputStream in, RunVisitor visitor) throws IOException {
+        read(in, null, visitor, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reports the rows of the blocks that start at or after {@code offset}.
+     * Earlier blocks are skipped unread, but all channel records are reported,
+     * so the rows can be matched to their channels. Every record is
+     * length-delimited, so the offset of the end of any complete record is a
+     * valid starting point for the next call.
+     *
+     * @param in Run file contents, from the start of the file.
+     * @param offset End of a record returned by an earlier call, or 0 for the first block.
+     * @param maxBytes Stop at the first record boundary this many bytes past {@code offset}.
+     * @param visitor Receiver for unit, channels and rows.
+     * @return Offset just past the last complete record read, or -1 if {@code offset}
+     *         is not the end of a record in this file.
+     */
+    static long readFrom(InputStream in, long offset, long maxBytes, RunVisitor visitor) throws IOException {
+        return read(in, null, visitor, offset, maxBytes);
+    }
+
+    /**
+     * Returns true if a .flog file was written with packed columns.
+     *
+     * @param run Run file.
+     * @return True for version 2 files; false for version 1 or unreadable files.
+     */
+    static boolean isPacked(File run) {
+        try (InputStream in = new FileInputStream(run)) {
+            byte[] head = new byte[FlogEncoder.MAGIC.length + 1];
+            int n = 0;
+            while (n < head.length) {
+                int r = in.read(head, n, head.length - n);
+                if (r < 0) return false;
+                n += r;
+            }
+            return head[FlogEncoder.MAGIC.length] == FlogEncoder.VERSION_PACKED;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a .flog stream, decoding only the blocks from {@code rowsFrom} on.
+     *
+     * @param in Run file contents, from the start of the file.
+     * @param series Channel names to report, or null for all.
+     * @param visitor Receiver for unit, channels and rows.
+     * @param rowsFrom Offset of the first block to decode; Long.MAX_VALUE for none.
+     * @param maxBytes Stop at the first record boundary this many bytes past the first decoded block.
+     * @return Offset just past the last complete record, or -1 if {@code rowsFrom}
+     *         falls inside a record.
+     */
+    private static long read(InputStream in, Set<String> series, RunVisitor visitor, long rowsFrom, long maxBytes)
+            throws IOException {
+        CountingInputStream counter = new CountingInputStream(in);
+        DataInputStream din = new DataInputStream(counter);
+        byte[] magic = new byte[FlogEncoder.MAGIC.length];
+        try {
+            din.readFully(magic);
+            if (!Arrays.equals(magic, FlogEncoder.MAGIC)) throw new IOException("Not a .flog file");
+            int version = din.readUnsignedByte();
+            if (version != FlogEncoder.VERSION && version != FlogEncoder.VERSION_PACKED) throw new IOException("Unsupported .flog version " + version);
+            byte[] unit = new byte[din.readUnsignedByte()];
+            din.readFully(unit);
+            visitor.timeUnit(new String(unit, StandardCharsets.US_ASCII));
+        } catch (EOFException e) {
+            // Header not written yet: the run has no rows.
+            return 0;
+        }
+        long start = Math.max(rowsFrom, counter.count);
+        boolean reached = rowsFrom <= counter.count;
+        long pos = counter.count;
+
+        byte[] scratch = new byte[8 * 1024];
+        double[] t = new double[0];
+        double[][] cols = new double[0][];
+        int[] rowIds = new int[0];
+        double[] rowValues = new double[0];
+        int[] keptId = new int[0];
+        int kept = 0;
+
+        try {
+            while (true) {
+                pos = counter.count;
+                if (!reached && pos >= rowsFrom) {
+                    if (pos != rowsFrom) return -1;
+                    reached = true;
+                }
+                if (reached && pos > start && pos - start >= maxBytes) return pos;
+                int tag = din.read();
+                if (tag < 0) return pos;
+                if (tag == FlogEncoder.TAG_CHANNEL) {
+                    int id = readShort(din);
+                    byte[] name = new byte[readShort(din)];
+                    din.readFully(name);
+                    String channel = new String(name, StandardCharsets.UTF_8);
+                    if (keptId.length <= id) {
+                        int old = keptId.length;
+                        keptId = Arrays.copyOf(keptId, Math.max(id + 1, old * 2));
+                        Arrays.fill(keptId, old, keptId.length, -1);
+                    }
+                    if (series == null || series.contains(channel)) {
+                        keptId[id] = kept++;
+                        visitor.channel(keptId[id], channel);
+                    }
+                    continue;
+                }
+                if (tag != FlogEncoder.TAG_BLOCK) return pos;
+
+                boolean rowsWanted = reached;
+                int n = readShort(din);
+                int rows = readInt(din);
+                if (rows < 0 || rows > MAX_BLOCK_ROWS) return pos;
+                if (t.length < rows) t = new double[rows];
+                if (cols.length < n) {
+                    cols = Arrays.copyOf(cols, n);
+                    rowIds = new int[n];
+                    rowValues = new double[n];
+                }
+                scratch = rowsWanted ? readColumn(din, t, rows, scratch) : skipColumn(din, rows, scratch);
+                for (int c = 0; c < n && scratch != null; c++) {
+                    if (!rowsWanted || c >= keptId.length || keptId[c] < 0) {
+                        scratch = skipColumn(din, rows, scratch);
+                        continue;
+                    }
+                    if (cols[c] == null || cols[c].length < rows) cols[c] = new double[rows];
+                    scratch = readColumn(din, cols[c], rows, scratch);
+                }
+                if (scratch == null) return pos;
+                din.readLong(); // tMin
+                din.readLong(); // tMax
+                din.readInt();  // block length
+                if (Integer.reverseBytes(din.readInt()) != FlogEncoder.BLOCK_END) return pos;
+                if (!rowsWanted) continue;
+
+                for (int i = 0; i < rows; i++) {
+                    int k = 0;
+                    for (int c = 0; c < n; c++) {
+                        if (c >= keptId.length || keptId[c] < 0) continue;
+                        double v = cols[c][i];
+                        if (Double.isNaN(v)) continue;
+                        rowIds[k] = keptId[c];
+                        rowValues[k] = v;
+                        k++;
+                    }
+                    visitor.row(t[i], rowIds, rowValues, k);
+                }
+            }
+        } catch (EOFException e) {
+            // Torn final record from a run that was still open or was killed.
+            return pos;
+        }
+    }
+
+    /**
+     * Reads one typed column into {@code out}, widening to double.
+     *
+     * @param din Source positioned at the column's type byte.
+     * @param out Destination, at least {@code rows} long.
+     * @param rows Number of values.
+     * @param scratch Reusable byte buffer.
+     * @return The scratch buffer, possibly grown, or null if the column type is unknown.
+     */
+    private static byte[] readColumn(DataInputStream din, double[] out, int rows, byte[] scratch) throws IOException {
+        int type = din.readUnsignedByte();
+        int width;
+        switch (type) {
+            case FlogEncoder.TYPE_F64: width = 8; break;
+            case FlogEncoder.TYPE_F32:
+            case FlogEncoder.TYPE_I32: width = 4; break;
+            case FlogEncoder.TYPE_NONE:
+                Arrays.fill(out, 0, rows, Double.NaN);
+                return scratch;
+            case FlogEncoder.TYPE_TIME_DOD:
+            case FlogEncoder.TYPE_XOR:
+                return readPacked(din, type, out, rows, scratch);
+            default:
+                return null;
+        }
+        int bytes = rows * width;
+        if (scratch.length < bytes) scratch = new byte[bytes];
+        din.readFully(scratch, 0, bytes);
+        ByteBuffer bb = ByteBuffer.wrap(scratch, 0, bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (type == FlogEncoder.TYPE_F64) {
+            bb.asDoubleBuffer().get(out, 0, rows);
+        } else if (type == FlogEncoder.TYPE_F32) {
+            for (int i = 0; i < rows; i++) out[i] = bb.getFloat();
+        } else {
+            for (int i = 0; i < rows; i++) {
+                int v = bb.getInt();
+                out[i] = v == FlogEncoder.I32_MISSING ? Double.NaN : v;
+            }
+        }
+        return scratch;
+    }
+
+    /**
+     * Reads one bit-packed column into {@code out}.
+     *
+     * @param din Source positioned after the column's type byte.
+     * @param type Column type.
+     * @param out Destination, at least {@code rows} long.
+     * @param rows Number of values.
+     * @param scratch Reusable byte buffer.
+     * @return The scratch buffer, possibly grown, or null if the payload length is invalid.
+     */
+    private static byte[] readPacked(DataInputStream din, int type, double[] out, int rows, byte[] scratch)
+            throws IOException {
+        int bytes = readInt(din);
+        // Packed columns are only written when smaller than the fixed-width form.
+        if (bytes < 0 || bytes > 8L * rows + 16) return null;
+        if (scratch.length < bytes) scratch = new byte[bytes];
+        din.readFully(scratch, 0, bytes);
+        if (type == FlogEncoder.TYPE_TIME_DOD) {
+            GorillaCodec.decodeTime(scratch, 0, bytes, out, rows);
+        } else {
+            GorillaCodec.decodeValues(scratch, 0, bytes, out, rows);
+        }
+        return scratch;
+    }
+
+    /**
+     * Skips one typed column without reading its values.
+     *
+     * @param din Source positioned at the column's type byte.
+     * @param rows Number of values.
+     * @param scratch Scratch buffer, returned unchanged.
+     * @return The scratch buffer, or null if the column type is unknown.
+     */
+    private static byte[] skipColumn(DataInputStream din, int rows, byte[] scratch) throws IOException {
+        int type = din.readUnsignedByte();
+        long bytes;
+        switch (type) {
+            case FlogEncoder.TYPE_F64: bytes = 8L * rows; break;
+            case FlogEncoder.TYPE_F32:
+            case FlogEncoder.TYPE_I32: bytes = 4L * rows; break;
+            case FlogEncoder.TYPE_NONE: return scratch;
+            case FlogEncoder.TYPE_TIME_DOD:
+            case FlogEncoder.TYPE_XOR:
+                bytes = readInt(din);
+                if (bytes < 0) return null;
+                break;
+            default: return null;
+        }
+        while (bytes > 0) {
+            int skipped = din.skipBytes((int) Math.min(bytes, Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                if (din.read() < 0) throw new EOFException();
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+        return scratch;
+    }
+
+    private static int readShort(DataInputStream din) throws IOException {
+        return Short.reverseBytes(din.readShort()) & 0xFFFF;
+    }
+
+    private static int readInt(DataInputStream din) throws IOException {
+        return Integer.reverseBytes(din.readInt());
+    }
+
+    /** Counts the bytes read or skipped, giving the offset of each record. */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            if (skipped > 0) count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of the logger's folder listings, shared by every {@link ApiHandler}.
+ *
+ * Each folder's listing is kept with the folder's modification time and is
+ * served until that changes, so /opmodes, /runs and /fs do not list, stat and
+ * sort every run on each request. Creating, renaming or deleting a run changes
+ * its folder's time; writers, rename, delete and the archiver also drop the
+ * entry explicitly. A listing taken within {@link #SETTLE_MS} of the folder's
+ * last change is used once and rescanned on the next request, in case the
+ * file system stores times too coarsely to see a second change.
+ *
+ * Sizes of runs a {@link LogWriter} still has open are read live.
+ */
+final class FsIndex {
+
+    private static final FsIndex SHARED = new FsIndex();
+
+    /** Folder times younger than this at scan time are not trusted. */
+    static final long SETTLE_MS = 2000;
+
+    private final Map<String, Object> entries = new ConcurrentHashMap<>();
+
+    /** One run in a listing. */
+    static final class Run {
+        final String name;
+        final File file;
+        final long bytes;
+        final long modified;
+
+        Run(String name, File file, long bytes, long modified) {
+            this.name = name;
+            this.file = file;
+            this.bytes = bytes;
+            this.modified = modified;
+        }
+
+        /** Size, read live while the run is still being written. */
+        long bytes() {
+            return ActiveRuns.isActive(file) ? ActiveRuns.length(file) : bytes;
+        }
+    }
+
+    /** Runs of one OpMode folder, in both listing orders. */
+    static final class Runs {
+        /** Natural name order, ascending. */
+        final List<Run> byName;
+        /** Newest first. */
+        final List<Run> byModified;
+
+        Runs(List<Run> byName, List<Run> byModified) {
+            this.byName = byName;
+            this.byModified = byModified;
+        }
+
+        /** Total size of the runs. */
+        long bytes() {
+            long total = 0;
+            for (Run r : byName) total += r.bytes();
+            return total;
+        }
+    }
+
+    private static final class Entry<T> {
+        final long dirModified;
+        final boolean settled;
+        final T value;
+
+        Entry(long dirModified, boolean settled, T value) {
+            this.dirModified = dirModified;
+            this.settled = settled;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Returns the index shared by all handlers.
+     *
+     * @return Shared index.
+     */
+    static FsIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the OpMode folder names under the logger root, in name order.
+     *
+     * @param root Logger root directory.
+     * @return Folder names.
+     */
+    List<String> opModes(File root) {
+        Entry<List<String>> e = lookup(root);
+        if (e != null) return e.value;
+        long modified = root.lastModified();
+        List<String> names = new ArrayList<>();
+        File[] children = root.listFiles();
+        if (children != null) {
+            for (File f : children) if (f.isDirectory()) names.add(f.getName());
+        }
+        Collections.sort(names, String::compareToIgnoreCase);
+        store(root, modified, Collections.unmodifiableList(names));
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Returns the runs in an OpMode folder. A run that has both a .jsonl and a
+     * .jsonl.gz file (while it is being archived) is listed once.
+     *
+     * @param opDir OpMode directory.
+     * @return Runs in both orders; empty if the folder does not exist.
+     */
+    Runs runs(File opDir) {
+        Entry<Runs> e = lookup(opDir);
+        if (e != null) return e.value;
+        long modified = opDir.lastModified();
+        Map<String, Run> byName = new LinkedHashMap<>();
+        File[] children = opDir.listFiles();
+        if (children != null) {
+            Arrays.sort(children, (a, b) -> FileSystemUtilities.compareRunNames(a.getName(), b.getName()));
+            for (File f : children) {
+                String name = FileSystemUtilities.runName(f.getName());
+                if (name == null || byName.containsKey(name) || !f.isFile()) continue;
+                byName.put(name, new Run(name, f, f.length(), f.lastModified()));
+            }
+        }
+        List<Run> names = new ArrayList<>(byName.values());
+        List<Run> recent = new ArrayList<>(names);
+        Collections.sort(recent, Comparator.comparingLong((Run r) -> r.modified).reversed());
+        Runs runs = new Runs(Collections.unmodifiableList(names), Collections.unmodifiableList(recent));
+        store(opDir, modified, runs);
+        return runs;
+    }
+
+    /**
+     * Drops the cached listing of a folder.
+     *
+     * @param dir Logger root or OpMode directory.
+     */
+    void invalidate(File dir) {
+        entries.remove(dir.getAbsolutePath());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Entry<T> lookup(File dir) {
+        String key = dir.getAbsolutePath();
+        Entry<T> e = (Entry<T>) entries.get(key);
+        if (e == null) return null;
+        if (e.settled && e.dirModified == dir.lastModified()) return e;
+        entries.remove(key, e);
+        return null;
+    }
+
+    private <T> void store(File dir, long dirModified, T value) {
+        if (dirModified == 0) return; // folder missing
+        boolean settled = System.currentTimeMillis() - dirModified >= SETTLE_MS;
+        entries.put(dir.getAbsolutePath(), new Entry<>(dirModified, settled, value));
+    }
+}
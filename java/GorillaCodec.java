@@ -0,0 +1,323 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.EOFException;
+import java.util.Arrays;
+
+/**
+ * Bit-packed column encodings for compact .flog blocks, after Facebook's Gorilla.
+ *
+ * Time columns: t is scaled by the smallest power of ten (10^0..10^9) that
+ * turns every value in the block into an integer that divides back to exactly
+ * the same double. The stream holds the scale (8 bits), the first value and
+ * first delta (64 bits each), then a delta-of-delta per row:
+ *   '0' = same step; '10' + 7 bits; '110' + 9 bits; '1110' + 12 bits;
+ *   '11110' + 32 bits; '11111' + 64 bits.
+ * A steady loop period costs one bit per row.
+ *
+ * Value columns: a flag byte (1 = a presence bitmap of one bit per row,
+ * LSB first, follows), then the set values as a Gorilla XOR stream: the first
+ * value in 64 bits, then per value '0' if it repeats, '10' + the meaningful
+ * bits if the XOR with the previous value fits the previous leading/trailing
+ * zero window, else '11' + 5 bits leading zeros + 6 bits (length - 1) + bits.
+ * A channel that holds still costs one bit per row.
+ *
+ * Bits are packed MSB first.
+ */
+final class GorillaCodec {
+
+    /** Largest power of ten tried when scaling t to integers. */
+    static final int MAX_SCALE = 9;
+
+    private static final double[] POW10 = { 1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9 };
+    /** Largest scaled magnitude that still casts to a long. */
+    private static final double MAX_SCALED = 9.2e18;
+
+    private GorillaCodec() { }
+
+    /** Growable MSB-first bit buffer, reused across columns. */
+    static final class BitWriter {
+        private byte[] buf = new byte[1024];
+        private int len;
+        private int cur;
+        private int used;
+
+        void reset() {
+            len = 0;
+            cur = 0;
+            used = 0;
+        }
+
+        /** Writes the low {@code n} bits of {@code value} (1..64). */
+        void write(long value, int n) {
+            while (n > 0) {
+                int take = Math.min(n, 8 - used);
+                n -= take;
+                cur = (cur << take) | (int) ((value >>> n) & ((1 << take) - 1));
+                used += take;
+                if (used == 8) {
+                    put(cur);
+                    cur = 0;
+                    used = 0;
+                }
+            }
+        }
+
+        void writeByte(int b) {
+            write(b, 8);
+        }
+
+        /** Pads the last byte with zero bits. */
+        void finish() {
+            if (used == 0) return;
+            put(cur << (8 - used));
+            cur = 0;
+            used = 0;
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+
+        int length() {
+            return len;
+        }
+
+        private void put(int b) {
+            if (len == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+            buf[len++] = (byte) b;
+        }
+    }
+
+    /** MSB-first bit reader over part of a byte array. */
+    private static final class BitReader {
+        private final byte[] buf;
+        private final int end;
+        private int pos;
+        private int cur;
+        private int left;
+
+        BitReader(byte[] buf, int off, int len) {
+            this.buf = buf;
+            this.pos = off;
+            this.end = off + len;
+        }
+
+        long read(int n) throws EOFException {
+            long v = 0;
+            while (n > 0) {
+                if (left == 0) {
+                    if (pos >= end) throw new EOFException("Packed column ended early");
+                    cur = buf[pos++] & 0xFF;
+                    left = 8;
+                }
+                int take = Math.min(n, left);
+                left -= take;
+                n -= take;
+                v = (v << take) | ((cur >>> left) & ((1 << take) - 1));
+            }
+            return v;
+        }
+
+        boolean bit() throws EOFException {
+            return read(1) != 0;
+        }
+    }
+
+    /**
+     * Returns the power of ten that maps every t to an exact integer, or -1 if none does.
+     *
+     * @param t Time values (all finite).
+     * @param n Number of rows.
+     * @return Scale exponent, or -1.
+     */
+    static int timeScale(double[] t, int n) {
+        for (int k = 0; k <= MAX_SCALE; k++) {
+            double p = POW10[k];
+            boolean ok = true;
+            for (int i = 0; i < n && ok; i++) {
+                double v = Math.rint(t[i] * p);
+                ok = Math.abs(v) <= MAX_SCALED
+                        && Double.doubleToRawLongBits((long) v / p) == Double.doubleToRawLongBits(t[i]);
+            }
+            if (ok) return k;
+        }
+        return -1;
+    }
+
+    /**
+     * Encodes a time column as scaled integer deltas of deltas.
+     *
+     * @param t Time values.
+     * @param n Number of rows (at least 1).
+     * @param scale Exponent from {@link #timeScale}.
+     * @param out Destination; finished on return.
+     */
+    static void encodeTime(double[] t, int n, int scale, BitWriter out) {
+        double p = POW10[scale];
+        out.writeByte(scale);
+        long prev = (long) Math.rint(t[0] * p);
+        out.write(prev, 64);
+        long prevDelta = 0;
+        for (int i = 1; i < n; i++) {
+            long v = (long) Math.rint(t[i] * p);
+            long delta = v - prev;
+            if (i == 1) {
+                out.write(delta, 64);
+            } else {
+                long dod = delta - prevDelta;
+                if (dod == 0) {
+                    out.write(0, 1);
+                } else if (dod >= -63 && dod <= 64) {
+                    out.write(0b10, 2);
+                    out.write(dod + 63, 7);
+                } else if (dod >= -255 && dod <= 256) {
+                    out.write(0b110, 3);
+                    out.write(dod + 255, 9);
+                } else if (dod >= -2047 && dod <= 2048) {
+                    out.write(0b1110, 4);
+                    out.write(dod + 2047, 12);
+                } else if (dod >= Integer.MIN_VALUE && dod <= Integer.MAX_VALUE) {
+                    out.write(0b11110, 5);
+                    out.write(dod, 32);
+                } else {
+                    out.write(0b11111, 5);
+                    out.write(dod, 64);
+                }
+            }
+            prev = v;
+            prevDelta = delta;
+        }
+        out.finish();
+    }
+
+    /**
+     * Decodes a time column written by {@link #encodeTime}.
+     *
+     * @param buf Source bytes.
+     * @param off Payload start.
+     * @param len Payload length.
+     * @param out Destination, at least {@code n} long.
+     * @param n Number of rows.
+     */
+    static void decodeTime(byte[] buf, int off, int len, double[] out, int n) throws EOFException {
+        BitReader in = new BitReader(buf, off, len);
+        int scale = (int) in.read(8);
+        if (scale > MAX_SCALE) throw new EOFException("Bad time scale");
+        double p = POW10[scale];
+        long v = in.read(64);
+        out[0] = v / p;
+        long delta = 0;
+        for (int i = 1; i < n; i++) {
+            if (i == 1) {
+                delta = in.read(64);
+            } else if (in.bit()) {
+                if (!in.bit()) delta += in.read(7) - 63;
+                else if (!in.bit()) delta += in.read(9) - 255;
+                else if (!in.bit()) delta += in.read(12) - 2047;
+                else if (!in.bit()) delta += (int) in.read(32);
+                else delta += in.read(64);
+            }
+            v += delta;
+            out[i] = v / p;
+        }
+    }
+
+    /**
+     * Encodes a value column (NaN = not set) as a presence bitmap and an XOR stream.
+     *
+     * @param col Column values.
+     * @param n Number of rows.
+     * @param out Destination; finished on return.
+     */
+    static void encodeValues(double[] col, int n, BitWriter out) {
+        boolean sparse = false;
+        for (int i = 0; i < n && !sparse; i++) sparse = Double.isNaN(col[i]);
+        out.writeByte(sparse ? 1 : 0);
+        if (sparse) {
+            for (int i = 0; i < n; i += 8) {
+                int b = 0;
+                for (int j = 0; j < 8 && i + j < n; j++) {
+                    if (!Double.isNaN(col[i + j])) b |= 1 << j;
+                }
+                out.writeByte(b);
+            }
+        }
+
+        boolean first = true;
+        long prev = 0;
+        int prevLead = -1;
+        int prevTrail = 0;
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(col[i])) continue;
+            long bits = Double.doubleToRawLongBits(col[i]);
+            if (first) {
+                out.write(bits, 64);
+                first = false;
+            } else {
+                long x = bits ^ prev;
+                if (x == 0) {
+                    out.write(0, 1);
+                } else {
+                    int lead = Math.min(Long.numberOfLeadingZeros(x), 31);
+                    int trail = Long.numberOfTrailingZeros(x);
+                    if (prevLead >= 0 && lead >= prevLead && trail >= prevTrail) {
+                        out.write(0b10, 2);
+                        out.write(x >>> prevTrail, 64 - prevLead - prevTrail);
+                    } else {
+                        int meaningful = 64 - lead - trail;
+                        out.write(0b11, 2);
+                        out.write(lead, 5);
+                        out.write(meaningful - 1, 6);
+                        out.write(x >>> trail, meaningful);
+                        prevLead = lead;
+                        prevTrail = trail;
+                    }
+                }
+            }
+            prev = bits;
+        }
+        out.finish();
+    }
+
+    /**
+     * Decodes a value column written by {@link #encodeValues}; unset rows become NaN.
+     *
+     * @param buf Source bytes.
+     * @param off Payload start.
+     * @param len Payload length.
+     * @param out Destination, at least {@code n} long.
+     * @param n Number of rows.
+     */
+    static void decodeValues(byte[] buf, int off, int len, double[] out, int n) throws EOFException {
+        if (len < 1) throw new EOFException("Packed column ended early");
+        boolean sparse = buf[off] != 0;
+        int bitmap = off + 1;
+        int bitmapBytes = sparse ? (n + 7) / 8 : 0;
+        if (len < 1 + bitmapBytes) throw new EOFException("Packed column ended early");
+        BitReader in = new BitReader(buf, bitmap + bitmapBytes, len - 1 - bitmapBytes);
+
+        boolean first = true;
+        long prev = 0;
+        int lead = 0;
+        int trail = 0;
+        for (int i = 0; i < n; i++) {
+            if (sparse && (buf[bitmap + (i >>> 3)] & (1 << (i & 7))) == 0) {
+                out[i] = Double.NaN;
+                continue;
+            }
+            if (first) {
+                prev = in.read(64);
+                first = false;
+            } else if (in.bit()) {
+                if (in.bit()) {
+                    lead = (int) in.read(5);
+                    int meaningful = (int) in.read(6) + 1;
+                    trail = 64 - lead - meaningful;
+                    if (trail < 0) throw new EOFException("Bad XOR window");
+                }
+                prev ^= in.read(64 - lead - trail) << trail;
+            }
+            out[i] = Double.longBitsToDouble(prev);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import fi.iki.elonen.NanoHTTPD;
+
+/**
+ * Response whose gzip encoding is done by the logger rather than by the
+ * hosting web server.
+ *
+ * NanoHTTPD calls {@link #setGzipEncoding(boolean)} on every response just
+ * before sending it, based on its own mime-type policy, and then compresses at
+ * the default deflate level, which costs the Control Hub several times more
+ * CPU than the bytes it saves over WiFi. Responses built here never use that
+ * path: bodies are compressed at {@link Deflater#BEST_SPEED} (streamed bodies
+ * on the fly, as they are read) and carry their own Content-Encoding header.
+ */
+final class GzipResponse extends NanoHTTPD.Response {
+
+    /** Bodies smaller than this are not worth a gzip header and trailer. */
+    static final int MIN_GZIP_BYTES = 1024;
+
+    private static final int STREAM_BUFFER_BYTES = 16 * 1024;
+
+    private GzipResponse(IStatus status, String mimeType, InputStream data, long totalBytes, boolean gzipped) {
+        super(status, mimeType, data, totalBytes);
+        super.setGzipEncoding(false);
+        if (gzipped) addHeader("Content-Encoding", "gzip");
+        addHeader("Vary", "Accept-Encoding");
+    }
+
+    @Override
+    public void setGzipEncoding(boolean ignored) {
+        // Encoding is fixed when the response is built.
+    }
+
+    /**
+     * Returns true if the request's Accept-Encoding allows gzip.
+     *
+     * @param session HTTP session for the incoming request.
+     * @return True if the body may be gzip-encoded.
+     */
+    static boolean accepts(NanoHTTPD.IHTTPSession session) {
+        String header = session.getHeaders().get("accept-encoding");
+        if (header == null) return false;
+        for (String part : header.split(",")) {
+            String[] coding = part.split(";");
+            String name = coding[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) continue;
+            for (int i = 1; i < coding.length; i++) {
+                String param = coding[i].trim();
+                if (!param.startsWith("q=")) continue;
+                try {
+                    if (Double.parseDouble(param.substring(2)) <= 0) return false;
+                } catch (NumberFormatException ignored) { }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Creates a fixed-length response, gzip-encoded if allowed and worthwhile.
+     *
+     * @param status HTTP status.
+     * @param mimeType Content type.
+     * @param body Uncompressed body.
+     * @param gzip True if the client accepts gzip.
+     * @return HTTP response.
+     */
+    static NanoHTTPD.Response fixed(IStatus status, String mimeType, byte[] body, boolean gzip) {
+        if (gzip && body.length >= MIN_GZIP_BYTES) {
+            try {
+                return precompressed(status, mimeType, compress(body, Deflater.BEST_SPEED));
+            } catch (IOException ignored) {
+                // In-memory streams do not fail; fall through to the plain body.
+            }
+        }
+        return new GzipResponse(status, mimeType, new ByteArrayInputStream(body), body.length, false);
+    }
+
+    /**
+     * Creates a chunked response, gzip-encoded while streaming if allowed.
+     *
+     * @param status HTTP status.
+     * @param mimeType Content type.
+     * @param data Uncompressed body; closed when the response is sent.
+     * @param gzip True if the client accepts gzip.
+     * @return HTTP response.
+     */
+    static NanoHTTPD.Response chunked(IStatus status, String mimeType, InputStream data, boolean gzip) {
+        return new GzipResponse(status, mimeType, gzip ? new GzipStream(data) : data, -1, gzip);
+    }
+
+    /**
+     * Creates a fixed-length response for a body that is already gzip-compressed.
+     *
+     * @param status HTTP status.
+     * @param mimeType Content type of the uncompressed body.
+     * @param gzipped Compressed body.
+     * @return HTTP response with Content-Encoding: gzip.
+     */
+    static NanoHTTPD.Response precompressed(IStatus status, String mimeType, byte[] gzipped) {
+        return new GzipResponse(status, mimeType, new ByteArrayInputStream(gzipped), gzipped.length, true);
+    }
+
+    /**
+     * Compresses a byte array with gzip.
+     *
+     * @param data Uncompressed bytes.
+     * @param level Deflate level, {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+     * @return Compressed bytes.
+     */
+    static byte[] compress(byte[] data, final int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a source stream as a gzip member: fixed header, raw deflate data,
+     * then the CRC-32 and length trailer once the source is exhausted.
+     */
+    private static final class GzipStream extends InputStream {
+
+        private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+        private final CRC32 crc = new CRC32();
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        private final DeflaterInputStream body;
+        private byte[] pending = HEADER;
+        private int pendingPos;
+        private boolean bodyDone;
+
+        GzipStream(InputStream source) {
+            body = new DeflaterInputStream(new CheckedInputStream(source, crc), deflater, STREAM_BUFFER_BYTES);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (true) {
+                if (pending != null) {
+                    if (pendingPos < pending.length) {
+                        int n = Math.min(len, pending.length - pendingPos);
+                        System.arraycopy(pending, pendingPos, b, off, n);
+                        pendingPos += n;
+                        return n;
+                    }
+                    pending = null;
+                }
+                if (bodyDone) return -1;
+                int n = body.read(b, off, len);
+                if (n > 0) return n;
+                if (n < 0) {
+                    bodyDone = true;
+                    pending = trailer();
+                    pendingPos = 0;
+                }
+            }
+        }
+
+        private byte[] trailer() {
+            long c = crc.getValue();
+            long size = deflater.getBytesRead();
+            return new byte[] {
+                    (byte) c, (byte) (c >>> 8), (byte) (c >>> 16), (byte) (c >>> 24),
+                    (byte) size, (byte) (size >>> 8), (byte) (size >>> 16), (byte) (size >>> 24)
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                body.close();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Growable byte buffer with allocation-free JSON number and string writers.
+ *
+ * Doubles use the shortest fixed-point text that parses back to the same value
+ * when one with at most 9 decimals exists (integers, encoder ticks, most
+ * sensor readings); other values fall back to {@link StringBuilder#append(double)}
+ * on a reused builder. Either way the text is valid JSON and round-trips exactly.
+ */
+final class JsonBytes {
+
+    /** Largest magnitude written through the integer fast path (well below 2^53). */
+    private static final double MAX_EXACT = 1e15;
+
+    /** Powers of ten used by the short-decimal fast path. */
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9
+    };
+
+    private final StringBuilder scratch = new StringBuilder(32);
+    private final byte[] digits = new byte[20];
+    private byte[] buf;
+    private int len;
+
+    JsonBytes(int initialCapacity) {
+        buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    byte[] buffer() {
+        return buf;
+    }
+
+    int length() {
+        return len;
+    }
+
+    void clear() {
+        len = 0;
+    }
+
+    /**
+     * Writes a finite double as a JSON number.
+     *
+     * @param v Finite value.
+     */
+    void writeDouble(double v) {
+        double abs = Math.abs(v);
+        if (abs < MAX_EXACT) {
+            long whole = (long) v;
+            if (whole == v) {
+                if (whole == 0 && Double.doubleToRawLongBits(v) < 0) writeByte('-');
+                writeLong(whole);
+                return;
+            }
+            for (int k = 1; k < POW10.length; k++) {
+                double scaled = v * POW10[k];
+                if (Math.abs(scaled) >= MAX_EXACT) break;
+                long m = Math.round(scaled);
+                if (m / POW10[k] == v) {
+                    writeFixed(m, k);
+                    return;
+                }
+            }
+        }
+        scratch.setLength(0);
+        scratch.append(v);
+        ensure(scratch.length());
+        for (int i = 0; i < scratch.length(); i++) buf[len++] = (byte) scratch.charAt(i);
+    }
+
+    /**
+     * Writes {@code m / 10^scale} in fixed-point notation. {@code m} never ends in a
+     * zero digit because {@link #writeDouble} stops at the smallest scale that round-trips.
+     *
+     * @param m Scaled integer value.
+     * @param scale Number of decimals.
+     */
+    private void writeFixed(long m, int scale) {
+        if (m < 0) {
+            writeByte('-');
+            m = -m;
+        }
+        int n = toDigits(m);
+        if (n <= scale) {
+            writeByte('0');
+            writeByte('.');
+            for (int i = n; i < scale; i++) writeByte('0');
+            writeDigits(n, 0, n);
+        } else {
+            writeDigits(n, 0, n - scale);
+            writeByte('.');
+            writeDigits(n, n - scale, n);
+        }
+    }
+
+    void writeLong(long v) {
+        if (v < 0) {
+            writeByte('-');
+            v = -v;
+        }
+        int n = toDigits(v);
+        writeDigits(n, 0, n);
+    }
+
+    /**
+     * Fills {@link #digits} with the decimal digits of a non-negative value, most significant last.
+     *
+     * @param v Non-negative value.
+     * @return Number of digits.
+     */
+    private int toDigits(long v) {
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        return n;
+    }
+
+    /**
+     * Writes digits [from, to) counted from the most significant digit.
+     */
+    private void writeDigits(int n, int from, int to) {
+        ensure(to - from);
+        for (int i = from; i < to; i++) buf[len++] = digits[n - 1 - i];
+    }
+
+    /**
+     * Writes a quoted, escaped JSON string.
+     *
+     * @param s String value.
+     */
+    void writeString(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        appendQuoted(sb, s);
+        writeBytes(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeBytes(byte[] b) {
+        ensure(b.length);
+        System.arraycopy(b, 0, buf, len, b.length);
+        len += b.length;
+    }
+
+    void writeByte(char c) {
+        ensure(1);
+        buf[len++] = (byte) c;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra <= buf.length) return;
+        byte[] bigger = new byte[Math.max(buf.length * 2, len + extra)];
+        System.arraycopy(buf, 0, bigger, 0, len);
+        buf = bigger;
+    }
+
+    static boolean isFinite(double v) {
+        return !Double.isNaN(v) && !Double.isInfinite(v);
+    }
+
+    /**
+     * Appends a JSON string literal with quotes and escapes.
+     *
+     * @param sb Destination.
+     * @param s String to quote.
+     */
+    static void appendQuoted(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\b': sb.append("\\b"); break;
+                case '\f': sb.append("\\f"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format(Locale.US, "\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,119 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes rows as JSON Lines straight into a reusable byte buffer.
+ *
+ * Produces the same shape org.json did ({"t":1.5,"key":2}), without building a
+ * JSONObject or a String per row:
+ * - key text is escaped and UTF-8 encoded once per channel, then cached as {@code ,"key":} bytes;
+ * - numbers are written digit by digit by {@link JsonBytes}.
+ *
+ * Non-finite values cannot be represented in JSON and are left out of the row.
+ */
+final class JsonlEncoder implements RunEncoder {
+
+    private static final byte[] T_PREFIX = "{\"t\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UNIT_PREFIX = "{\"tUnit\":".getBytes(StandardCharsets.UTF_8);
+
+    private final ChannelSchema schema;
+    private final JsonBytes out;
+    private byte[][] keyCache = new byte[16][];
+
+    JsonlEncoder(ChannelSchema schema, int initialCapacity) {
+        this.schema = schema;
+        this.out = new JsonBytes(initialCapacity);
+    }
+
+    @Override
+    public byte[] buffer() {
+        return out.buffer();
+    }
+
+    @Override
+    public int length() {
+        return out.length();
+    }
+
+    @Override
+    public void clear() {
+        out.clear();
+    }
+
+    /**
+     * Appends the time unit header line.
+     *
+     * @param unit Time unit string.
+     */
+    @Override
+    public void header(String unit) {
+        out.writeBytes(UNIT_PREFIX);
+        out.writeString(unit);
+        out.writeByte('}');
+        out.writeByte('\n');
+    }
+
+    /**
+     * Appends the loop timing line, which readers skip as it has no "t".
+     *
+     * @param loop Loop timing summary.
+     */
+    @Override
+    public void trailer(LoopTiming loop) {
+        loop.writeJsonl(out);
+    }
+
+    /**
+     * Appends one row line. Rows with a non-finite time are skipped.
+     *
+     * @param row Row to encode.
+     * @return True if a line was written.
+     */
+    @Override
+    public boolean row(LogRow row) {
+        if (!JsonBytes.isFinite(row.t)) return false;
+        out.writeBytes(T_PREFIX);
+        out.writeDouble(row.t);
+        for (int i = 0; i < row.size; i++) {
+            double v = row.values[i];
+            if (!JsonBytes.isFinite(v)) continue;
+            out.writeBytes(keyBytes(row.ids[i]));
+            out.writeDouble(v);
+        }
+        out.writeByte('}');
+        out.writeByte('\n');
+        return true;
+    }
+
+    /** Lines are complete as soon as they are encoded; nothing is staged. */
+    @Override
+    public void finish() { }
+
+    @Override
+    public boolean hasStaged() {
+        return false;
+    }
+
+    /**
+     * Returns the cached {@code ,"key":} bytes for a channel.
+     *
+     * @param id Channel id.
+     * @return Encoded key prefix.
+     */
+    private byte[] keyBytes(int id) {
+        if (id >= keyCache.length) keyCache = Arrays.copyOf(keyCache, Math.max(keyCache.length * 2, id + 1));
+        byte[] b = keyCache[id];
+        if (b == null) {
+            String key = schema.name(id);
+            StringBuilder sb = new StringBuilder(key.length() + 4);
+            sb.append(',');
+            JsonBytes.appendQuoted(sb, key);
+            sb.append(':');
+            b = sb.toString().getBytes(StandardCharsets.UTF_8);
+            keyCache[id] = b;
+        }
+        return b;
+    }
+}
@@ -0,0 +1,450 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses JSON Lines run files.
+ *
+ * Expects each log line to be JSON:
+ *   {"t": <number>, "key": <number>, ...}
+ * A line with "tUnit" (or "t_unit") sets the time unit. Lines that fail to
+ * parse or lack a numeric "t" are skipped, as are non-numeric fields. If a
+ * key repeats on a line, the last value wins. A torn last line (a run killed
+ * mid-write, or zero bytes a power cut left at the end of the file) never
+ * parses, so a crashed run reads up to its last complete row.
+ *
+ * Lines are tokenized in place rather than built into JSON objects. Keys are
+ * matched against the key seen at the same position on the previous line, so
+ * steady-state parsing allocates nothing per field, and values of keys outside
+ * the requested series are skipped without being converted.
+ */
+final class JsonlReader {
+
+    /** Id for keys outside the requested series. */
+    private static final int SKIP = -1;
+
+    /** Key classes other than channel ids. */
+    private static final int KEY_T = -2;
+    private static final int KEY_UNIT = -3;
+    private static final int KEY_OTHER = -4;
+
+    /** Exact powers of ten for the fast number path. */
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final RunVisitor visitor;
+    private final Set<String> series;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int announced;
+
+    /** Raw key text and id seen at each field position of the previous line. */
+    private String[] slotKey = new String[16];
+    private int[] slotId = new int[16];
+
+    /** Row number each id was last set on, and where in the row arrays. */
+    private int[] setOnRow = new int[16];
+    private int[] setAt = new int[16];
+    private int rowNumber;
+
+    private int[] rowIds = new int[16];
+    private double[] rowValues = new double[16];
+
+    private String text;
+    private int pos;
+    private int end;
+    private boolean bad;
+
+    /**
+     * Creates a line parser that reports every numeric field to a visitor.
+     *
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    JsonlReader(RunVisitor visitor) {
+        this(visitor, null);
+    }
+
+    /**
+     * Creates a line parser that reports only some fields to a visitor. Channel
+     * ids are assigned in first-seen order across every line passed to {@link #line}.
+     *
+     * @param visitor Receiver for unit, channels and rows.
+     * @param series Field names to report, or null for all.
+     */
+    JsonlReader(RunVisitor visitor, Set<String> series) {
+        this.visitor = visitor;
+        this.series = series;
+    }
+
+    /**
+     * Parses a JSONL stream and reports its contents to a visitor.
+     *
+     * @param in Run file contents.
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    static void read(InputStream in, RunVisitor visitor) throws IOException {
+        read(in, null, visitor);
+    }
+
+    /**
+     * Parses a JSONL stream and reports some of its fields to a visitor.
+     *
+     * @param in Run file contents.
+     * @param series Field names to report, or null for all.
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    static void read(InputStream in, Set<String> series, RunVisitor visitor) throws IOException {
+        JsonlReader reader = new JsonlReader(visitor, series);
+        BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        String line;
+        while ((line = br.readLine()) != null) reader.line(line);
+    }
+
+    /**
+     * Parses one line.
+     *
+     * @param line Line text without the line terminator.
+     * @return Row time if the line was a row, otherwise NaN.
+     */
+    double line(String line) {
+        text = line;
+        pos = 0;
+        end = line.length();
+        bad = false;
+        rowNumber++;
+
+        skipWhitespace();
+        if (pos == end || text.charAt(pos) != '{') return Double.NaN;
+        pos++;
+
+        double t = Double.NaN;
+        String unit = null;
+        int n = 0;
+        skipWhitespace();
+        if (pos < end && text.charAt(pos) == '}') {
+            pos++;
+        } else {
+            for (int field = 0; ; field++) {
+                skipWhitespace();
+                if (pos == end || text.charAt(pos) != '"') return Double.NaN;
+                int keyStart = pos + 1;
+                int keyEnd = skipString();
+                if (keyEnd < 0) return Double.NaN;
+                skipWhitespace();
+                if (pos == end || text.charAt(pos) != ':') return Double.NaN;
+                pos++;
+                skipWhitespace();
+                if (pos == end) return Double.NaN;
+
+                int key = classify(keyStart, keyEnd);
+                char c = text.charAt(pos);
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    if (key == KEY_OTHER) key = channelId(keyStart, keyEnd, field);
+                    if (key == SKIP) {
+                        skipNumber();
+                    } else if (key == KEY_UNIT) {
+                        int start = pos;
+                        skipNumber();
+                        unit = text.substring(start, pos);
+                    } else {
+                        double v = parseNumber();
+                        if (key == KEY_T) t = v;
+                        else n = put(key, v, n);
+                    }
+                } else if (c == '"') {
+                    int start = pos + 1;
+                    int stop = skipString();
+                    if (stop < 0) return Double.NaN;
+                    if (key == KEY_UNIT) unit = unescape(start, stop);
+                    else if (key == KEY_T) t = parseQuoted(start, stop);
+                } else if (c == '{' || c == '[') {
+                    skipNested();
+                } else {
+                    skipLiteral();
+                    if (key == KEY_T) t = Double.NaN;
+                }
+                if (bad) return Double.NaN;
+
+                skipWhitespace();
+                if (pos == end) return Double.NaN;
+                c = text.charAt(pos++);
+                if (c == '}') break;
+                if (c != ',') return Double.NaN;
+            }
+        }
+
+        if (unit != null) {
+            visitor.timeUnit(unit);
+            return Double.NaN;
+        }
+        if (Double.isNaN(t)) return Double.NaN;
+        while (announced < names.size()) {
+            visitor.channel(announced, names.get(announced));
+            announced++;
+        }
+        visitor.row(t, rowIds, rowValues, n);
+        return t;
+    }
+
+    /**
+     * Adds a value to the current row, replacing an earlier value for the same id.
+     *
+     * @return New field count.
+     */
+    private int put(int id, double v, int n) {
+        if (id >= setOnRow.length) {
+            int cap = Math.max(id + 1, setOnRow.length * 2);
+            setOnRow = Arrays.copyOf(setOnRow, cap);
+            setAt = Arrays.copyOf(setAt, cap);
+        }
+        if (setOnRow[id] == rowNumber) {
+            rowValues[setAt[id]] = v;
+            return n;
+        }
+        if (n == rowIds.length) {
+            rowIds = Arrays.copyOf(rowIds, n * 2);
+            rowValues = Arrays.copyOf(rowValues, n * 2);
+        }
+        setOnRow[id] = rowNumber;
+        setAt[id] = n;
+        rowIds[n] = id;
+        rowValues[n] = v;
+        return n + 1;
+    }
+
+    private int classify(int start, int stop) {
+        int len = stop - start;
+        if (len == 1 && text.charAt(start) == 't') return KEY_T;
+        if (len == 5 && text.startsWith("tUnit", start)) return KEY_UNIT;
+        if (len == 6 && text.startsWith("t_unit", start)) return KEY_UNIT;
+        return KEY_OTHER;
+    }
+
+    /**
+     * Returns the channel id for a key, or {@link #SKIP}, assigning ids to new kept keys.
+     */
+    private int channelId(int start, int stop, int field) {
+        int len = stop - start;
+        if (field < slotKey.length) {
+            String cached = slotKey[field];
+            if (cached != null && cached.length() == len && text.regionMatches(start, cached, 0, len)) {
+                return slotId[field];
+            }
+        } else {
+            slotKey = Arrays.copyOf(slotKey, Math.max(field + 1, slotKey.length * 2));
+            slotId = Arrays.copyOf(slotId, slotKey.length);
+        }
+        String name = unescape(start, stop);
+        Integer id = ids.get(name);
+        if (id == null) {
+            if (series == null || series.contains(name)) {
+                id = names.size();
+                names.add(name);
+            } else {
+                id = SKIP;
+            }
+            ids.put(name, id);
+        }
+        slotKey[field] = text.substring(start, stop);
+        slotId[field] = id;
+        return id;
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') return;
+            pos++;
+        }
+    }
+
+    /**
+     * Skips a string starting at the opening quote.
+     *
+     * @return Index of the closing quote, or -1 if the string is unterminated.
+     */
+    private int skipString() {
+        pos++;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c == '"') return pos++;
+            pos += c == '\\' ? 2 : 1;
+        }
+        return -1;
+    }
+
+    private void skipNumber() {
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') return;
+            pos++;
+        }
+    }
+
+    private void skipLiteral() {
+        int start = pos;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if ((c < 'a' || c > 'z') && (c < 'A' || c > 'Z')) break;
+            pos++;
+        }
+        if (pos == start) bad = true;
+    }
+
+    private void skipNested() {
+        int depth = 0;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c == '"') {
+                if (skipString() < 0) break;
+                continue;
+            }
+            pos++;
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) return;
+            }
+        }
+        bad = true;
+    }
+
+    /**
+     * Parses a JSON number. Numbers with at most 15 significant digits and a
+     * small exponent are converted exactly with one multiply or divide; the
+     * rest fall back to {@link Double#parseDouble}.
+     */
+    private double parseNumber() {
+        int start = pos;
+        boolean negative = text.charAt(pos) == '-';
+        if (negative) pos++;
+        long mantissa = 0;
+        int digits = 0;
+        int exp10 = 0;
+        boolean any = false;
+        while (pos < end) {
+            char c = text.charAt(pos);
+            if (c < '0' || c > '9') break;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                digits++;
+                exp10++;
+            }
+            any = true;
+            pos++;
+        }
+        if (pos < end && text.charAt(pos) == '.') {
+            pos++;
+            while (pos < end) {
+                char c = text.charAt(pos);
+                if (c < '0' || c > '9') break;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                    exp10--;
+                } else {
+                    digits++;
+                }
+                any = true;
+                pos++;
+            }
+        }
+        if (!any) {
+            bad = true;
+            return Double.NaN;
+        }
+        if (pos < end && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            boolean expNegative = false;
+            if (pos < end && (text.charAt(pos) == '-' || text.charAt(pos) == '+')) {
+                expNegative = text.charAt(pos) == '-';
+                pos++;
+            }
+            int exp = 0;
+            boolean expAny = false;
+            while (pos < end) {
+                char c = text.charAt(pos);
+                if (c < '0' || c > '9') break;
+                if (exp < 10000) exp = exp * 10 + (c - '0');
+                expAny = true;
+                pos++;
+            }
+            if (!expAny) {
+                bad = true;
+                return Double.NaN;
+            }
+            exp10 += expNegative ? -exp : exp;
+        }
+        if (digits <= 15 && exp10 >= -22 && exp10 <= 22) {
+            double v = exp10 >= 0 ? mantissa * POW10[exp10] : mantissa / POW10[-exp10];
+            return negative ? -v : v;
+        }
+        try {
+            return Double.parseDouble(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            bad = true;
+            return Double.NaN;
+        }
+    }
+
+    /** Parses a quoted t value, as org.json's optDouble would. */
+    private double parseQuoted(int start, int stop) {
+        try {
+            return Double.parseDouble(text.substring(start, stop).trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Returns the string between {@code start} and the closing quote at {@code stop}, unescaped.
+     */
+    private String unescape(int start, int stop) {
+        int slash = text.indexOf('\\', start);
+        if (slash < 0 || slash >= stop) return text.substring(start, stop);
+        StringBuilder sb = new StringBuilder(stop - start);
+        for (int i = start; i < stop; i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 >= stop) {
+                sb.append(c);
+                continue;
+            }
+            c = text.charAt(++i);
+            switch (c) {
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (i + 4 < stop) {
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                            i += 4;
+                            break;
+                        } catch (NumberFormatException ignored) {
+                            // Not a valid escape; keep the text as is.
+                        }
+                    }
+                    sb.append('u');
+                    break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
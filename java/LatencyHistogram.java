@@ -0,0 +1,123 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds.
+ *
+ * Buckets split every power of two into four, so a reported percentile is
+ * within 25% of the true value. Each bucket is a {@link LongAdder}: recording
+ * is one striped increment and never waits for a reader, and a reader sees a
+ * slightly stale but consistent enough picture.
+ */
+final class LatencyHistogram {
+
+    /** Buckets 0..3 hold 0..3 ns exactly; after that four per power of two. */
+    static final int BUCKETS = 4 + 61 * 4;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos Duration; negative values count as 0.
+     */
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets[bucket(nanos)].increment();
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long sum() {
+        return sum.sum();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean duration.
+     *
+     * @return Mean in nanoseconds, or 0 when empty.
+     */
+    double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile.
+     *
+     * @param p Percentile, 0 to 100.
+     * @return Upper edge of the bucket holding that percentile, in nanoseconds; 0 when empty.
+     */
+    long percentile(double p) {
+        return percentile(counts(), max.get(), p);
+    }
+
+    /**
+     * Returns a copy of the bucket counts.
+     *
+     * @return Count per bucket, indexed as {@link #bucket}.
+     */
+    long[] counts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = buckets[i].sum();
+        return counts;
+    }
+
+    /**
+     * Returns an upper bound for a percentile of recorded bucket counts.
+     *
+     * @param counts Count per bucket.
+     * @param max Largest recorded duration; caps the result.
+     * @param p Percentile, 0 to 100.
+     * @return Upper edge of the bucket holding that percentile, in nanoseconds; 0 when empty.
+     */
+    static long percentile(long[] counts, long max, double p) {
+        if (p < 0 || p > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperEdge(i), max);
+        }
+        return max;
+    }
+
+    /** Returns the bucket for a duration. */
+    static int bucket(long nanos) {
+        if (nanos < 4) return (int) nanos;
+        int exp = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exp - 2)) & 3;
+        return 4 + (exp - 2) * 4 + sub;
+    }
+
+    /** Returns the largest duration that falls into a bucket. */
+    static long upperEdge(int bucket) {
+        if (bucket < 4) return bucket;
+        int exp = (bucket - 4) / 4 + 2;
+        int sub = (bucket - 4) % 4;
+        long lower = (long) (4 | sub) << (exp - 2);
+        long width = 1L << (exp - 2);
+        return lower > Long.MAX_VALUE - width ? Long.MAX_VALUE : lower + width - 1;
+    }
+}
@@ -0,0 +1,65 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/** Splits a byte range of a JSONL file into complete '\n'-terminated lines, tracking byte offsets. */
+final class LineScanner {
+
+    private final InputStream in;
+    private final byte[] chunk = new byte[8 * 1024];
+    private int chunkPos;
+    private int chunkLen;
+    private long remaining;
+    private byte[] line = new byte[256];
+
+    /** Offset of the line last returned by {@link #next}. */
+    long lineStart;
+    /** Offset just past the line terminator of the line last returned. */
+    long position;
+
+    /**
+     * Creates a scanner over {@code length} bytes.
+     *
+     * @param in Stream positioned at {@code offset}.
+     * @param offset File offset of the stream's position.
+     * @param length Number of bytes to scan.
+     */
+    LineScanner(InputStream in, long offset, long length) {
+        this.in = in;
+        this.position = offset;
+        this.remaining = length;
+    }
+
+    /**
+     * Returns the next complete line, or null at the end of the range. A
+     * trailing line without '\n' is not returned.
+     *
+     * @return Line text without the terminator, or null.
+     */
+    String next() throws IOException {
+        lineStart = position;
+        int len = 0;
+        long pos = position;
+        while (true) {
+            if (chunkPos == chunkLen) {
+                if (remaining <= 0) return null;
+                int n = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                if (n <= 0) return null;
+                remaining -= n;
+                chunkPos = 0;
+                chunkLen = n;
+            }
+            byte c = chunk[chunkPos++];
+            pos++;
+            if (c == '\n') {
+                position = pos;
+                return new String(line, 0, len, StandardCharsets.UTF_8);
+            }
+            if (len == line.length) line = Arrays.copyOf(line, len * 2);
+            line[len++] = c;
+        }
+    }
+}
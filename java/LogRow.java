@@ -0,0 +1,93 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.Arrays;
+
+/**
+ * Reusable row slot: a time value plus numeric fields keyed by channel id.
+ *
+ * Slots are preallocated and overwritten in place, so filling one on the
+ * OpMode loop thread does not allocate once the arrays have grown to fit.
+ */
+final class LogRow {
+
+    double t;
+    String unit;
+    int size;
+    int[] ids = new int[8];
+    double[] values = new double[8];
+
+    /**
+     * Clears the row and sets its time value.
+     *
+     * @param t Time in units matching {@code unit}.
+     * @param unit Time unit string.
+     */
+    void reset(double t, String unit) {
+        this.t = t;
+        this.unit = unit;
+        this.size = 0;
+    }
+
+    /**
+     * Fills the row from alternating key/value entries, skipping invalid pairs
+     * (a key that is not a String or is reserved, or a value that is not a Number).
+     *
+     * @param t Time in units matching {@code unit}.
+     * @param unit Time unit string.
+     * @param keyValuePairs Alternating key/value entries (String, Number).
+     * @param schema Schema used to resolve (and register) key names.
+     */
+    void set(double t, String unit, Object[] keyValuePairs, ChannelSchema schema) {
+        reset(t, unit);
+        for (int i = 0; i + 1 < keyValuePairs.length; i += 2) {
+            Object k = keyValuePairs[i];
+            Object v = keyValuePairs[i + 1];
+            if (!(k instanceof String) || ChannelSchema.isReserved((String) k)) continue;
+            if (!(v instanceof Number)) continue;
+            put(schema.idOf((String) k), ((Number) v).doubleValue());
+        }
+    }
+
+    /**
+     * Fills the row from the fields set on a {@link LogWriter.Row}.
+     *
+     * @param t Time in units matching {@code unit}.
+     * @param unit Time unit string.
+     * @param row Source row.
+     */
+    void set(double t, String unit, LogWriter.Row row) {
+        reset(t, unit);
+        int n = row.count;
+        if (ids.length < n) grow(n);
+        for (int i = 0; i < n; i++) {
+            int id = row.order[i];
+            ids[i] = id;
+            values[i] = row.values[id];
+        }
+        size = n;
+    }
+
+    /**
+     * Adds a field, replacing the value if the channel is already present.
+     *
+     * @param id Channel id.
+     * @param value Field value.
+     */
+    void put(int id, double value) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                values[i] = value;
+                return;
+            }
+        }
+        if (size == ids.length) grow(size * 2);
+        ids[size] = id;
+        values[size] = value;
+        size++;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+}
@@ -2,34 +2,478 @@ package org.firstinspires.ftc.teamcode.logger.java;
 
 import android.content.Context;
 
-import org.json.JSONObject;
-
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
-import java.util.Locale;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * JSON Lines logger.
  *
  * Creates a run file:
  *   <external files>/ftc-logger/<OpMode>/<RunNumber>.jsonl
+ * or, with {@link Format#FLOG} or {@link Format#FLOG_COMPACT}, a binary columnar file (see {@link FlogEncoder}):
+ *   <external files>/ftc-logger/<OpMode>/<RunNumber>.flog
  *
  * Each row is a JSON object with at least:
  *   {"t": <time>, ...numeric fields...}
  *
  * The first line may contain:
  *   {"tUnit": "s" | "ms" | "ns"}
+ *
+ * Rows can be logged with alternating key/value arguments, or through the typed
+ * channel API, which resolves each field name once:
+ *   int arm = logger.channel("armEncoder");
+ *   LogWriter.Row row = logger.newRow(TimeUnit.MILLISECONDS);
+ *   row.set(arm, pos).commit(t);
+ *
+ * By default every row is written and flushed on the calling thread. With
+ * {@link Options#async(boolean)} the calling thread only copies the row into a
+ * bounded queue and a background thread writes queued rows in batches.
+ * {@link Options#durability(Durability)} chooses how often rows are written to
+ * the file and whether they are forced to storage.
+ *
+ * With {@link Options#loopTiming(boolean)} the logger also times the interval
+ * between consecutive log calls itself: each row gets a {@value #LOOP_DT_CHANNEL}
+ * field, and the run ends with a histogram of the intervals (see {@link LoopTiming}).
+ *
+ * Channels that change slowly or need not be kept at the loop rate can be
+ * thinned per channel with {@link Options#maxRate}, {@link Options#deadband}
+ * and {@link Options#everyNth}. Rows then hold only the fields that were
+ * written, and a row left with no fields is not written at all. JSONL and
+ * {@link Format#FLOG_COMPACT} runs shrink with the fields left out; plain
+ * {@link Format#FLOG} columns keep a fixed-width slot for every row.
+ *
+ * By default concurrent log calls take turns on one lock, so rows from
+ * several threads reach the file in call order. With
+ * {@link Options#multiProducer(boolean)} every logging thread gets its own
+ * lock-free buffer instead; the writer thread merges the buffers into time
+ * order and each row carries a {@value #SOURCE_CHANNEL} field identifying its thread.
+ *
+ * Logging never throws: write errors are counted ({@link #getErrorCount()})
+ * and, with row counts, sizes and encode/write latencies, shown per writer by
+ * /logger/api/metrics.
  */
 public final class LogWriter implements AutoCloseable {
 
-    private final BufferedWriter writer;
+    /** What an async logger does with a new row when its queue is full. */
+    public enum OverflowPolicy {
+        /** Discard the oldest queued row to make room. */
+        DROP_OLDEST,
+        /** Discard the new row. */
+        DROP_NEWEST,
+        /** Wait for the writer thread to free a slot. */
+        BLOCK
+    }
+
+    /**
+     * How soon logged rows reach the run file, trading logging cost for how
+     * much a crash can lose. See {@link Options#groupCommit} and {@link Options#fsyncInterval}.
+     */
+    public enum Durability {
+        /**
+         * Rows are written when the 64 KB write buffer fills and when the run is
+         * closed. Cheapest; if the app is killed, the buffered rows are lost.
+         */
+        NONE,
+        /**
+         * Rows are written to the file in groups (by default after every row;
+         * for .flog runs after every block, or once a row has waited 2 s).
+         * Survives the app being killed; a power cut can still lose what the
+         * file system had not stored yet.
+         */
+        GROUP_COMMIT,
+        /**
+         * As {@link #GROUP_COMMIT}, and written rows are also forced to storage,
+         * at most one fsync interval apart. Survives a power cut, losing at most
+         * the rows since the last force.
+         */
+        FSYNC
+    }
+
+    /** How encoded rows are handed to the run file. */
+    public enum Backend {
+        /** One write call per flush. */
+        STREAM,
+        /**
+         * Copy into a memory-mapped region of the file, preallocated 1 MB at a
+         * time and trimmed on {@link #close()}; no system call per flush.
+         */
+        MAPPED
+    }
+
+    /** Run file format. */
+    public enum Format {
+        /** One JSON object per line; human readable. */
+        JSONL,
+        /** Binary columnar blocks; several times smaller and faster to load. */
+        FLOG,
+        /**
+         * Binary columnar blocks with delta-of-delta time and XOR-compressed values
+         * (still a .flog file); smallest on disk, for steady loops and slowly changing channels.
+         */
+        FLOG_COMPACT
+    }
+
+    /** Field that loop timing adds to each row: time since the previous log call, in the row's time unit. */
+    public static final String LOOP_DT_CHANNEL = "loop_dt";
+
+    /**
+     * Field that multi-producer logging adds to each row: the id of the thread
+     * that logged it (0 for the thread that created the logger). Names of the
+     * ids are shown by /logger/api/metrics.
+     */
+    public static final String SOURCE_CHANNEL = "source";
+
+    /** Optional settings for a {@link LogWriter}. */
+    public static final class Options {
+        private Format format = Format.JSONL;
+        private boolean loopTiming;
+        private boolean async;
+        private boolean multiProducer;
+        private long mergeWindowNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        private int queueCapacity = 1024;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+        private Backend backend = Backend.STREAM;
+        private Durability durability = Durability.GROUP_COMMIT;
+        private int commitRows = 1;
+        private long commitDelayNanos;
+        private long fsyncIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+        private final Map<String, ChannelPolicies.Policy> policies = new LinkedHashMap<>();
+
+        /**
+         * Sets the run file format.
+         *
+         * @param format Run file format.
+         * @return These options.
+         */
+        public Options format(Format format) {
+            if (format == null) throw new IllegalArgumentException("Missing format");
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Times the interval between consecutive log calls (the OpMode loop
+         * period when logging once per loop). Every row but the first gets a
+         * {@value LogWriter#LOOP_DT_CHANNEL} field in the row's time unit,
+         * replacing a field of that name; the intervals also go into a
+         * constant-size histogram that {@link LogWriter#close()} writes at the
+         * end of the run and /logger/api/loop reports.
+         *
+         * @param loopTiming True to record loop timing.
+         * @return These options.
+         */
+        public Options loopTiming(boolean loopTiming) {
+            this.loopTiming = loopTiming;
+            return this;
+        }
+
+        /**
+         * Moves file writes to a background thread.
+         *
+         * @param async True to queue rows and write them on a writer thread.
+         * @return These options.
+         */
+        public Options async(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        /**
+         * Lets several threads (OpMode loop, odometry, vision) log into one run
+         * without waiting for each other. Each thread gets its own lock-free
+         * buffer of {@link #queueCapacity} rows, and the writer thread merges
+         * the buffers by t before writing, so the run stays in time order.
+         * Every row gets a {@value LogWriter#SOURCE_CHANNEL} field with the id
+         * of the thread that logged it. Implies {@link #async(boolean)}.
+         *
+         * A thread's full buffer applies {@link #overflowPolicy}:
+         * {@link OverflowPolicy#DROP_OLDEST} behaves as {@link OverflowPolicy#DROP_NEWEST},
+         * since only the writer thread may take rows out of a buffer, and
+         * {@link OverflowPolicy#BLOCK} only holds up the thread whose buffer is full.
+         * With loop timing, each row's {@value LogWriter#LOOP_DT_CHANNEL} is the
+         * interval since the same thread's previous row, and the histogram
+         * follows the thread that created the logger.
+         *
+         * @param multiProducer True to give each logging thread its own buffer.
+         * @return These options.
+         */
+        public Options multiProducer(boolean multiProducer) {
+            this.multiProducer = multiProducer;
+            return this;
+        }
+
+        /**
+         * Sets how long the writer thread holds a row back for rows from other
+         * threads with earlier times, in {@link #multiProducer} mode. Rows are
+         * written in t order as long as no thread logs a row more than this
+         * long after other threads logged later times; a longer window keeps
+         * rows in memory longer.
+         *
+         * @param window Merge window (default 100 ms).
+         * @param unit Unit of {@code window}.
+         * @return These options.
+         */
+        public Options mergeWindow(long window, TimeUnit unit) {
+            if (window < 0) throw new IllegalArgumentException("Merge window must not be negative");
+            this.mergeWindowNanos = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Sets how many rows the async queue can hold.
+         *
+         * @param queueCapacity Maximum number of queued rows.
+         * @return These options.
+         */
+        public Options queueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) throw new IllegalArgumentException("Queue capacity must be positive");
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets what happens when the async queue is full.
+         *
+         * @param overflowPolicy Overflow policy.
+         * @return These options.
+         */
+        public Options overflowPolicy(OverflowPolicy overflowPolicy) {
+            if (overflowPolicy == null) throw new IllegalArgumentException("Missing overflow policy");
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Sets how encoded rows are handed to the run file.
+         *
+         * @param backend Output backend.
+         * @return These options.
+         */
+        public Options backend(Backend backend) {
+            if (backend == null) throw new IllegalArgumentException("Missing backend");
+            this.backend = backend;
+            return this;
+        }
+
+        /**
+         * Sets when logged rows are written to the run file.
+         *
+         * @param durability Durability mode.
+         * @return These options.
+         */
+        public Options durability(Durability durability) {
+            if (durability == null) throw new IllegalArgumentException("Missing durability");
+            this.durability = durability;
+            return this;
+        }
+
+        /**
+         * Sets the group size for {@link Durability#GROUP_COMMIT} and {@link Durability#FSYNC}:
+         * rows are written once {@code rows} are waiting, or once the oldest has
+         * waited {@code maxDelay}, whichever comes first. In synchronous mode the
+         * delay is checked when a row is logged; the async writer thread also
+         * checks it while no rows arrive.
+         *
+         * .flog rows only reach the file a block (256 rows) at a time, so there a
+         * group is never smaller than a block and the live tail moves a block at a
+         * time; only the delay writes a partial block, as a smaller block. .flog
+         * runs therefore default to a delay of 2 s instead of no time limit. Each
+         * partial block costs its own header and restarts the packed columns, so
+         * short delays make slow runs larger.
+         *
+         * @param rows Rows per group (at least 1).
+         * @param maxDelay Longest a row waits, or 0 for no time limit (2 s for .flog runs).
+         * @param unit Unit of {@code maxDelay}.
+         * @return These options.
+         */
+        public Options groupCommit(int rows, long maxDelay, TimeUnit unit) {
+            if (rows < 1) throw new IllegalArgumentException("Group commit rows must be positive");
+            if (maxDelay < 0) throw new IllegalArgumentException("Group commit delay must not be negative");
+            this.commitRows = rows;
+            this.commitDelayNanos = unit.toNanos(maxDelay);
+            return this;
+        }
+
+        /**
+         * Sets the least time between forces to storage in {@link Durability#FSYNC} mode.
+         *
+         * @param interval Interval, or 0 to force after every group.
+         * @param unit Unit of {@code interval}.
+         * @return These options.
+         */
+        public Options fsyncInterval(long interval, TimeUnit unit) {
+            if (interval < 0) throw new IllegalArgumentException("Fsync interval must not be negative");
+            this.fsyncIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * Writes a channel at most {@code hz} times per second, measured on the
+         * rows' own time. Values in between are left out of their rows.
+         *
+         * @param channel Field name.
+         * @param hz Highest write rate; the average rate stays at it under loop
+         *           jitter, and two written values are never closer than half a period.
+         * @return These options.
+         */
+        public Options maxRate(String channel, double hz) {
+            if (!(hz > 0) || Double.isInfinite(hz)) throw new IllegalArgumentException("Max rate must be positive");
+            policy(channel).minIntervalSeconds = 1.0 / hz;
+            return this;
+        }
+
+        /**
+         * Writes a channel only when its value moved by more than {@code threshold}
+         * from the last written value (log on change). The first value is always written.
+         *
+         * @param channel Field name.
+         * @param threshold Change needed, or 0 to write any change.
+         * @return These options.
+         */
+        public Options deadband(String channel, double threshold) {
+            if (!(threshold >= 0) || Double.isInfinite(threshold)) {
+                throw new IllegalArgumentException("Deadband must not be negative");
+            }
+            policy(channel).deadband = threshold;
+            return this;
+        }
+
+        /**
+         * Writes one of every {@code n} samples of a channel, starting with the first.
+         *
+         * @param channel Field name.
+         * @param n Decimation factor (1 writes every sample).
+         * @return These options.
+         */
+        public Options everyNth(String channel, int n) {
+            if (n < 1) throw new IllegalArgumentException("Decimation factor must be positive");
+            policy(channel).every = n;
+            return this;
+        }
+
+        private ChannelPolicies.Policy policy(String channel) {
+            ChannelSchema.requireValidName(channel);
+            ChannelPolicies.Policy p = policies.get(channel);
+            if (p == null) {
+                p = new ChannelPolicies.Policy();
+                policies.put(channel, p);
+            }
+            return p;
+        }
+    }
+
+    /**
+     * Reusable row for the typed channel API.
+     *
+     * Set values by channel handle, then {@link #commit(double)}; committing logs
+     * the fields set since the previous commit and clears them. A row is not
+     * thread-safe, so give each logging thread its own.
+     */
+    public static final class Row {
+        private final LogWriter owner;
+        private final String unit;
+        double[] values = new double[0];
+        int[] order = new int[0];
+        int count;
+        private int[] stamp = new int[0];
+        private int generation = 1;
+
+        private Row(LogWriter owner, String unit) {
+            this.owner = owner;
+            this.unit = unit;
+        }
+
+        /**
+         * Sets a field for the next commit.
+         *
+         * @param channel Handle returned by {@link LogWriter#channel(String)}.
+         * @param value Field value.
+         * @return This row.
+         */
+        public Row set(int channel, double value) {
+            if (channel < 0 || channel >= owner.schema.size()) {
+                throw new IllegalArgumentException("Unknown channel handle: " + channel);
+            }
+            if (channel >= values.length) grow(owner.schema.size());
+            if (stamp[channel] != generation) {
+                stamp[channel] = generation;
+                order[count++] = channel;
+            }
+            values[channel] = value;
+            return this;
+        }
+
+        /**
+         * Sets an integer field (encoder ticks, states) for the next commit.
+         *
+         * @param channel Handle returned by {@link LogWriter#channel(String)}.
+         * @param value Field value.
+         * @return This row.
+         */
+        public Row set(int channel, long value) {
+            return set(channel, (double) value);
+        }
+
+        /**
+         * Logs the fields set since the last commit with the given time, then clears them.
+         *
+         * @param t Time in the unit this row was created with.
+         */
+        public void commit(double t) {
+            owner.logRow(t, unit, this);
+            count = 0;
+            if (++generation == 0) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+        }
+
+        private void grow(int channels) {
+            values = Arrays.copyOf(values, channels);
+            order = Arrays.copyOf(order, channels);
+            stamp = Arrays.copyOf(stamp, channels);
+        }
+    }
+
+    /** How long the writer thread waits for rows before checking whether it was abandoned. */
+    private static final long DRAIN_POLL_MS = 500;
+
+    /** Rows per .flog block. */
+    private static final int FLOG_BLOCK_ROWS = 256;
+
+    /**
+     * Group commit delay of .flog runs whose options set none. Rows only reach
+     * a .flog file a block at a time, so without a delay a killed run would
+     * lose up to a block of rows however small the group. Long enough that a
+     * 50 Hz run still writes blocks of about 100 rows, which are only about 2%
+     * larger than full blocks.
+     */
+    private static final long FLOG_COMMIT_DELAY_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final ChannelSchema schema = new ChannelSchema();
+    private final RowWriter rowWriter;
+    /** Async queue shared by all threads, unless multi-producer. */
+    private final RowQueue queue;
+    /** Per-thread buffers in multi-producer mode. */
+    private final MergeQueue merge;
+    /** Whichever of the two feeds the writer thread, or null in synchronous mode. */
+    private final RowBuffer buffer;
+    private final Thread drainThread;
+    private final LogRow scratch = new LogRow();
     private final File runFile;
     private final String initError;
-    private String tUnit;
+    /** Channel of {@link #LOOP_DT_CHANNEL}, or -1 if loop timing is off. */
+    private final int loopChannel;
+    /** Time of the previous log call, for loop timing. */
+    private final AtomicLong lastLogNanos = new AtomicLong(NO_LOG_CALL);
+
+    private static final long NO_LOG_CALL = Long.MIN_VALUE;
 
     /**
      * Creates a new logger for the given OpMode.
@@ -38,19 +482,80 @@ public final class LogWriter implements AutoCloseable {
      * @param opModeName OpMode name, log files are grouped by OpMode.
      */
     public LogWriter(Context context, String opModeName) {
-        BufferedWriter tmpWriter = null;
+        this(context, opModeName, new Options());
+    }
+
+    /**
+     * Creates a new logger for the given OpMode with custom options.
+     *
+     * @param context Android context used to resolve external files directory. Use`hardwareMap.appContext`
+     * @param opModeName OpMode name, log files are grouped by OpMode.
+     * @param options Logger options.
+     */
+    public LogWriter(Context context, String opModeName, Options options) {
+        RowWriter tmpWriter = null;
         File tmpRunFile = null;
         String error = null;
+        boolean flog = options.format == Format.FLOG || options.format == Format.FLOG_COMPACT;
+        long commitDelayNanos = options.durability == Durability.NONE ? 0
+                : options.commitDelayNanos == 0 && flog ? FLOG_COMMIT_DELAY_NANOS
+                : options.commitDelayNanos;
         try {
             File opDir = FileSystemUtilities.getOpModeDir(context, opModeName);
-            tmpRunFile = new File(opDir, nextRunId(opDir) + ".jsonl");
-            tmpWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmpRunFile, true), StandardCharsets.UTF_8));
-        } catch (FileNotFoundException e) {
+            tmpRunFile = RunNumbers.allocate(opDir,
+                    flog ? FileSystemUtilities.FLOG_EXTENSION : FileSystemUtilities.JSONL_EXTENSION);
+            RunEncoder encoder = flog
+                    ? new FlogEncoder(schema, FLOG_BLOCK_ROWS, options.format == Format.FLOG_COMPACT)
+                    : new JsonlEncoder(schema, 64 * 1024);
+            RunOutput output = options.backend == Backend.MAPPED
+                    ? new MappedRunOutput(tmpRunFile)
+                    : new FileRunOutput(tmpRunFile);
+            tmpWriter = new RowWriter(tmpRunFile, output, encoder);
+            tmpWriter.durability(
+                    options.durability == Durability.NONE ? 0 : options.commitRows,
+                    commitDelayNanos,
+                    options.durability == Durability.FSYNC ? options.fsyncIntervalNanos : -1);
+        } catch (IOException e) {
             error = e.toString();
         }
-        writer = tmpWriter;
+        rowWriter = tmpWriter;
         runFile = tmpRunFile;
         initError = error;
+        loopChannel = rowWriter != null && options.loopTiming ? schema.idOf(LOOP_DT_CHANNEL) : -1;
+        if (loopChannel >= 0) rowWriter.loopTiming();
+        if (rowWriter != null && !options.policies.isEmpty()) {
+            rowWriter.policies(new ChannelPolicies(schema, options.policies, rowWriter.metrics()));
+        }
+
+        if (rowWriter != null && options.multiProducer) {
+            merge = new MergeQueue(options.queueCapacity, options.overflowPolicy, loopChannel,
+                    schema.idOf(SOURCE_CHANNEL), options.mergeWindowNanos);
+            merge.producer(); // the creating thread is source 0
+            queue = null;
+        } else if (rowWriter != null && options.async) {
+            queue = new RowQueue(options.queueCapacity, options.overflowPolicy, loopChannel);
+            merge = null;
+        } else {
+            queue = null;
+            merge = null;
+        }
+        buffer = queue != null ? queue : merge;
+
+        if (buffer != null) {
+            rowWriter.metrics().queue(buffer);
+            long pollMs = DRAIN_POLL_MS;
+            if (commitDelayNanos > 0) {
+                pollMs = Math.min(pollMs, Math.max(1, TimeUnit.NANOSECONDS.toMillis(commitDelayNanos)));
+            }
+            if (options.durability == Durability.FSYNC) {
+                pollMs = Math.min(pollMs, Math.max(1, TimeUnit.NANOSECONDS.toMillis(options.fsyncIntervalNanos)));
+            }
+            drainThread = new Thread(new Drainer(this, buffer, rowWriter, pollMs), "LogWriter " + runFile.getName());
+            drainThread.setDaemon(true);
+            drainThread.start();
+        } else {
+            drainThread = null;
+        }
     }
 
     /**
@@ -78,7 +583,7 @@ public final class LogWriter implements AutoCloseable {
      * @return True when ready to write.
      */
     public boolean isReady() {
-        return writer != null;
+        return rowWriter != null;
     }
 
     /**
@@ -90,11 +595,72 @@ public final class LogWriter implements AutoCloseable {
         return initError;
     }
 
+    /**
+     * Returns true if rows are written on a background thread.
+     *
+     * @return True in async mode.
+     */
+    public boolean isAsync() {
+        return buffer != null;
+    }
+
+    /**
+     * Returns the number of rows dropped because the async queue was full or the logger was closed.
+     *
+     * @return Dropped row count (always 0 in synchronous mode).
+     */
+    public long getDroppedRowCount() {
+        return buffer == null ? 0 : buffer.droppedCount();
+    }
+
+    /**
+     * Returns the number of exceptions caught while writing rows or closing the file.
+     *
+     * @return Error count; details are shown by /logger/api/metrics.
+     */
+    public long getErrorCount() {
+        return rowWriter == null ? 0 : rowWriter.metrics().errors.sum();
+    }
+
+    /**
+     * Returns the number of rows waiting for the writer thread.
+     *
+     * @return Queued row count (always 0 in synchronous mode).
+     */
+    public int getQueuedRowCount() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    /**
+     * Declares a channel and returns its handle for {@link Row#set(int, double)}.
+     *
+     * Declaring the same name again returns the same handle.
+     *
+     * @param name Field name (must not be empty, "t", "tUnit" or "t_unit").
+     * @return Channel handle.
+     */
+    public int channel(String name) {
+        ChannelSchema.requireValidName(name);
+        return schema.idOf(name);
+    }
+
+    /**
+     * Creates a reusable row for the typed channel API.
+     *
+     * @param timeUnit Unit of the times passed to {@link Row#commit(double)}:
+     *                 SECONDS, MILLISECONDS or NANOSECONDS.
+     * @return New row.
+     */
+    public Row newRow(TimeUnit timeUnit) {
+        return new Row(this, unitName(timeUnit));
+    }
+
     /**
      * Logs a row with time in seconds and key/value pairs.
      *
      * @param tSeconds Time in seconds.
-     * @param keyValuePairs Alternating key/value entries (String, Number).
+     * @param keyValuePairs Alternating key/value entries (String, Number); pairs with
+     *                      other types or a reserved key ("t", "tUnit", "t_unit") are skipped.
      */
     public void logSeconds(double tSeconds, Object... keyValuePairs) {
         logKVWithUnit(tSeconds, "s", keyValuePairs);
@@ -104,7 +670,8 @@ public final class LogWriter implements AutoCloseable {
      * Logs a row with time in milliseconds and key/value pairs.
      *
      * @param tMillis Time in milliseconds.
-     * @param keyValuePairs Alternating key/value entries (String, Number).
+     * @param keyValuePairs Alternating key/value entries (String, Number); pairs with
+     *                      other types or a reserved key ("t", "tUnit", "t_unit") are skipped.
      */
     public void logMilliseconds(double tMillis, Object... keyValuePairs) {
         logKVWithUnit(tMillis, "ms", keyValuePairs);
@@ -114,123 +681,214 @@ public final class LogWriter implements AutoCloseable {
      * Logs a row with time in nanoseconds and key/value pairs.
      *
      * @param tNanos Time in nanoseconds.
-     * @param keyValuePairs Alternating key/value entries (String, Number).
+     * @param keyValuePairs Alternating key/value entries (String, Number); pairs with
+     *                      other types or a reserved key ("t", "tUnit", "t_unit") are skipped.
      */
     public void logNanoseconds(double tNanos, Object... keyValuePairs) {
         logKVWithUnit(tNanos, "ns", keyValuePairs);
     }
 
     /**
-     * Writes a JSON row with a time value and numeric fields.
+     * Writes (or, in async mode, queues) a row with a time value and numeric fields.
      *
      * @param t Time in units matching {@code unit}.
      * @param unit Time unit string.
      * @param keyValuePairs Alternating key/value entries (String, Number).
      */
-    private synchronized void logKVWithUnit(double t, String unit, Object... keyValuePairs) {
-        try {
-            if (writer == null) return;
-            ensureUnit(unit);
-            JSONObject o = new JSONObject();
-            o.put("t", t);
-            for (int i = 0; i + 1 < keyValuePairs.length; i += 2) {
-                Object k = keyValuePairs[i];
-                Object v = keyValuePairs[i + 1];
-                if (!(k instanceof String)) continue;
-                if (!(v instanceof Number)) continue;
-                o.put((String) k, ((Number) v).doubleValue());
-            }
-            writer.write(o.toString());
-            writer.write("\n");
-            writer.flush();
-        } catch (Exception ignored) { }
+    private void logKVWithUnit(double t, String unit, Object... keyValuePairs) {
+        if (rowWriter == null) return;
+        if (merge != null) {
+            MergeQueue.Producer producer = merge.producer();
+            producer.offer(t, unit, keyValuePairs, schema, loopDt(producer, unit));
+            return;
+        }
+        double loopDt = loopDt(unit);
+        if (queue != null) {
+            queue.offer(t, unit, keyValuePairs, schema, loopDt);
+            return;
+        }
+        synchronized (this) {
+            scratch.set(t, unit, keyValuePairs, schema);
+            writeScratch(loopDt);
+        }
     }
 
     /**
-     * Writes the time unit header once per file.
+     * Writes (or, in async mode, queues) the fields set on a {@link Row}.
      *
+     * @param t Time in units matching {@code unit}.
      * @param unit Time unit string.
+     * @param row Source row.
      */
-    private void ensureUnit(String unit) {
-        if (tUnit != null) return;
-        if (writer == null) return;
-        tUnit = unit;
-        try {
-            JSONObject header = new JSONObject();
-            header.put("tUnit", unit);
-            writer.write(header.toString());
-            writer.write("\n");
-            writer.flush();
-        } catch (Exception ignored) { }
-    }
-
-    /**
-     * Determines the next run number string for the OpMode folder.
-     *
-     * @param opDir OpMode directory.
-     * @return Next run id, zero-padded.
-     */
-    private static String nextRunId(File opDir) {
-        int max = -1;
-        int width = 4;
-        File[] children = opDir.listFiles();
-        if (children != null) {
-            for (File f : children) {
-                if (!f.isFile()) continue;
-                String name = f.getName();
-                if (name.endsWith(".jsonl")) name = name.substring(0, name.length() - 6);
-                if (!name.matches("\\d+")) continue;
-                try {
-                    int v = Integer.parseInt(name);
-                    if (v > max) max = v;
-                    if (name.length() > width) width = name.length();
-                } catch (NumberFormatException ignored) { }
-            }
+    private void logRow(double t, String unit, Row row) {
+        if (rowWriter == null) return;
+        if (merge != null) {
+            MergeQueue.Producer producer = merge.producer();
+            producer.offer(t, unit, row, loopDt(producer, unit));
+            return;
         }
-
-        int next = Math.max(1, max + 1);
-        if (next >= Math.pow(10, width)) {
-            int newWidth = width + 1;
-            zeroPadRunFiles(opDir, newWidth);
-            width = newWidth;
+        double loopDt = loopDt(unit);
+        if (queue != null) {
+            queue.offer(t, unit, row, loopDt);
+            return;
+        }
+        synchronized (this) {
+            scratch.set(t, unit, row);
+            writeScratch(loopDt);
         }
+    }
 
-        return String.format(Locale.US, "%0" + width + "d", next);
+    /**
+     * Records the time since the previous log call, if loop timing is on.
+     *
+     * @param unit Time unit of the row being logged.
+     * @return Interval in {@code unit}, or NaN for the first call or with loop timing off.
+     */
+    private double loopDt(String unit) {
+        if (loopChannel < 0) return Double.NaN;
+        long now = System.nanoTime();
+        return interval(lastLogNanos.getAndSet(now), now, unit, true);
     }
 
     /**
-     * Renames existing run files to a wider zero-padded width.
+     * Records the time since the producing thread's previous log call, if loop timing is on.
      *
-     * @param opDir OpMode directory.
-     * @param newWidth New width for numeric run ids.
+     * @param producer Buffer of the calling thread.
+     * @param unit Time unit of the row being logged.
+     * @return Interval in {@code unit}, or NaN for the thread's first call or with loop timing off.
      */
-    private static void zeroPadRunFiles(File opDir, int newWidth) {
-        File[] children = opDir.listFiles();
-        if (children == null) return;
-        for (File f : children) {
-            if (!f.isFile()) continue;
-            String name = f.getName();
-            if (!name.endsWith(".jsonl")) continue;
-            String base = name.substring(0, name.length() - 6);
-            if (!base.matches("\\d+")) continue;
-            try {
-                int v = Integer.parseInt(base);
-                String padded = String.format(Locale.US, "%0" + newWidth + "d", v) + ".jsonl";
-                if (padded.equals(name)) continue;
-                File dst = new File(opDir, padded);
-                //noinspection ResultOfMethodCallIgnored
-                f.renameTo(dst);
-            } catch (NumberFormatException ignored) { }
+    private double loopDt(MergeQueue.Producer producer, String unit) {
+        if (loopChannel < 0) return Double.NaN;
+        long now = System.nanoTime();
+        long last = producer.lastLogNanos;
+        producer.lastLogNanos = now;
+        return interval(last, now, unit, producer.id == 0);
+    }
+
+    /**
+     * Converts a loop interval to the row's unit.
+     *
+     * @param last Time of the previous call, or {@link #NO_LOG_CALL}.
+     * @param now Time of this call.
+     * @param unit Time unit of the row being logged.
+     * @param record True to add the interval to the loop histogram.
+     * @return Interval in {@code unit}, or NaN without a previous call.
+     */
+    private double interval(long last, long now, String unit, boolean record) {
+        if (last == NO_LOG_CALL) return Double.NaN;
+        long dt = now - last;
+        if (record) rowWriter.metrics().loopNanos.record(dt);
+        if (unit.equals("s")) return dt / 1e9;
+        if (unit.equals("ms")) return dt / 1e6;
+        return dt;
+    }
+
+    /**
+     * Writes {@link #scratch} and commits it as the durability mode asks. Caller holds the monitor.
+     *
+     * @param loopDt Value of {@link #LOOP_DT_CHANNEL}, or NaN for none.
+     */
+    private void writeScratch(double loopDt) {
+        if (!Double.isNaN(loopDt)) scratch.put(loopChannel, loopDt);
+        try {
+            rowWriter.write(scratch);
+            rowWriter.maintain();
+        } catch (Exception e) {
+            rowWriter.metrics().error(e);
         }
     }
 
+    /**
+     * Maps a time unit to the header string used in run files.
+     *
+     * @param timeUnit Time unit.
+     * @return "s", "ms" or "ns".
+     */
+    private static String unitName(TimeUnit timeUnit) {
+        if (timeUnit == TimeUnit.SECONDS) return "s";
+        if (timeUnit == TimeUnit.MILLISECONDS) return "ms";
+        if (timeUnit == TimeUnit.NANOSECONDS) return "ns";
+        throw new IllegalArgumentException("Unsupported time unit: " + timeUnit);
+    }
+
     /**
      * Closes the underlying file writer.
+     *
+     * In async mode, rows already queued are written before the file is closed.
      */
     @Override
-    public synchronized void close() {
-        try {
-            if (writer != null) writer.close();
-        } catch (Exception ignored) { }
+    public void close() {
+        if (rowWriter == null) return;
+        if (buffer != null) {
+            buffer.close();
+            try {
+                drainThread.join();
+            } catch (InterruptedException e) {
+                // The writer thread still finishes and closes the file on its own.
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        synchronized (this) {
+            try {
+                rowWriter.close();
+            } catch (Exception e) {
+                rowWriter.metrics().error(e);
+            }
+        }
+    }
+
+    /**
+     * Background loop for async mode: writes queued rows in batches and commits
+     * them as the durability mode asks, also while no rows arrive.
+     *
+     * Holds the logger weakly so an OpMode that never calls {@link #close()} does not
+     * leave the thread and file open forever.
+     */
+    private static final class Drainer implements Runnable {
+        private final WeakReference<LogWriter> owner;
+        private final RowBuffer queue;
+        private final RowWriter rowWriter;
+        private final long pollMs;
+
+        Drainer(LogWriter owner, RowBuffer queue, RowWriter rowWriter, long pollMs) {
+            this.owner = new WeakReference<>(owner);
+            this.queue = queue;
+            this.rowWriter = rowWriter;
+            this.pollMs = pollMs;
+        }
+
+        @Override
+        public void run() {
+            LogRow[] batch = new LogRow[queue.capacity()];
+            for (int i = 0; i < batch.length; i++) batch[i] = new LogRow();
+            try {
+                while (true) {
+                    int n = queue.drainTo(batch, pollMs);
+                    if (n < 0) break;
+                    for (int i = 0; i < n; i++) {
+                        try {
+                            rowWriter.write(batch[i]);
+                        } catch (Exception e) {
+                            rowWriter.metrics().error(e);
+                        }
+                    }
+                    try {
+                        rowWriter.maintain();
+                    } catch (Exception e) {
+                        rowWriter.metrics().error(e);
+                    }
+                    if (n == 0 && owner.get() == null) break;
+                }
+            } catch (InterruptedException ignored) {
+                // Fall through and close the file.
+            } finally {
+                try {
+                    rowWriter.close();
+                } catch (Exception e) {
+                    rowWriter.metrics().error(e);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,230 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loop timing summary of a run: a histogram of the intervals between
+ * consecutive log calls (see {@link LogWriter.Options#loopTiming}), written
+ * after the last row when the run is closed.
+ *
+ * In JSONL runs it is the last line, which readers skip because it has no "t":
+ *   {"loopTiming":{"count":N,"sum":NS,"max":NS,"buckets":[[INDEX,COUNT],...]}}
+ * In .flog runs it is a trailing record, at which readers stop like at any
+ * unknown tag:
+ *   'L' u64 count, u64 sum (ns), u64 max (ns), u16 bucket count K,
+ *       K x (u16 bucket index, u64 count), u32 record length (from the 'L'
+ *       tag to the end of the record), u32 "LEND"
+ * Either is found by reading only the end of the file. Bucket indices are
+ * those of {@link LatencyHistogram}; only non-empty buckets are stored.
+ */
+final class LoopTiming {
+
+    static final String JSONL_KEY = "loopTiming";
+    static final byte TAG = 'L';
+    /** "LEND" read as a little-endian u32. */
+    static final int END = 0x444E454C;
+
+    /** Most bytes at the end of a JSONL run searched for the trailer line. */
+    private static final int MAX_JSONL_TRAILER = 16 * 1024;
+    private static final byte[] JSONL_PREFIX = ("{\"" + JSONL_KEY + "\":").getBytes(StandardCharsets.UTF_8);
+
+    final long count;
+    final long sum;
+    final long max;
+    /** Count per {@link LatencyHistogram} bucket. */
+    final long[] buckets;
+
+    private LoopTiming(long sum, long max, long[] buckets) {
+        long n = 0;
+        for (long c : buckets) n += c;
+        this.count = n;
+        this.sum = sum;
+        this.max = max;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Takes a snapshot of a histogram.
+     *
+     * @param h Histogram of loop intervals.
+     * @return Summary.
+     */
+    static LoopTiming of(LatencyHistogram h) {
+        return new LoopTiming(h.sum(), h.max(), h.counts());
+    }
+
+    /**
+     * Returns an upper bound for a percentile of the intervals.
+     *
+     * @param p Percentile, 0 to 100.
+     * @return Nanoseconds; 0 when empty.
+     */
+    long percentile(double p) {
+        return LatencyHistogram.percentile(buckets, max, p);
+    }
+
+    /**
+     * Returns the summary for the API: count, mean, p50, p90, p99 and max in
+     * nanoseconds, and the non-empty buckets as {@code [upperEdgeNs, count]}.
+     *
+     * @return JSON object.
+     */
+    JSONObject toJson() throws JSONException {
+        JSONArray histogram = new JSONArray();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] > 0) histogram.put(new JSONArray().put(LatencyHistogram.upperEdge(i)).put(buckets[i]));
+        }
+        return new JSONObject()
+                .put("count", count)
+                .put("mean", count == 0 ? 0 : (double) sum / count)
+                .put("p50", percentile(50))
+                .put("p90", percentile(90))
+                .put("p99", percentile(99))
+                .put("max", max)
+                .put("buckets", histogram);
+    }
+
+    /**
+     * Appends the JSONL trailer line.
+     *
+     * @param out Encoder buffer.
+     */
+    void writeJsonl(JsonBytes out) {
+        out.writeBytes(JSONL_PREFIX);
+        out.writeBytes("{\"count\":".getBytes(StandardCharsets.US_ASCII));
+        out.writeLong(count);
+        out.writeBytes(",\"sum\":".getBytes(StandardCharsets.US_ASCII));
+        out.writeLong(sum);
+        out.writeBytes(",\"max\":".getBytes(StandardCharsets.US_ASCII));
+        out.writeLong(max);
+        out.writeBytes(",\"buckets\":[".getBytes(StandardCharsets.US_ASCII));
+        boolean first = true;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] == 0) continue;
+            if (!first) out.writeByte(',');
+            first = false;
+            out.writeByte('[');
+            out.writeLong(i);
+            out.writeByte(',');
+            out.writeLong(buckets[i]);
+            out.writeByte(']');
+        }
+        out.writeBytes("]}}\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns the .flog trailer record.
+     *
+     * @return Record bytes, from the tag to "LEND".
+     */
+    byte[] flogRecord() {
+        int k = 0;
+        for (long c : buckets) if (c > 0) k++;
+        ByteBuffer b = ByteBuffer.allocate(1 + 8 * 3 + 2 + k * 10 + 8).order(ByteOrder.LITTLE_ENDIAN);
+        b.put(TAG).putLong(count).putLong(sum).putLong(max).putShort((short) k);
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] > 0) b.putShort((short) i).putLong(buckets[i]);
+        }
+        b.putInt(b.capacity()).putInt(END);
+        return b.array();
+    }
+
+    /**
+     * Reads the loop timing trailer of a finished run.
+     *
+     * @param run Run file.
+     * @return Summary, or null if the run has none (loop timing was off, or the run was not closed).
+     */
+    static LoopTiming read(File run) throws IOException {
+        if (FileSystemUtilities.isCompressed(run)) return readCompressed(run);
+        if (run.getName().endsWith(FileSystemUtilities.FLOG_EXTENSION)) return readFlog(run);
+        return readJsonl(run);
+    }
+
+    private static LoopTiming readFlog(File run) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(run, "r")) {
+            long length = raf.length();
+            if (length < 8) return null;
+            byte[] foot = new byte[8];
+            raf.seek(length - 8);
+            raf.readFully(foot);
+            ByteBuffer f = ByteBuffer.wrap(foot).order(ByteOrder.LITTLE_ENDIAN);
+            int recordLength = f.getInt();
+            if (f.getInt() != END || recordLength < 1 + 8 * 3 + 2 + 8 || recordLength > length) return null;
+            byte[] record = new byte[recordLength];
+            raf.seek(length - recordLength);
+            raf.readFully(record);
+            ByteBuffer b = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+            if (b.get() != TAG) return null;
+            b.getLong(); // count, recomputed from the buckets
+            long sum = b.getLong();
+            long max = b.getLong();
+            int k = b.getShort() & 0xFFFF;
+            if (recordLength != 1 + 8 * 3 + 2 + k * 10 + 8) return null;
+            long[] buckets = new long[LatencyHistogram.BUCKETS];
+            for (int i = 0; i < k; i++) {
+                int index = b.getShort() & 0xFFFF;
+                long c = b.getLong();
+                if (index >= buckets.length || c < 0) return null;
+                buckets[index] = c;
+            }
+            return new LoopTiming(sum, max, buckets);
+        }
+    }
+
+    private static LoopTiming readJsonl(File run) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(run, "r")) {
+            long length = raf.length();
+            int n = (int) Math.min(length, MAX_JSONL_TRAILER);
+            byte[] tail = new byte[n];
+            raf.seek(length - n);
+            raf.readFully(tail);
+            int end = n;
+            while (end > 0 && (tail[end - 1] == '\n' || tail[end - 1] == '\r')) end--;
+            int start = end;
+            while (start > 0 && tail[start - 1] != '\n') start--;
+            if (start == 0 && n < length) return null;
+            return parseLine(new String(tail, start, end - start, StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Archived runs cannot be read from the end, so the whole run is scanned. */
+    private static LoopTiming readCompressed(File run) throws IOException {
+        String last = null;
+        try (InputStream in = RunReader.open(run)) {
+            LineScanner lines = new LineScanner(new BufferedInputStream(in, 64 * 1024), 0, Long.MAX_VALUE);
+            String line;
+            while ((line = lines.next()) != null) last = line;
+        }
+        return last == null ? null : parseLine(last);
+    }
+
+    private static LoopTiming parseLine(String line) {
+        if (!line.startsWith("{\"" + JSONL_KEY + "\"")) return null;
+        try {
+            JSONObject o = new JSONObject(line).getJSONObject(JSONL_KEY);
+            long[] buckets = new long[LatencyHistogram.BUCKETS];
+            JSONArray list = o.getJSONArray("buckets");
+            for (int i = 0; i < list.length(); i++) {
+                JSONArray pair = list.getJSONArray(i);
+                int index = pair.getInt(0);
+                if (index < 0 || index >= buckets.length) return null;
+                buckets[index] = pair.getLong(1);
+            }
+            return new LoopTiming(o.getLong("sum"), o.getLong("max"), buckets);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+}
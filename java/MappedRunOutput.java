@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a run file through a memory mapping.
+ *
+ * The file is extended {@value #CHUNK_BYTES} bytes at a time and each chunk is
+ * mapped once, so a flush is a copy into the page cache rather than a system
+ * call. The pages belong to the kernel, so written rows survive the app being
+ * killed just as with a write call. {@link #close()} truncates the file to the
+ * bytes actually written. A run that is never closed keeps the zero-filled
+ * rest of its last chunk, which readers skip.
+ *
+ * While the run is open its file is longer than its data; readers get the
+ * written length from {@link ActiveRuns#length(File)}.
+ */
+final class MappedRunOutput implements RunOutput {
+
+    /** Bytes mapped (and preallocated) at a time. */
+    static final int CHUNK_BYTES = 1024 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+    private long mapStart;
+    private long written;
+
+    /**
+     * Opens a run file and maps its first chunk after any existing bytes.
+     *
+     * @param runFile Run file.
+     */
+    MappedRunOutput(File runFile) throws IOException {
+        this.file = new RandomAccessFile(runFile, "rw");
+        this.channel = file.getChannel();
+        try {
+            written = channel.size();
+            mapStart = written;
+            map = channel.map(FileChannel.MapMode.READ_WRITE, mapStart, CHUNK_BYTES);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) throws IOException {
+        while (len > 0) {
+            if (!map.hasRemaining()) {
+                mapStart += CHUNK_BYTES;
+                map = channel.map(FileChannel.MapMode.READ_WRITE, mapStart, CHUNK_BYTES);
+            }
+            int n = Math.min(len, map.remaining());
+            map.put(buf, off, n);
+            off += n;
+            len -= n;
+            written += n;
+        }
+    }
+
+    @Override
+    public void force() throws IOException {
+        map.force();
+        // Earlier chunks are no longer referenced; fsync writes out their dirty pages.
+        if (mapStart > 0) channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            map = null;
+            channel.truncate(written);
+        } finally {
+            file.close();
+        }
+    }
+}
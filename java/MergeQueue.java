@@ -0,0 +1,376 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rows from several logging threads, merged into time order for the writer
+ * thread (see {@link LogWriter.Options#multiProducer}).
+ *
+ * Every thread that logs gets its own {@link Producer}: a bounded
+ * single-producer, single-consumer ring of preallocated rows. A producer only
+ * writes its ring's tail and the consumer only its head, so logging takes no
+ * lock and one thread never waits for another. Each row is tagged with the
+ * producer's source id.
+ *
+ * {@link #drainTo} is a k-way merge over the rings: it repeatedly takes the
+ * waiting row with the smallest t. A row is only handed out once every other
+ * ring has a row waiting, or once it has waited the merge window, so a row
+ * that another thread logs a little later, with an earlier t, is still put
+ * first. Rows are in order as long as no thread logs a row more than the
+ * merge window after the rows logged by other threads with later times. With
+ * {@link LogWriter.OverflowPolicy#BLOCK} a row counts as logged once it gets a
+ * slot, so a producer held up by a full ring can fall up to a window behind.
+ */
+final class MergeQueue implements RowBuffer {
+
+    /** How long a producer sleeps between checks for a free slot with {@link LogWriter.OverflowPolicy#BLOCK}. */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final int capacity;
+    private final LogWriter.OverflowPolicy policy;
+    private final int loopChannel;
+    private final int sourceChannel;
+    private final long windowNanos;
+    private final ThreadLocal<Producer> local = new ThreadLocal<>();
+
+    private volatile Producer[] producers = new Producer[0];
+    private volatile boolean closed;
+    private volatile Thread consumer;
+    /** Set while the consumer is parked waiting for rows, so producers know to wake it. */
+    private volatile boolean sleeping;
+
+    /**
+     * Creates a queue with one ring per logging thread.
+     *
+     * @param capacity Rows per ring.
+     * @param policy What to do when a row arrives and its ring is full;
+     *               {@link LogWriter.OverflowPolicy#DROP_OLDEST} drops the new row,
+     *               since only the consumer may move a ring's head.
+     * @param loopChannel Channel of {@link LogWriter#LOOP_DT_CHANNEL}, or -1 if loop timing is off.
+     * @param sourceChannel Channel of {@link LogWriter#SOURCE_CHANNEL}.
+     * @param windowNanos Longest a row is held back waiting for other threads' rows.
+     */
+    MergeQueue(int capacity, LogWriter.OverflowPolicy policy, int loopChannel, int sourceChannel, long windowNanos) {
+        if (capacity < 1) throw new IllegalArgumentException("Queue capacity must be positive");
+        this.capacity = capacity;
+        this.policy = policy;
+        this.loopChannel = loopChannel;
+        this.sourceChannel = sourceChannel;
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Returns the calling thread's producer, creating it on the thread's first call.
+     *
+     * @return Producer owned by the calling thread.
+     */
+    Producer producer() {
+        Producer p = local.get();
+        if (p == null) {
+            p = register(Thread.currentThread().getName());
+            local.set(p);
+        }
+        return p;
+    }
+
+    private synchronized Producer register(String name) {
+        Producer[] next = Arrays.copyOf(producers, producers.length + 1);
+        Producer p = new Producer(next.length - 1, name);
+        next[p.id] = p;
+        producers = next;
+        return p;
+    }
+
+    /**
+     * Returns the producers registered so far, in source id order.
+     *
+     * @return Producers; not to be modified.
+     */
+    Producer[] producers() {
+        return producers;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int drainTo(LogRow[] out, long timeoutMs) throws InterruptedException {
+        if (consumer == null) consumer = Thread.currentThread();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            boolean done = closed;
+            Producer[] ps = producers;
+            long now = System.nanoTime();
+            int n = 0;
+            long held = Long.MAX_VALUE;
+            while (n < out.length) {
+                Producer next = null;
+                boolean waitingAll = true;
+                for (Producer p : ps) {
+                    if (p.head == p.tail.get()) {
+                        waitingAll = false;
+                        continue;
+                    }
+                    if (next == null || p.headT() < next.headT()
+                            || (p.headT() == next.headT() && p.headNanos() < next.headNanos())) {
+                        next = p;
+                    }
+                }
+                if (next == null) break;
+                long age = now - next.headNanos();
+                if (!done && !waitingAll && age < windowNanos) {
+                    held = windowNanos - age;
+                    break;
+                }
+                out[n] = next.take(out[n]);
+                n++;
+            }
+            if (n > 0) return n;
+            if (done && drained()) return -1;
+            long remaining = deadline - now;
+            if (remaining <= 0) return 0;
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (done) {
+                // A producer is still finishing a row it took before the close.
+                Thread.yield();
+                continue;
+            }
+            sleeping = true;
+            // Re-check after publishing the flag: a producer that added a row
+            // before seeing it set did not wake us. Held rows wake us when
+            // their window ends.
+            if ((held != Long.MAX_VALUE || isEmpty(producers)) && !closed) {
+                LockSupport.parkNanos(this, Math.min(remaining, held));
+            }
+            sleeping = false;
+        }
+    }
+
+    /**
+     * Returns true once the queue is closed for good: no producer is in the
+     * middle of an offer and every ring is empty. Producers set
+     * {@link Producer#busy} before they check {@link #closed}, so after the
+     * close an offer either sees it and drops its row, or is seen here.
+     */
+    private boolean drained() {
+        Producer[] ps = producers;
+        for (Producer p : ps) {
+            if (p.busy) return false;
+        }
+        return isEmpty(ps);
+    }
+
+    private static boolean isEmpty(Producer[] ps) {
+        for (Producer p : ps) {
+            if (p.head != p.tail.get()) return false;
+        }
+        return true;
+    }
+
+    private void wakeConsumer() {
+        if (!sleeping) return;
+        sleeping = false;
+        Thread c = consumer;
+        if (c != null) LockSupport.unpark(c);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread c = consumer;
+        if (c != null) LockSupport.unpark(c);
+    }
+
+    @Override
+    public long droppedCount() {
+        long n = 0;
+        for (Producer p : producers) n += p.dropped;
+        return n;
+    }
+
+    @Override
+    public int highWater() {
+        int n = 0;
+        for (Producer p : producers) n = Math.max(n, p.highWater);
+        return n;
+    }
+
+    @Override
+    public int size() {
+        int n = 0;
+        for (Producer p : producers) n += p.size();
+        return n;
+    }
+
+    /**
+     * One logging thread's ring. Only the owning thread calls {@link #offer};
+     * only the consumer moves {@link #head}.
+     */
+    final class Producer {
+        /** Source id written to {@link LogWriter#SOURCE_CHANNEL}, in order of each thread's first call to {@link #producer()}. */
+        final int id;
+        final String name;
+        /** Time of this thread's previous log call, for loop timing; owned by the producing thread. */
+        long lastLogNanos = Long.MIN_VALUE;
+
+        private final LogRow[] ring = new LogRow[capacity];
+        private final long[] queuedNanos = new long[capacity];
+        /** Next slot to fill; written by the producer only. */
+        private final AtomicLong tail = new AtomicLong();
+        /** Next slot to hand out; written by the consumer only. */
+        private volatile long head;
+        private volatile long dropped;
+        private volatile int highWater;
+        private volatile long rows;
+        /** Set while an offer is in progress, so the consumer does not finish under it after a close. */
+        private volatile boolean busy;
+
+        private Producer(int id, String name) {
+            this.id = id;
+            this.name = name;
+            for (int i = 0; i < capacity; i++) ring[i] = new LogRow();
+        }
+
+        /**
+         * Enqueues a row built from alternating key/value entries.
+         *
+         * @param t Time in units matching {@code unit}.
+         * @param unit Time unit string.
+         * @param keyValuePairs Alternating key/value entries (String, Number).
+         * @param schema Schema used to resolve key names.
+         * @param loopDt Loop interval to add to the row, or NaN for none.
+         * @return True if the row was queued, false if it was dropped.
+         */
+        boolean offer(double t, String unit, Object[] keyValuePairs, ChannelSchema schema, double loopDt) {
+            busy = true;
+            try {
+                LogRow slot = awaitSlot();
+                if (slot == null) return false;
+                slot.set(t, unit, keyValuePairs, schema);
+                return publish(slot, loopDt);
+            } finally {
+                busy = false;
+            }
+        }
+
+        /**
+         * Enqueues a copy of the fields set on a {@link LogWriter.Row}.
+         *
+         * @param t Time in units matching {@code unit}.
+         * @param unit Time unit string.
+         * @param row Source row.
+         * @param loopDt Loop interval to add to the row, or NaN for none.
+         * @return True if the row was queued, false if it was dropped.
+         */
+        boolean offer(double t, String unit, LogWriter.Row row, double loopDt) {
+            busy = true;
+            try {
+                LogRow slot = awaitSlot();
+                if (slot == null) return false;
+                slot.set(t, unit, row);
+                return publish(slot, loopDt);
+            } finally {
+                busy = false;
+            }
+        }
+
+        /**
+         * Returns the tail slot once it is free, or null if the row is dropped.
+         */
+        private LogRow awaitSlot() {
+            long t = tail.get();
+            while (!closed && t - head >= capacity) {
+                if (policy != LogWriter.OverflowPolicy.BLOCK || Thread.currentThread().isInterrupted()) {
+                    dropped++;
+                    return null;
+                }
+                wakeConsumer();
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            }
+            if (closed) {
+                dropped++;
+                return null;
+            }
+            return ring[(int) (t % capacity)];
+        }
+
+        private boolean publish(LogRow slot, double loopDt) {
+            if (!Double.isNaN(loopDt)) slot.put(loopChannel, loopDt);
+            slot.put(sourceChannel, id);
+            long t = tail.get();
+            queuedNanos[(int) (t % capacity)] = System.nanoTime();
+            tail.set(t + 1);
+            rows++;
+            int depth = (int) (t + 1 - head);
+            if (depth > highWater) highWater = depth;
+            wakeConsumer();
+            return true;
+        }
+
+        /** Time of the oldest waiting row. Consumer only, with a row waiting. */
+        private double headT() {
+            return ring[(int) (head % capacity)].t;
+        }
+
+        /** When the oldest waiting row was queued. Consumer only, with a row waiting. */
+        private long headNanos() {
+            return queuedNanos[(int) (head % capacity)];
+        }
+
+        /**
+         * Hands out the oldest waiting row in exchange for a spare slot. Consumer only.
+         *
+         * @param spare Empty row to put in its place.
+         * @return The waiting row.
+         */
+        private LogRow take(LogRow spare) {
+            long h = head;
+            int idx = (int) (h % capacity);
+            LogRow row = ring[idx];
+            ring[idx] = spare;
+            head = h + 1;
+            return row;
+        }
+
+        /**
+         * Returns the number of rows waiting in this ring.
+         *
+         * @return Waiting row count.
+         */
+        int size() {
+            return (int) Math.max(0, tail.get() - head);
+        }
+
+        /**
+         * Returns the rows this thread logged.
+         *
+         * @return Rows queued, not counting dropped ones.
+         */
+        long rows() {
+            return rows;
+        }
+
+        /**
+         * Returns the rows dropped because this thread's ring was full or the logger was closed.
+         *
+         * @return Dropped row count.
+         */
+        long dropped() {
+            return dropped;
+        }
+
+        /**
+         * Returns the most rows that were ever waiting in this ring.
+         *
+         * @return High-water mark.
+         */
+        int highWater() {
+            return highWater;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide pool for parsing runs in parallel, with one thread per core.
+ *
+ * Shared by every request so concurrent comparisons cannot oversubscribe the
+ * Control Hub; idle threads exit after a minute. Threads are daemons and run
+ * at background priority so parsing never competes with the OpMode loop.
+ */
+final class ParseExecutor {
+
+    private static final ExecutorService POOL = create();
+
+    private ParseExecutor() { }
+
+    /**
+     * Returns the shared pool.
+     *
+     * @return Executor sized to the available processors.
+     */
+    static ExecutorService shared() {
+        return POOL;
+    }
+
+    private static ExecutorService create() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        final AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ftc-logger-parse-" + count.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        };
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), factory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,93 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * View of some of another {@link RunColumns}' series, with t optionally shifted.
+ *
+ * Series keep the source's order; names that the source does not have are
+ * ignored. Releasing the view releases the source.
+ */
+final class ProjectedColumns implements RunColumns {
+
+    private final RunColumns source;
+    private final int[] indexes;
+    private final double tOffset;
+
+    /**
+     * Creates a view over a subset of series.
+     *
+     * @param source Columns to project.
+     * @param names Series to keep, or null for all.
+     * @param tOffset Value subtracted from every t.
+     */
+    ProjectedColumns(RunColumns source, Collection<String> names, double tOffset) {
+        this.source = source;
+        this.tOffset = tOffset;
+        List<Integer> keep = new ArrayList<>();
+        for (int i = 0; i < source.seriesCount(); i++) {
+            if (names == null || names.contains(source.seriesName(i))) keep.add(i);
+        }
+        this.indexes = new int[keep.size()];
+        for (int i = 0; i < indexes.length; i++) indexes[i] = keep.get(i);
+    }
+
+    /**
+     * Returns the first t of a run, or 0 if it has no rows.
+     *
+     * @param columns Run columns.
+     * @return First t value.
+     */
+    static double firstT(RunColumns columns) throws IOException {
+        if (columns.rowCount() == 0) return 0;
+        try (Cursor t = columns.open(T)) {
+            return t.next();
+        }
+    }
+
+    @Override
+    public String timeUnit() {
+        return source.timeUnit();
+    }
+
+    @Override
+    public long rowCount() {
+        return source.rowCount();
+    }
+
+    @Override
+    public int seriesCount() {
+        return indexes.length;
+    }
+
+    @Override
+    public String seriesName(int index) {
+        return source.seriesName(indexes[index]);
+    }
+
+    @Override
+    public Cursor open(int index) throws IOException {
+        if (index != T) return source.open(indexes[index]);
+        final Cursor t = source.open(T);
+        if (tOffset == 0) return t;
+        return new Cursor() {
+            @Override
+            public double next() throws IOException {
+                return t.next() - tOffset;
+            }
+
+            @Override
+            public void close() throws IOException {
+                t.close();
+            }
+        };
+    }
+
+    @Override
+    public void release() {
+        source.release();
+    }
+}
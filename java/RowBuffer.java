@@ -0,0 +1,53 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+/**
+ * Rows waiting for the writer thread of an async {@link LogWriter}.
+ *
+ * {@link RowQueue} serves a single producer (or several taking turns on its
+ * lock); {@link MergeQueue} gives every logging thread its own ring and hands
+ * the rows out in time order.
+ */
+interface RowBuffer {
+
+    /**
+     * Returns how many rows one producer can have waiting.
+     *
+     * @return Capacity in rows.
+     */
+    int capacity();
+
+    /**
+     * Moves waiting rows into {@code out}, swapping slot objects instead of copying fields.
+     *
+     * @param out Spare slots owned by the consumer; at least {@link #capacity()} long.
+     * @param timeoutMs Maximum time to wait when no row is ready.
+     * @return Number of rows moved, or -1 once the buffer is closed and empty.
+     */
+    int drainTo(LogRow[] out, long timeoutMs) throws InterruptedException;
+
+    /**
+     * Stops accepting rows. Rows already waiting remain available to {@link #drainTo}.
+     */
+    void close();
+
+    /**
+     * Returns the number of rows dropped because the buffer was full or closed.
+     *
+     * @return Dropped row count.
+     */
+    long droppedCount();
+
+    /**
+     * Returns the most rows that were ever waiting at once.
+     *
+     * @return High-water mark.
+     */
+    int highWater();
+
+    /**
+     * Returns the number of rows waiting to be written.
+     *
+     * @return Waiting row count.
+     */
+    int size();
+}
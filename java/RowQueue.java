@@ -0,0 +1,203 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring buffer of preallocated rows between the OpMode loop and the writer thread.
+ *
+ * Producers copy their fields into a ring slot; the consumer swaps filled slots
+ * with its own spare slots, so neither side allocates per row and the lock is
+ * only held for a copy or a handful of reference swaps.
+ */
+final class RowQueue implements RowBuffer {
+
+    private final LogRow[] ring;
+    private final LogWriter.OverflowPolicy policy;
+    private final int loopChannel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private int head;
+    private int count;
+    private boolean closed;
+    private long dropped;
+    private int highWater;
+
+    /**
+     * Creates a queue with the given number of slots.
+     *
+     * @param capacity Maximum number of queued rows.
+     * @param policy What to do when a row arrives and the queue is full.
+     * @param loopChannel Channel of {@link LogWriter#LOOP_DT_CHANNEL}, or -1 if loop timing is off.
+     */
+    RowQueue(int capacity, LogWriter.OverflowPolicy policy, int loopChannel) {
+        if (capacity < 1) throw new IllegalArgumentException("Queue capacity must be positive");
+        this.ring = new LogRow[capacity];
+        for (int i = 0; i < capacity; i++) ring[i] = new LogRow();
+        this.policy = policy;
+        this.loopChannel = loopChannel;
+    }
+
+    @Override
+    public int capacity() {
+        return ring.length;
+    }
+
+    /**
+     * Enqueues a row built from alternating key/value entries.
+     *
+     * @param t Time in units matching {@code unit}.
+     * @param unit Time unit string.
+     * @param keyValuePairs Alternating key/value entries (String, Number).
+     * @param schema Schema used to resolve key names.
+     * @param loopDt Loop interval to add to the row, or NaN for none.
+     * @return True if the row was queued, false if it was dropped.
+     */
+    boolean offer(double t, String unit, Object[] keyValuePairs, ChannelSchema schema, double loopDt) {
+        lock.lock();
+        try {
+            if (!awaitSlot()) return false;
+            LogRow slot = ring[(head + count) % ring.length];
+            slot.set(t, unit, keyValuePairs, schema);
+            if (!Double.isNaN(loopDt)) slot.put(loopChannel, loopDt);
+            if (++count > highWater) highWater = count;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enqueues a copy of the fields set on a {@link LogWriter.Row}.
+     *
+     * @param t Time in units matching {@code unit}.
+     * @param unit Time unit string.
+     * @param row Source row.
+     * @param loopDt Loop interval to add to the row, or NaN for none.
+     * @return True if the row was queued, false if it was dropped.
+     */
+    boolean offer(double t, String unit, LogWriter.Row row, double loopDt) {
+        lock.lock();
+        try {
+            if (!awaitSlot()) return false;
+            LogRow slot = ring[(head + count) % ring.length];
+            slot.set(t, unit, row);
+            if (!Double.isNaN(loopDt)) slot.put(loopChannel, loopDt);
+            if (++count > highWater) highWater = count;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes room for one more row according to the overflow policy. Caller holds the lock.
+     *
+     * @return True if a free slot is available at the tail.
+     */
+    private boolean awaitSlot() {
+        if (closed) {
+            dropped++;
+            return false;
+        }
+        if (count < ring.length) return true;
+        switch (policy) {
+            case DROP_NEWEST:
+                dropped++;
+                return false;
+            case BLOCK:
+                try {
+                    while (count == ring.length && !closed) notFull.await();
+                } catch (InterruptedException e) {
+                    // OpMode stop interrupts the loop thread; give up on this row.
+                    Thread.currentThread().interrupt();
+                    dropped++;
+                    return false;
+                }
+                if (closed) {
+                    dropped++;
+                    return false;
+                }
+                return true;
+            case DROP_OLDEST:
+            default:
+                head = (head + 1) % ring.length;
+                count--;
+                dropped++;
+                return true;
+        }
+    }
+
+    @Override
+    public int drainTo(LogRow[] out, long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (count == 0) {
+                if (closed) return -1;
+                if (nanos <= 0) return 0;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            int n = Math.min(count, out.length);
+            for (int i = 0; i < n; i++) {
+                int idx = (head + i) % ring.length;
+                LogRow filled = ring[idx];
+                ring[idx] = out[i];
+                out[i] = filled;
+            }
+            head = (head + n) % ring.length;
+            count -= n;
+            notFull.signalAll();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long droppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int highWater() {
+        lock.lock();
+        try {
+            return highWater;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Encodes rows into a run file.
+ *
+ * Rows are encoded by a {@link RunEncoder} into one reusable byte buffer that
+ * is handed to the {@link RunOutput} in a single write on {@link #flush()}, so
+ * steady-state logging does not allocate.
+ *
+ * When encoded rows move from that buffer to the file, and whether the file is
+ * then forced to storage, is set by {@link #durability}; {@link LogWriter}
+ * calls {@link #maintain()} after each row or batch to apply it.
+ *
+ * Rows, bytes, flushes and the time spent encoding, writing and forcing are
+ * recorded in the run's {@link WriterMetrics}.
+ *
+ * Not thread-safe: {@link LogWriter} calls it either under its own lock
+ * (synchronous mode) or only from the writer thread (async mode).
+ */
+final class RowWriter {
+
+    /** Buffered bytes that force a write even before the next flush. */
+    private static final int WRITE_THRESHOLD = 64 * 1024;
+
+    private final RunOutput out;
+    private final RunEncoder encoder;
+    private final File dir;
+    private final WriterMetrics metrics = new WriterMetrics();
+
+    /** Rows per commit, or 0 to write only when the buffer fills. */
+    private int commitRows = 1;
+    /** Longest a row may wait to reach the file, or 0 for no limit. */
+    private long commitDelayNanos;
+    /** Least time between forces to storage, or -1 to never force. */
+    private long syncIntervalNanos = -1;
+
+    private int pendingRows;
+    private boolean waiting;
+    private long oldestNanos;
+    private boolean unsynced;
+    private long lastSyncNanos = System.nanoTime();
+    private long written;
+    private boolean loopTrailer;
+    private boolean closed;
+    private ChannelPolicies policies;
+    private final ActiveRuns.Run live;
+    private String tUnit;
+
+    /**
+     * Takes over an opened run file and marks it active until {@link #close()}.
+     *
+     * @param runFile Run file to write.
+     * @param out Output opened on {@code runFile}.
+     * @param encoder Encoder for the run's file format.
+     */
+    RowWriter(File runFile, RunOutput out, RunEncoder encoder) {
+        this.out = out;
+        this.encoder = encoder;
+        this.live = ActiveRuns.register(runFile, metrics);
+        this.dir = runFile.getParentFile();
+        FsIndex.shared().invalidate(dir);
+        FsIndex.shared().invalidate(dir.getParentFile());
+    }
+
+    /**
+     * Sets when {@link #maintain()} commits rows to the file.
+     *
+     * @param commitRows Rows per commit, or 0 to write only when the buffer fills.
+     * @param commitDelayNanos Longest a row may wait to reach the file, or 0 for no limit.
+     * @param syncIntervalNanos Least time between forces to storage, or -1 to never force.
+     */
+    void durability(int commitRows, long commitDelayNanos, long syncIntervalNanos) {
+        this.commitRows = commitRows;
+        this.commitDelayNanos = commitDelayNanos;
+        this.syncIntervalNanos = syncIntervalNanos;
+    }
+
+    /**
+     * Makes {@link #close()} end the run with the loop timing summary
+     * recorded in {@link WriterMetrics#loopNanos}.
+     */
+    void loopTiming() {
+        loopTrailer = true;
+    }
+
+    /**
+     * Sets the channel policies that thin rows before they are encoded.
+     *
+     * @param policies Policies of the run.
+     */
+    void policies(ChannelPolicies policies) {
+        this.policies = policies;
+    }
+
+    /**
+     * Returns the metrics recorded for this run.
+     *
+     * @return Writer metrics.
+     */
+    WriterMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Encodes a row with a time value and numeric fields. With channel
+     * policies, fields they hold back are removed from {@code row} first, and
+     * a row left with no fields is skipped.
+     *
+     * @param row Row to write.
+     */
+    void write(LogRow row) throws IOException {
+        if (policies != null && !policies.apply(row)) return;
+        long start = System.nanoTime();
+        ensureUnit(row.unit);
+        encoder.row(row);
+        metrics.encodeNanos.record(System.nanoTime() - start);
+        metrics.rows.increment();
+        pendingRows++;
+        if (!waiting && commitDelayNanos > 0) {
+            waiting = true;
+            oldestNanos = System.nanoTime();
+        }
+        if (encoder.length() >= WRITE_THRESHOLD) flush();
+    }
+
+    /**
+     * Commits rows to the file once enough are waiting or the oldest has waited
+     * too long, then forces the file to storage if the sync interval has passed.
+     * A commit forced by the delay also writes rows the encoder still stages
+     * (a partial .flog block).
+     */
+    void maintain() throws IOException {
+        if (commitRows > 0) {
+            boolean late = waiting && System.nanoTime() - oldestNanos >= commitDelayNanos;
+            if (late || pendingRows >= commitRows) {
+                if (late && tUnit != null) encoder.finish();
+                flush();
+                pendingRows = 0;
+                waiting = waiting && encoder.hasStaged();
+            }
+        }
+        if (unsynced && System.nanoTime() - lastSyncNanos >= syncIntervalNanos) sync();
+    }
+
+    /**
+     * Encodes the time unit header once per file.
+     *
+     * @param unit Time unit string.
+     */
+    private void ensureUnit(String unit) {
+        if (tUnit != null) return;
+        tUnit = unit;
+        encoder.header(unit);
+    }
+
+    /**
+     * Pushes buffered rows to the file.
+     */
+    void flush() throws IOException {
+        if (encoder.length() == 0) return;
+        long start = System.nanoTime();
+        out.write(encoder.buffer(), 0, encoder.length());
+        metrics.writeNanos.record(System.nanoTime() - start);
+        metrics.flushes.increment();
+        metrics.bytes.add(encoder.length());
+        written += encoder.length();
+        encoder.clear();
+        live.changed(written);
+        if (syncIntervalNanos >= 0) unsynced = true;
+    }
+
+    /**
+     * Forces written bytes to storage.
+     */
+    private void sync() throws IOException {
+        long start = System.nanoTime();
+        out.force();
+        lastSyncNanos = System.nanoTime();
+        metrics.syncNanos.record(lastSyncNanos - start);
+        metrics.syncs.increment();
+        unsynced = false;
+    }
+
+    /**
+     * Writes anything the encoder still stages and the loop timing trailer,
+     * then closes the file. Later calls do nothing.
+     */
+    void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (tUnit != null) {
+                encoder.finish();
+                if (loopTrailer && metrics.loopNanos.count() > 0) {
+                    encoder.trailer(LoopTiming.of(metrics.loopNanos));
+                }
+            }
+            flush();
+            if (unsynced) sync();
+        } finally {
+            try {
+                out.close();
+            } finally {
+                metrics.closed();
+                ActiveRuns.unregister(live);
+                FsIndex.shared().invalidate(dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import android.content.Context;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Background archiver: gzips finished JSONL runs into {@code <RunNumber>.jsonl.gz}.
+ *
+ * A run is archived once it is older than {@link Options#maxAge}, or, oldest
+ * first, while all run files together exceed {@link Options#sizeBudget}.
+ * Archived runs stay readable through every API route; only .flog runs (which
+ * are already compact) and runs a {@link LogWriter} still has open are left
+ * alone, and nothing is ever deleted to meet the budget.
+ *
+ * The archiver runs on one low-priority daemon thread and never competes with
+ * an OpMode: a pass only starts while nothing is being logged, and a
+ * compression in progress is abandoned as soon as a run is opened.
+ *
+ * Each run is streamed into a temp file, synced, renamed into place, and only
+ * then is the original deleted, so a power cut leaves either the original or
+ * a complete archive. The archive keeps the original's modification time.
+ */
+public final class RunArchiver {
+
+    private static final String TAG = "RunArchiver";
+
+    /** Delay before the first pass, so startup is not slowed. */
+    private static final long FIRST_PASS_DELAY_MS = 60 * 1000L;
+
+    /** Time between passes. */
+    private static final long PASS_INTERVAL_MS = 15 * 60 * 1000L;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    /** Archive thresholds. */
+    public static final class Options {
+        private long maxAgeMs = TimeUnit.DAYS.toMillis(7);
+        private long sizeBudgetBytes = 256L * 1024 * 1024;
+
+        /**
+         * Sets the age after which a run is archived.
+         *
+         * @param age Age, or 0 to archive only for the size budget.
+         * @param unit Unit of {@code age}.
+         * @return These options.
+         */
+        public Options maxAge(long age, TimeUnit unit) {
+            if (age < 0) throw new IllegalArgumentException("Max age must not be negative");
+            this.maxAgeMs = unit.toMillis(age);
+            return this;
+        }
+
+        /**
+         * Sets how many bytes all run files may take before the oldest are archived.
+         *
+         * @param bytes Budget, or 0 to archive only by age.
+         * @return These options.
+         */
+        public Options sizeBudget(long bytes) {
+            if (bytes < 0) throw new IllegalArgumentException("Size budget must not be negative");
+            this.sizeBudgetBytes = bytes;
+            return this;
+        }
+    }
+
+    private static volatile Options options = new Options();
+    private static Thread thread;
+
+    private RunArchiver() { }
+
+    /**
+     * Replaces the archive thresholds; the next pass uses them.
+     *
+     * @param newOptions Archive thresholds.
+     */
+    public static void configure(Options newOptions) {
+        if (newOptions == null) throw new IllegalArgumentException("Missing options");
+        options = newOptions;
+    }
+
+    /**
+     * Starts the archiver thread for the logger root, if it is not running yet.
+     *
+     * @param context Android context used to resolve the logger root.
+     */
+    static synchronized void start(Context context) {
+        if (thread != null) return;
+        final File root = FileSystemUtilities.getRootDir(context);
+        thread = new Thread(() -> {
+            try {
+                Thread.sleep(FIRST_PASS_DELAY_MS);
+                while (true) {
+                    try {
+                        int n = archivePass(root, options, System.currentTimeMillis());
+                        if (n > 0) RobotLog.ii(TAG, "Archived " + n + " run(s)");
+                    } catch (Exception e) {
+                        RobotLog.ee(TAG, e, "Archive pass failed");
+                    }
+                    Thread.sleep(PASS_INTERVAL_MS);
+                }
+            } catch (InterruptedException ignored) {
+                // Exit.
+            }
+        }, "ftc-logger-archiver");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Archives every JSONL run under the root that the options select.
+     *
+     * @param root Logger root directory.
+     * @param opts Archive thresholds.
+     * @param now Current time, in milliseconds since the epoch.
+     * @return Number of runs archived.
+     */
+    static int archivePass(File root, Options opts, long now) throws IOException {
+        List<File> candidates = new ArrayList<>();
+        long total = 0;
+        File[] opDirs = root.listFiles();
+        if (opDirs == null) return 0;
+        for (File opDir : opDirs) {
+            File[] files = opDir.listFiles();
+            if (files == null) continue;
+            for (File f : files) {
+                if (!f.isFile() || FileSystemUtilities.runExtension(f.getName()) == null) continue;
+                total += f.length();
+                if (f.getName().endsWith(FileSystemUtilities.JSONL_EXTENSION)) candidates.add(f);
+            }
+        }
+        Collections.sort(candidates, Comparator.comparingLong(File::lastModified));
+
+        int archived = 0;
+        for (File run : candidates) {
+            boolean old = opts.maxAgeMs > 0 && now - run.lastModified() > opts.maxAgeMs;
+            boolean overBudget = opts.sizeBudgetBytes > 0 && total > opts.sizeBudgetBytes;
+            if (!old && !overBudget) break;
+            if (!ActiveRuns.isIdle()) break;
+            long before = run.length();
+            File gz = archive(run);
+            if (gz == null) continue;
+            total -= before - gz.length();
+            archived++;
+        }
+        return archived;
+    }
+
+    /**
+     * Compresses one finished JSONL run into a .jsonl.gz next to it and deletes the original.
+     *
+     * @param run JSONL run file.
+     * @return The archive, or null if the run was left as it is (in use, changed, or already archived).
+     */
+    static File archive(File run) throws IOException {
+        if (ActiveRuns.isActive(run)) return null;
+        String name = FileSystemUtilities.runName(run.getName());
+        File dir = run.getParentFile();
+        File dst = new File(dir, name + FileSystemUtilities.JSONL_GZ_EXTENSION);
+        if (dst.exists()) return null;
+        File tmp = new File(dir, dst.getName() + ".tmp");
+
+        long length = run.length();
+        long modified = run.lastModified();
+        boolean complete = false;
+        try {
+            try (InputStream in = new FileInputStream(run);
+                 FileOutputStream fileOut = new FileOutputStream(tmp);
+                 GZIPOutputStream out = new GZIPOutputStream(fileOut, BUFFER_BYTES)) {
+                byte[] buf = new byte[BUFFER_BYTES];
+                int r;
+                while ((r = in.read(buf)) != -1) {
+                    // An OpMode started: give the CPU and storage back and retry next pass.
+                    if (!ActiveRuns.isIdle()) return null;
+                    out.write(buf, 0, r);
+                }
+                out.finish();
+                fileOut.getFD().sync();
+            }
+            // The run was renamed, deleted or appended to meanwhile.
+            if (run.length() != length || run.lastModified() != modified) return null;
+            if (!tmp.renameTo(dst)) return null;
+            complete = true;
+        } finally {
+            if (!complete) {
+                //noinspection ResultOfMethodCallIgnored
+                tmp.delete();
+            }
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        dst.setLastModified(modified);
+        if (!run.delete()) {
+            // Keep one copy of the run rather than two.
+            //noinspection ResultOfMethodCallIgnored
+            dst.delete();
+            return null;
+        }
+        FileSystemUtilities.deleteSidecars(run);
+        RunCache.shared().invalidate(run);
+        FsIndex.shared().invalidate(dir);
+        return dst;
+    }
+}
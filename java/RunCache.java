@@ -0,0 +1,169 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide LRU cache of parsed runs, shared by every {@link ApiHandler}.
+ *
+ * Entries are keyed by run file path and are only served while the file's
+ * length and modification time still match what was parsed. The cache holds
+ * at most {@link #budgetBytes()} of column data; least recently used runs are
+ * evicted first, and runs larger than half the budget are never cached.
+ */
+final class RunCache {
+
+    private static final RunCache SHARED = new RunCache(defaultBudget());
+
+    private final long budget;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private static final class Entry {
+        final long length;
+        final long modified;
+        final ArrayColumns columns;
+        final long size;
+
+        Entry(long length, long modified, ArrayColumns columns) {
+            this.length = length;
+            this.modified = modified;
+            this.columns = columns;
+            this.size = columns.byteSize();
+        }
+    }
+
+    RunCache(long budgetBytes) {
+        this.budget = budgetBytes;
+    }
+
+    /**
+     * Returns the cache shared by all handlers.
+     *
+     * @return Shared cache.
+     */
+    static RunCache shared() {
+        return SHARED;
+    }
+
+    /** An eighth of the heap, capped at 64 MB. */
+    private static long defaultBudget() {
+        return Math.min(Runtime.getRuntime().maxMemory() / 8, 64L * 1024 * 1024);
+    }
+
+    long budgetBytes() {
+        return budget;
+    }
+
+    /**
+     * Returns true if a run file is small enough to be worth parsing into memory.
+     *
+     * Parsed size is estimated from the file size: JSONL text takes at least as
+     * many bytes as its doubles, while .flog packs values into as little as 4 bytes
+     * (a byte or less in packed files) and gzip shrinks JSONL to roughly a third.
+     *
+     * @param run Run file.
+     * @return True if the parsed run would fit in an entry.
+     */
+    boolean accepts(File run) {
+        long estimate = ActiveRuns.length(run);
+        if (run.getName().endsWith(FileSystemUtilities.FLOG_EXTENSION)) estimate *= FlogReader.isPacked(run) ? 8 : 2;
+        else if (FileSystemUtilities.isCompressed(run)) estimate *= 3;
+        return estimate <= budget / 2;
+    }
+
+    /**
+     * Returns the cached columns for a run, or null if absent or stale.
+     *
+     * @param run Run file.
+     * @return Cached columns or null.
+     */
+    synchronized ArrayColumns get(File run) {
+        String key = run.getAbsolutePath();
+        Entry e = entries.get(key);
+        if (e != null && e.length == ActiveRuns.length(run) && e.modified == run.lastModified()) {
+            hits++;
+            return e.columns;
+        }
+        if (e != null) remove(key);
+        misses++;
+        return null;
+    }
+
+    /**
+     * Caches parsed columns for a run, evicting least recently used runs to stay within budget.
+     *
+     * @param run Run file the columns were parsed from.
+     * @param length File length before parsing.
+     * @param modified File modification time before parsing.
+     * @param columns Parsed, trimmed columns.
+     */
+    synchronized void put(File run, long length, long modified, ArrayColumns columns) {
+        Entry e = new Entry(length, modified, columns);
+        if (e.size > budget / 2) return;
+        String key = run.getAbsolutePath();
+        remove(key);
+        entries.put(key, e);
+        bytes += e.size;
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); bytes > budget && it.hasNext(); ) {
+            Entry old = it.next().getValue();
+            it.remove();
+            bytes -= old.size;
+            evictions++;
+        }
+    }
+
+    /**
+     * Drops a run from the cache (after rename or delete).
+     *
+     * @param run Run file.
+     */
+    synchronized void invalidate(File run) {
+        remove(run.getAbsolutePath());
+    }
+
+    /**
+     * Drops every run under a directory (after an OpMode folder is deleted).
+     *
+     * @param dir Directory.
+     */
+    synchronized void invalidateDir(File dir) {
+        String prefix = dir.getAbsolutePath() + File.separator;
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Entry> e = it.next();
+            if (!e.getKey().startsWith(prefix)) continue;
+            bytes -= e.getValue().size;
+            it.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry old = entries.remove(key);
+        if (old != null) bytes -= old.size;
+    }
+
+    synchronized long hitCount() {
+        return hits;
+    }
+
+    synchronized long missCount() {
+        return misses;
+    }
+
+    synchronized long evictionCount() {
+        return evictions;
+    }
+
+    synchronized long sizeBytes() {
+        return bytes;
+    }
+
+    synchronized int entryCount() {
+        return entries.size();
+    }
+}
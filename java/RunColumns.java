@@ -0,0 +1,43 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A parsed run as NaN-aligned columns: one t value per row, and one value per
+ * row for every series (NaN where the field was not set).
+ *
+ * Implemented by {@link DataSpool} (columns in temp files) and
+ * {@link ArrayColumns} (columns in memory, shared through {@link RunCache}).
+ */
+interface RunColumns {
+
+    /** Column index of t for {@link #open(int)}. */
+    int T = -1;
+
+    String timeUnit();
+
+    long rowCount();
+
+    int seriesCount();
+
+    String seriesName(int index);
+
+    /**
+     * Opens a sequential reader over one column.
+     *
+     * @param index Series index, or {@link #T} for t.
+     * @return Reader positioned at row 0.
+     */
+    Cursor open(int index) throws IOException;
+
+    /**
+     * Called once the columns are no longer needed by a response.
+     */
+    void release();
+
+    /** Sequential reader over one column. */
+    interface Cursor extends Closeable {
+        double next() throws IOException;
+    }
+}
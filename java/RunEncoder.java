@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+/**
+ * Turns rows into run file bytes, appending them to an internal reusable buffer.
+ *
+ * {@link RowWriter} owns the file and moves the buffered bytes to it; encoders
+ * never touch the file themselves.
+ */
+interface RunEncoder {
+
+    /**
+     * Appends the file header. Called once, before the first row.
+     *
+     * @param unit Time unit string.
+     */
+    void header(String unit);
+
+    /**
+     * Appends (or stages) one row.
+     *
+     * @param row Row to encode.
+     * @return True if the row was accepted.
+     */
+    boolean row(LogRow row);
+
+    /**
+     * Appends anything still staged, such as a partial block. Called before close.
+     */
+    void finish();
+
+    /**
+     * Appends the run's loop timing summary. Called at most once, after
+     * {@link #finish()} when the run is closed.
+     *
+     * @param loop Loop timing summary.
+     */
+    void trailer(LoopTiming loop);
+
+    /**
+     * Returns true if rows are staged that only {@link #finish()} would append.
+     *
+     * @return True while a partial block is staged.
+     */
+    boolean hasStaged();
+
+    byte[] buffer();
+
+    int length();
+
+    void clear();
+}
@@ -0,0 +1,274 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Block index for a JSONL run, kept in a {@code <run>.jsonl.idx} sidecar.
+ *
+ * The run is split into blocks of {@link #BLOCK_ROWS} rows; for each block the
+ * index stores the byte offset of its first row and its t range. It also keeps
+ * the time unit and the set of series keys. A time-window read seeks straight
+ * to the blocks that overlap the window instead of parsing from byte 0.
+ *
+ * The index is built on first use and validated against the run's length and
+ * modification time. A run that only grew (an OpMode still writing) is indexed
+ * from where the last scan stopped; any other change triggers a rebuild. Only
+ * complete lines are indexed, so a partially written last line is picked up on
+ * the next scan.
+ *
+ * Sidecar layout (DataOutputStream, big-endian):
+ *   int "FIDX", int version, long run length, long run mtime, long indexed bytes,
+ *   int rows per block, UTF unit ("" if none), int key count, UTF keys...,
+ *   int block count, then per block: long offset, int rows, double tMin, double tMax
+ */
+final class RunIndex {
+
+    /** Sidecar extension, appended to the run file name. */
+    static final String EXTENSION = ".idx";
+
+    /** Rows per indexed block. */
+    static final int BLOCK_ROWS = 1024;
+
+    private static final int MAGIC = 0x46494458;
+    private static final int VERSION = 1;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private long sourceLength;
+    private long sourceModified;
+    private long indexedBytes;
+    private String tUnit = "";
+    private final Set<String> keys = new LinkedHashSet<>();
+    private int blocks;
+    private long[] offsets = new long[16];
+    private int[] rowCounts = new int[16];
+    private double[] tMin = new double[16];
+    private double[] tMax = new double[16];
+
+    private RunIndex() { }
+
+    /**
+     * Returns the sidecar file for a run.
+     *
+     * @param run Run file.
+     * @return Index file next to it.
+     */
+    static File sidecar(File run) {
+        return new File(run.getParentFile(), run.getName() + EXTENSION);
+    }
+
+    /**
+     * Loads the index for a run, building or extending it (and its sidecar) if it is out of date.
+     *
+     * @param run JSONL run file.
+     * @return Up-to-date index.
+     */
+    static RunIndex load(File run) throws IOException {
+        long length = ActiveRuns.length(run);
+        long modified = run.lastModified();
+        File side = sidecar(run);
+
+        RunIndex idx = null;
+        if (side.isFile()) {
+            try {
+                idx = readFrom(side);
+            } catch (IOException ignored) {
+                // Corrupt or old sidecar; rebuild below.
+            }
+        }
+        if (idx != null && idx.sourceLength == length && idx.sourceModified == modified) return idx;
+        if (idx == null || length <= idx.sourceLength) idx = new RunIndex();
+
+        idx.scan(run, length);
+        idx.sourceLength = length;
+        idx.sourceModified = modified;
+        try {
+            idx.writeTo(side);
+        } catch (IOException ignored) {
+            // The index still serves this request; the next one rebuilds it.
+        }
+        return idx;
+    }
+
+    /**
+     * Returns the series keys seen in the run, in first-seen order.
+     *
+     * @return Key names.
+     */
+    Set<String> keys() {
+        return Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * Returns the run's time unit, or an empty string if the run has no unit line.
+     *
+     * @return Time unit.
+     */
+    String timeUnit() {
+        return tUnit;
+    }
+
+    /**
+     * Parses only the blocks whose t range overlaps {@code [tStart, tEnd]}.
+     *
+     * Rows outside the window but inside an overlapping block are reported too;
+     * callers filter exact bounds.
+     *
+     * @param run Run file this index was loaded for.
+     * @param tStart Window start, or NaN for no lower bound.
+     * @param tEnd Window end, or NaN for no upper bound.
+     * @param series Series names to report, or null for all.
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    void readWindow(File run, double tStart, double tEnd, Set<String> series, RunVisitor visitor)
+            throws IOException {
+        if (!tUnit.isEmpty()) visitor.timeUnit(tUnit);
+        JsonlReader reader = new JsonlReader(visitor, series);
+        try (FileInputStream in = new FileInputStream(run)) {
+            int b = 0;
+            while (b < blocks) {
+                if (!overlaps(b, tStart, tEnd)) {
+                    b++;
+                    continue;
+                }
+                int e = b + 1;
+                while (e < blocks && overlaps(e, tStart, tEnd)) e++;
+                long start = offsets[b];
+                long end = e < blocks ? offsets[e] : indexedBytes;
+                in.getChannel().position(start);
+                LineScanner lines = new LineScanner(new BufferedInputStream(in, READ_BUFFER_BYTES), start, end - start);
+                String line;
+                while ((line = lines.next()) != null) reader.line(line);
+                b = e;
+            }
+        }
+    }
+
+    private boolean overlaps(int b, double tStart, double tEnd) {
+        return !(tMax[b] < tStart) && !(tMin[b] > tEnd);
+    }
+
+    /**
+     * Indexes complete lines from {@link #indexedBytes} up to {@code limit}.
+     *
+     * @param run Run file.
+     * @param limit Run length when the scan started.
+     */
+    private void scan(File run, long limit) throws IOException {
+        JsonlReader reader = new JsonlReader(new RunVisitor() {
+            @Override
+            public void timeUnit(String unit) {
+                tUnit = unit;
+            }
+
+            @Override
+            public void channel(int id, String name) {
+                keys.add(name);
+            }
+
+            @Override
+            public void row(double t, int[] ids, double[] values, int count) { }
+        });
+        try (FileInputStream in = new FileInputStream(run)) {
+            in.getChannel().position(indexedBytes);
+            LineScanner lines = new LineScanner(new BufferedInputStream(in, READ_BUFFER_BYTES), indexedBytes, limit - indexedBytes);
+            String line;
+            while ((line = lines.next()) != null) {
+                double t = reader.line(line);
+                if (!Double.isNaN(t)) addRow(lines.lineStart, t);
+                indexedBytes = lines.position;
+            }
+        }
+    }
+
+    private void addRow(long lineStart, double t) {
+        if (blocks == 0 || rowCounts[blocks - 1] == BLOCK_ROWS) {
+            if (blocks == offsets.length) {
+                int cap = blocks * 2;
+                offsets = Arrays.copyOf(offsets, cap);
+                rowCounts = Arrays.copyOf(rowCounts, cap);
+                tMin = Arrays.copyOf(tMin, cap);
+                tMax = Arrays.copyOf(tMax, cap);
+            }
+            offsets[blocks] = lineStart;
+            rowCounts[blocks] = 0;
+            tMin[blocks] = t;
+            tMax[blocks] = t;
+            blocks++;
+        }
+        int b = blocks - 1;
+        rowCounts[b]++;
+        tMin[b] = Math.min(tMin[b], t);
+        tMax[b] = Math.max(tMax[b], t);
+    }
+
+    private static RunIndex readFrom(File side) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(side)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("Unknown index format");
+            RunIndex idx = new RunIndex();
+            idx.sourceLength = in.readLong();
+            idx.sourceModified = in.readLong();
+            idx.indexedBytes = in.readLong();
+            if (in.readInt() != BLOCK_ROWS) throw new IOException("Index block size changed");
+            idx.tUnit = in.readUTF();
+            int keyCount = in.readInt();
+            for (int i = 0; i < keyCount; i++) idx.keys.add(in.readUTF());
+            int n = in.readInt();
+            if (n < 0) throw new IOException("Bad block count");
+            int cap = Math.max(16, n);
+            idx.offsets = new long[cap];
+            idx.rowCounts = new int[cap];
+            idx.tMin = new double[cap];
+            idx.tMax = new double[cap];
+            for (int b = 0; b < n; b++) {
+                idx.offsets[b] = in.readLong();
+                idx.rowCounts[b] = in.readInt();
+                idx.tMin[b] = in.readDouble();
+                idx.tMax[b] = in.readDouble();
+            }
+            idx.blocks = n;
+            return idx;
+        }
+    }
+
+    /**
+     * Writes the sidecar through a temp file and rename, so concurrent readers
+     * never see a half-written index.
+     */
+    private void writeTo(File side) throws IOException {
+        File tmp = new File(side.getParentFile(), side.getName() + ".tmp" + Thread.currentThread().getId());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceLength);
+            out.writeLong(sourceModified);
+            out.writeLong(indexedBytes);
+            out.writeInt(BLOCK_ROWS);
+            out.writeUTF(tUnit);
+            out.writeInt(keys.size());
+            for (String k : keys) out.writeUTF(k);
+            out.writeInt(blocks);
+            for (int b = 0; b < blocks; b++) {
+                out.writeLong(offsets[b]);
+                out.writeInt(rowCounts[b]);
+                out.writeDouble(tMin[b]);
+                out.writeDouble(tMax[b]);
+            }
+        }
+        if (!tmp.renameTo(side)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("Could not write " + side.getName());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Allocates run numbers from a counter file kept in each OpMode folder.
+ *
+ * The counter ({@value #COUNTER_FILE}) holds the next run number as decimal
+ * text, so allocating a run costs a read, an exclusive create and a small
+ * write instead of a scan of every run in the folder. It is replaced through a
+ * temp file and rename, so a reader never sees a half-written value. If the
+ * counter is missing, unreadable, or points at a run that already exists
+ * (files copied in by hand), the folder is scanned once and the counter
+ * rewritten.
+ *
+ * Run numbers are zero-padded to {@value #MIN_WIDTH} digits and simply grow
+ * wider past 9999; existing runs are never renamed. Listings order names with
+ * {@link FileSystemUtilities#compareRunNames}, which compares digits by value.
+ */
+final class RunNumbers {
+
+    /** Counter file name; not a run file, so listings skip it. */
+    static final String COUNTER_FILE = ".next-run";
+
+    private static final int MIN_WIDTH = 4;
+    private static final int MAX_ATTEMPTS = 16;
+
+    private RunNumbers() { }
+
+    /**
+     * Creates a new, empty run file with the next free run number.
+     *
+     * @param opDir OpMode directory.
+     * @param extension Run extension, e.g. {@link FileSystemUtilities#JSONL_EXTENSION}.
+     * @return The created run file.
+     */
+    static synchronized File allocate(File opDir, String extension) throws IOException {
+        long next = readCounter(opDir);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (next <= 0 || attempt > 0) next = scan(opDir);
+            String id = String.format(Locale.US, "%0" + MIN_WIDTH + "d", next);
+            File run = new File(opDir, id + extension);
+            if (!taken(opDir, id) && run.createNewFile()) {
+                writeCounter(opDir, next + 1);
+                return run;
+            }
+            next = -1;
+        }
+        throw new IOException("No free run number in " + opDir);
+    }
+
+    /** Returns true if a run with this id exists in any format. */
+    private static boolean taken(File opDir, String id) {
+        for (String ext : FileSystemUtilities.RUN_EXTENSIONS) {
+            if (new File(opDir, id + ext).exists()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns one more than the largest run number in the folder, counting
+     * renamed runs by the number their name starts with.
+     */
+    private static long scan(File opDir) {
+        long max = 0;
+        File[] children = opDir.listFiles();
+        if (children != null) {
+            for (File f : children) {
+                String name = FileSystemUtilities.runName(f.getName());
+                if (name == null) continue;
+                int end = 0;
+                while (end < name.length() && end < 18 && Character.isDigit(name.charAt(end))) end++;
+                if (end == 0) continue;
+                max = Math.max(max, Long.parseLong(name.substring(0, end)));
+            }
+        }
+        return max + 1;
+    }
+
+    /** Returns the stored next run number, or -1 if the counter is missing or corrupt. */
+    private static long readCounter(File opDir) {
+        File counter = new File(opDir, COUNTER_FILE);
+        if (!counter.isFile()) return -1;
+        byte[] buf = new byte[32];
+        int n = 0;
+        try (InputStream in = new FileInputStream(counter)) {
+            int r;
+            while (n < buf.length && (r = in.read(buf, n, buf.length - n)) > 0) n += r;
+        } catch (IOException e) {
+            return -1;
+        }
+        try {
+            long v = Long.parseLong(new String(buf, 0, n, StandardCharsets.US_ASCII).trim());
+            return v > 0 ? v : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Stores the next run number; a failure only costs a scan next time. */
+    private static void writeCounter(File opDir, long next) {
+        File counter = new File(opDir, COUNTER_FILE);
+        File tmp = new File(opDir, COUNTER_FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write((next + "\n").getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(counter)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+        }
+    }
+}
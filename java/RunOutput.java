@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.IOException;
+
+/**
+ * Destination for a run file's encoded bytes, owned by {@link RowWriter}.
+ *
+ * {@link FileRunOutput} appends through a file stream; {@link MappedRunOutput}
+ * copies into a memory-mapped region of the file.
+ */
+interface RunOutput {
+
+    /**
+     * Appends bytes to the run file.
+     *
+     * @param buf Source bytes.
+     * @param off Start offset in {@code buf}.
+     * @param len Number of bytes.
+     */
+    void write(byte[] buf, int off, int len) throws IOException;
+
+    /**
+     * Forces every byte written so far to storage.
+     */
+    void force() throws IOException;
+
+    /**
+     * Closes the file, leaving it exactly as long as the bytes written.
+     */
+    void close() throws IOException;
+}
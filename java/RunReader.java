@@ -0,0 +1,179 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/** Opens a run file and parses it with the reader for its format. */
+final class RunReader {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private RunReader() { }
+
+    /**
+     * Opens a run file for reading, decompressing .jsonl.gz runs on the fly.
+     *
+     * @param file Run file.
+     * @return Buffered stream of the run's uncompressed bytes.
+     */
+    static InputStream open(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (FileSystemUtilities.isCompressed(file)) {
+            try {
+                in = new GZIPInputStream(in, BUFFER_BYTES);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        } else if (ActiveRuns.isActive(file)) {
+            // A memory-mapped run is longer than its data while it is written.
+            in = new BoundedInputStream(in, ActiveRuns.length(file));
+        }
+        return new BufferedInputStream(in, BUFFER_BYTES);
+    }
+
+    /**
+     * Parses a run file, choosing the format from its extension.
+     *
+     * @param file Run file (.jsonl, .jsonl.gz or .flog).
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    static void read(File file, RunVisitor visitor) throws IOException {
+        read(file, null, visitor);
+    }
+
+    /**
+     * Parses some series of a run file; other fields are skipped by the format reader.
+     *
+     * @param file Run file (.jsonl, .jsonl.gz or .flog).
+     * @param series Series names to report, or null for all.
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    static void read(File file, Set<String> series, RunVisitor visitor) throws IOException {
+        try (InputStream in = open(file)) {
+            if (file.getName().endsWith(FileSystemUtilities.FLOG_EXTENSION)) {
+                FlogReader.read(in, series, visitor);
+            } else {
+                JsonlReader.read(in, series, visitor);
+            }
+        }
+    }
+
+    /**
+     * Reports a run's time unit and series names without its rows.
+     *
+     * JSONL runs answer from their {@link RunIndex}; .flog runs skip over every
+     * block. Compressed runs cannot be indexed, so they are parsed in full.
+     *
+     * @param file Run file (.jsonl, .jsonl.gz or .flog).
+     * @param visitor Receiver for unit and channels; gets no rows.
+     */
+    static void readChannels(File file, final RunVisitor visitor) throws IOException {
+        if (file.getName().endsWith(FileSystemUtilities.FLOG_EXTENSION)) {
+            try (InputStream in = open(file)) {
+                FlogReader.readChannels(in, visitor);
+            }
+            return;
+        }
+        if (FileSystemUtilities.isCompressed(file)) {
+            read(file, new RunVisitor() {
+                @Override
+                public void timeUnit(String unit) {
+                    visitor.timeUnit(unit);
+                }
+
+                @Override
+                public void channel(int id, String name) {
+                    visitor.channel(id, name);
+                }
+
+                @Override
+                public void row(double t, int[] ids, double[] values, int count) { }
+            });
+            return;
+        }
+        RunIndex idx = RunIndex.load(file);
+        if (!idx.timeUnit().isEmpty()) visitor.timeUnit(idx.timeUnit());
+        int id = 0;
+        for (String key : idx.keys()) visitor.channel(id++, key);
+    }
+
+    /**
+     * Parses the part of a run file that may hold rows with {@code tStart <= t <= tEnd}.
+     *
+     * Uncompressed JSONL runs are read through their {@link RunIndex}, seeking to
+     * the blocks that overlap the window; other formats are read in full. Either way rows
+     * outside the window can be reported, so callers filter exact bounds.
+     *
+     * @param file Run file (.jsonl, .jsonl.gz or .flog).
+     * @param tStart Window start, or NaN for no lower bound.
+     * @param tEnd Window end, or NaN for no upper bound.
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    static void readWindow(File file, double tStart, double tEnd, RunVisitor visitor) throws IOException {
+        readWindow(file, tStart, tEnd, null, visitor);
+    }
+
+    /**
+     * Parses some series of the part of a run file that may hold rows with {@code tStart <= t <= tEnd}.
+     *
+     * @param file Run file (.jsonl, .jsonl.gz or .flog).
+     * @param tStart Window start, or NaN for no lower bound.
+     * @param tEnd Window end, or NaN for no upper bound.
+     * @param series Series names to report, or null for all.
+     * @param visitor Receiver for unit, channels and rows.
+     */
+    static void readWindow(File file, double tStart, double tEnd, Set<String> series, RunVisitor visitor)
+            throws IOException {
+        boolean windowed = !Double.isNaN(tStart) || !Double.isNaN(tEnd);
+        if (windowed && file.getName().endsWith(FileSystemUtilities.JSONL_EXTENSION)) {
+            RunIndex.load(file).readWindow(file, tStart, tEnd, series, visitor);
+        } else {
+            read(file, series, visitor);
+        }
+    }
+
+    /** Reads at most a fixed number of bytes from a stream. */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long left;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.left = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (left <= 0) return -1;
+            int b = in.read();
+            if (b >= 0) left--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (left <= 0) return -1;
+            int n = in.read(b, off, (int) Math.min(len, left));
+            if (n > 0) left -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, left));
+            left -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), left);
+        }
+    }
+}
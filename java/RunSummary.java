@@ -0,0 +1,220 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-series summary statistics computed in one streaming pass over a run.
+ *
+ * Each series keeps Welford accumulators for its values and a running
+ * co-moment against t, which gives count, mean, min, max, population std dev
+ * and the least-squares line (slope, intercept, R^2) without holding any rows.
+ *
+ * Whole-run summaries are cached in a {@code <run>.summary} sidecar validated
+ * against the run's length and modification time.
+ */
+final class RunSummary implements RunVisitor {
+
+    /** Sidecar extension, appended to the run file name. */
+    static final String EXTENSION = ".summary";
+
+    private final double tStart;
+    private final double tEnd;
+    private final List<String> names = new ArrayList<>();
+    private final List<Series> byId = new ArrayList<>();
+    private final List<Series> series = new ArrayList<>();
+    private String tUnit = "s";
+    private long rows;
+    private double tMin = Double.POSITIVE_INFINITY;
+    private double tMax = Double.NEGATIVE_INFINITY;
+
+    /** Running statistics for one series. */
+    private static final class Series {
+        final String name;
+        long n;
+        double meanT;
+        double meanY;
+        double m2t;
+        double m2y;
+        double cty;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double tFirst = Double.POSITIVE_INFINITY;
+        double tLast = Double.NEGATIVE_INFINITY;
+
+        Series(String name) {
+            this.name = name;
+        }
+
+        void add(double t, double y) {
+            n++;
+            double dt = t - meanT;
+            meanT += dt / n;
+            double dy = y - meanY;
+            meanY += dy / n;
+            m2t += dt * (t - meanT);
+            m2y += dy * (y - meanY);
+            cty += dt * (y - meanY);
+            min = Math.min(min, y);
+            max = Math.max(max, y);
+            tFirst = Math.min(tFirst, t);
+            tLast = Math.max(tLast, t);
+        }
+    }
+
+    /**
+     * Creates an accumulator for rows with {@code tStart <= t <= tEnd}.
+     *
+     * @param tStart Window start, or NaN for no lower bound.
+     * @param tEnd Window end, or NaN for no upper bound.
+     */
+    RunSummary(double tStart, double tEnd) {
+        this.tStart = tStart;
+        this.tEnd = tEnd;
+    }
+
+    @Override
+    public void timeUnit(String unit) {
+        tUnit = unit;
+    }
+
+    @Override
+    public void channel(int id, String name) {
+        while (names.size() <= id) {
+            names.add(null);
+            byId.add(null);
+        }
+        names.set(id, name);
+    }
+
+    @Override
+    public void row(double t, int[] ids, double[] values, int count) {
+        if (!JsonBytes.isFinite(t) || t < tStart || t > tEnd) return;
+        rows++;
+        tMin = Math.min(tMin, t);
+        tMax = Math.max(tMax, t);
+        for (int i = 0; i < count; i++) {
+            double v = values[i];
+            if (!JsonBytes.isFinite(v)) continue;
+            Series s = byId.get(ids[i]);
+            if (s == null) {
+                s = new Series(names.get(ids[i]));
+                byId.set(ids[i], s);
+                series.add(s);
+            }
+            s.add(t, v);
+        }
+    }
+
+    /**
+     * Returns:
+     * {
+     *   "tUnit": "ms", "rows": N, "tMin": ..., "tMax": ...,
+     *   "series": {
+     *     "name": { "count", "mean", "min", "max", "std", "range": [tFirst, tLast],
+     *               "regression": { "m", "b", "r2" } }, ...
+     *   }
+     * }
+     * tMin/tMax are left out when there are no rows, and regression when
+     * a series has fewer than two distinct t values.
+     *
+     * @return JSON summary.
+     */
+    JSONObject toJson() throws JSONException {
+        JSONObject out = new JSONObject().put("tUnit", tUnit).put("rows", rows);
+        if (rows > 0) out.put("tMin", tMin).put("tMax", tMax);
+        JSONObject seriesJson = new JSONObject();
+        for (Series s : series) {
+            JSONObject o = new JSONObject()
+                    .put("count", s.n)
+                    .put("mean", s.meanY)
+                    .put("min", s.min)
+                    .put("max", s.max)
+                    .put("std", Math.sqrt(s.m2y / s.n))
+                    .put("range", new JSONArray().put(s.tFirst).put(s.tLast));
+            if (s.n >= 2 && s.n * s.m2t >= 1e-12) {
+                double m = s.cty / s.m2t;
+                double b = s.meanY - m * s.meanT;
+                double r2 = s.m2y > 0 ? (s.cty * s.cty) / (s.m2t * s.m2y) : 1;
+                o.put("regression", new JSONObject().put("m", m).put("b", b).put("r2", r2));
+            }
+            seriesJson.put(s.name, o);
+        }
+        return out.put("series", seriesJson);
+    }
+
+    /**
+     * Summarizes a window of a run with a fresh pass over the file.
+     *
+     * @param run Run file.
+     * @param tStart Window start, or NaN for no lower bound.
+     * @param tEnd Window end, or NaN for no upper bound.
+     * @return JSON summary (see {@link #toJson()}).
+     */
+    static JSONObject compute(File run, double tStart, double tEnd) throws IOException, JSONException {
+        RunSummary summary = new RunSummary(tStart, tEnd);
+        RunReader.readWindow(run, tStart, tEnd, summary);
+        return summary.toJson();
+    }
+
+    /**
+     * Returns the whole-run summary, from the sidecar when it is still valid.
+     *
+     * @param run Run file.
+     * @return JSON summary (see {@link #toJson()}).
+     */
+    static JSONObject load(File run) throws IOException, JSONException {
+        long length = ActiveRuns.length(run);
+        long modified = run.lastModified();
+        File side = new File(run.getParentFile(), run.getName() + EXTENSION);
+
+        if (side.isFile()) {
+            try {
+                JSONObject cached = new JSONObject(readText(side));
+                if (cached.optLong("length", -1) == length && cached.optLong("modified", -1) == modified) {
+                    return cached.getJSONObject("summary");
+                }
+            } catch (IOException | JSONException ignored) {
+                // Unreadable sidecar; recompute below.
+            }
+        }
+
+        JSONObject summary = compute(run, Double.NaN, Double.NaN);
+        JSONObject cached = new JSONObject()
+                .put("length", length)
+                .put("modified", modified)
+                .put("summary", summary);
+        File tmp = new File(side.getParentFile(), side.getName() + ".tmp" + Thread.currentThread().getId());
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            w.write(cached.toString());
+        } catch (IOException ignored) { }
+        if (!tmp.renameTo(side)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+        }
+        return summary;
+    }
+
+    private static String readText(File f) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
+            char[] buf = new char[4096];
+            int n;
+            while ((n = br.read(buf)) > 0) sb.append(buf, 0, n);
+        }
+        return sb.toString();
+    }
+}
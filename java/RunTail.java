@@ -0,0 +1,146 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * Rows appended to a run after a cursor, for the live tail route.
+ *
+ * For JSONL runs the cursor is a byte offset and only complete lines are
+ * returned, so a line the writer is halfway through is picked up by the next
+ * call. For .flog runs the cursor is the byte offset of the next record: the
+ * channel records before it are read, every block before it is skipped unread,
+ * and only the blocks after it are decoded. .flog rows only reach the file a
+ * block at a time. Compressed runs are archived, finished runs and never have
+ * new rows.
+ */
+final class RunTail {
+
+    /** Most bytes of a run decoded by one call; the client catches up over several. */
+    private static final long MAX_BYTES = 1024 * 1024;
+
+    /** Rows found after the cursor. */
+    final ArrayColumns rows = new ArrayColumns();
+    /** Cursor to pass to the next call. */
+    long next;
+    /** True if the cursor was past the end of the file and reading restarted from the beginning. */
+    boolean reset;
+
+    private RunTail() { }
+
+    /**
+     * Reads rows after {@code cursor}.
+     *
+     * @param run Run file.
+     * @param cursor Cursor from a previous call, or a negative value for the current end (no rows).
+     * @return Rows and the next cursor.
+     */
+    static RunTail read(File run, long cursor) throws IOException {
+        RunTail tail = new RunTail();
+        if (FileSystemUtilities.isCompressed(run)) {
+            tail.next = Math.max(cursor, 0);
+        } else if (run.getName().endsWith(FileSystemUtilities.FLOG_EXTENSION)) {
+            tail.readFlog(run, cursor);
+        } else {
+            tail.readJsonl(run, cursor);
+        }
+        return tail;
+    }
+
+    private void readJsonl(File run, long cursor) throws IOException {
+        long length = ActiveRuns.length(run);
+        if (cursor < 0) {
+            next = lastLineEnd(run, length);
+            readUnit(run, next);
+            return;
+        }
+        if (cursor > length) {
+            cursor = 0;
+            reset = true;
+        }
+        if (cursor > 0) readUnit(run, cursor);
+        long limit = Math.min(length - cursor, MAX_BYTES);
+        next = scan(run, cursor, limit);
+        if (next == cursor && limit < length - cursor) {
+            // One line longer than MAX_BYTES; read it whole rather than stall.
+            next = scan(run, cursor, length - cursor);
+        }
+    }
+
+    private long scan(File run, long offset, long length) throws IOException {
+        JsonlReader reader = new JsonlReader(rows);
+        try (FileInputStream in = new FileInputStream(run)) {
+            in.getChannel().position(offset);
+            LineScanner lines = new LineScanner(new BufferedInputStream(in, 64 * 1024), offset, length);
+            String line;
+            while ((line = lines.next()) != null) reader.line(line);
+            return lines.position;
+        }
+    }
+
+    /**
+     * Takes the time unit from the run's first line, which a cursor past it skips.
+     */
+    private void readUnit(File run, long limit) throws IOException {
+        JsonlReader reader = new JsonlReader(new RunVisitor() {
+            @Override
+            public void timeUnit(String unit) {
+                rows.timeUnit(unit);
+            }
+
+            @Override
+            public void channel(int id, String name) { }
+
+            @Override
+            public void row(double t, int[] ids, double[] values, int count) { }
+        });
+        try (FileInputStream in = new FileInputStream(run)) {
+            String line = new LineScanner(new BufferedInputStream(in, 4096), 0, limit).next();
+            if (line != null) reader.line(line);
+        }
+    }
+
+    /**
+     * Returns the offset just past the last '\n' in the first {@code length} bytes.
+     */
+    private static long lastLineEnd(File run, long length) throws IOException {
+        byte[] buf = new byte[8 * 1024];
+        try (RandomAccessFile raf = new RandomAccessFile(run, "r")) {
+            long end = length;
+            while (end > 0) {
+                int n = (int) Math.min(buf.length, end);
+                raf.seek(end - n);
+                raf.readFully(buf, 0, n);
+                for (int i = n - 1; i >= 0; i--) {
+                    if (buf[i] == '\n') return end - n + i + 1;
+                }
+                end -= n;
+            }
+        }
+        return 0;
+    }
+
+    private void readFlog(File run, long cursor) throws IOException {
+        long length = ActiveRuns.length(run);
+        // A negative cursor decodes nothing and returns the end of the last record.
+        long from = cursor < 0 ? Long.MAX_VALUE : cursor;
+        long end = cursor > length ? -1 : decodeFlog(run, from);
+        if (end < 0 || (cursor >= 0 && end < cursor)) {
+            // The cursor is not a record boundary of this file; the run was replaced.
+            // Channels are reported by id, so the ones already read are overwritten.
+            reset = true;
+            end = decodeFlog(run, 0);
+        }
+        next = end;
+    }
+
+    private long decodeFlog(File run, long from) throws IOException {
+        try (InputStream in = RunReader.open(run)) {
+            return FlogReader.readFrom(in, from, MAX_BYTES, rows);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+/**
+ * Receives the contents of a run file as it is parsed, one row at a time.
+ *
+ * Channel ids are dense and local to one read; every id is announced through
+ * {@link #channel(int, String)} before the first row that uses it.
+ */
+interface RunVisitor {
+
+    /**
+     * Called when the run's time unit is known.
+     *
+     * @param unit Time unit string.
+     */
+    void timeUnit(String unit);
+
+    /**
+     * Called once per channel before it first appears in a row.
+     *
+     * @param id Channel id.
+     * @param name Field name.
+     */
+    void channel(int id, String name);
+
+    /**
+     * Called for every row with a finite time value.
+     *
+     * The arrays are reused between calls; copy what you need to keep.
+     *
+     * @param t Time value.
+     * @param ids Channel ids of the fields present on this row.
+     * @param values Field values, parallel to {@code ids}.
+     * @param count Number of fields present.
+     */
+    void row(double t, int[] ids, double[] values, int count);
+}
@@ -41,14 +41,29 @@ public final class Server {
                     new ApiHandler(context, ApiHandler.Route.RUNS));
             manager.register("/logger/api/run",
                     new ApiHandler(context, ApiHandler.Route.RUN_META));
+            manager.register("/logger/api/keys",
+                    new ApiHandler(context, ApiHandler.Route.KEYS));
             manager.register("/logger/api/data",
                     new ApiHandler(context, ApiHandler.Route.DATA));
+            manager.register("/logger/api/summary",
+                    new ApiHandler(context, ApiHandler.Route.SUMMARY));
+            manager.register("/logger/api/loop",
+                    new ApiHandler(context, ApiHandler.Route.LOOP));
+            manager.register("/logger/api/tail",
+                    new ApiHandler(context, ApiHandler.Route.TAIL));
+            manager.register("/logger/api/compare",
+                    new ApiHandler(context, ApiHandler.Route.COMPARE));
             manager.register("/logger/api/fs",
                     new ApiHandler(context, ApiHandler.Route.FS));
             manager.register("/logger/api/rename",
                     new ApiHandler(context, ApiHandler.Route.RENAME));
             manager.register("/logger/api/delete",
                     new ApiHandler(context, ApiHandler.Route.DELETE));
+            manager.register("/logger/api/metrics",
+                    new ApiHandler(context, ApiHandler.Route.METRICS));
+
+            // Gzip old JSONL runs in the background
+            RunArchiver.start(context);
 
         } catch (Throwable t) {
             // Never crash RC startup
@@ -4,10 +4,13 @@ import android.content.Context;
 
 import org.firstinspires.ftc.robotcore.internal.webserver.WebHandler;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.zip.Deflater;
 
 import fi.iki.elonen.NanoHTTPD;
 
@@ -18,12 +21,24 @@ import fi.iki.elonen.NanoHTTPD;
  *  assetPath = "web/index.html"
  * corresponds to:
  *  TeamCode/src/main/java/org/firstinspires/ftc/teamcode/logger/web/index.html
+ *
+ * Assets cannot change while the app runs, so the file is read once and kept
+ * together with a gzip-compressed copy, which is served to clients that send
+ * Accept-Encoding: gzip.
+ *
+ * Responses carry an ETag derived from the file's SHA-1 and
+ * {@code Cache-Control: no-cache}, so browsers keep their copy but revalidate
+ * it on each load; a matching If-None-Match gets an empty 304. A redeployed
+ * app with changed UI files gets new ETags, so no stale asset is ever used.
  */
 public final class StaticAssetHandler implements WebHandler {
 
     private final Context context;
     private final String assetPath;
     private final String contentType;
+    private volatile byte[] bytes;
+    private volatile byte[] gzipped;
+    private volatile String etag;
 
     public StaticAssetHandler(Context context, String assetPath, String contentType) {
         this.context = context.getApplicationContext();
@@ -33,14 +48,22 @@ public final class StaticAssetHandler implements WebHandler {
 
     @Override
     public NanoHTTPD.Response getResponse(NanoHTTPD.IHTTPSession session) {
-        try (InputStream is = context.getAssets().open(assetPath)) {
-            byte[] bytes = readAllBytes(is);
-            return NanoHTTPD.newFixedLengthResponse(
-                    NanoHTTPD.Response.Status.OK,
-                    contentType,
-                    new ByteArrayInputStream(bytes),
-                    bytes.length
-            );
+        try {
+            load();
+            boolean gzip = gzipped != null && GzipResponse.accepts(session);
+            // The encodings are different representations, so they get different tags.
+            String tag = gzip ? "\"" + etag + "-gz\"" : "\"" + etag + "\"";
+            NanoHTTPD.Response r;
+            if (matches(session.getHeaders().get("if-none-match"))) {
+                r = GzipResponse.fixed(NanoHTTPD.Response.Status.NOT_MODIFIED, contentType, new byte[0], false);
+            } else if (gzip) {
+                r = GzipResponse.precompressed(NanoHTTPD.Response.Status.OK, contentType, gzipped);
+            } else {
+                r = GzipResponse.fixed(NanoHTTPD.Response.Status.OK, contentType, bytes, false);
+            }
+            r.addHeader("ETag", tag);
+            r.addHeader("Cache-Control", "no-cache");
+            return r;
         } catch (IOException e) {
             return NanoHTTPD.newFixedLengthResponse(
                     NanoHTTPD.Response.Status.NOT_FOUND,
@@ -50,6 +73,53 @@ public final class StaticAssetHandler implements WebHandler {
         }
     }
 
+    /**
+     * Reads, hashes and compresses the asset on first use.
+     */
+    private synchronized void load() throws IOException {
+        if (bytes != null) return;
+        byte[] raw;
+        try (InputStream is = context.getAssets().open(assetPath)) {
+            raw = readAllBytes(is);
+        }
+        byte[] gz = GzipResponse.compress(raw, Deflater.BEST_COMPRESSION);
+        gzipped = gz.length < raw.length ? gz : null;
+        etag = sha1Hex(raw);
+        bytes = raw;
+    }
+
+    /**
+     * Returns true if an If-None-Match header names either representation of the asset.
+     *
+     * @param header Header value, or null if absent.
+     * @return True if the client's copy is current.
+     */
+    private boolean matches(String header) {
+        if (header == null) return false;
+        for (String part : header.split(",")) {
+            String tag = part.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') continue;
+            tag = tag.substring(1, tag.length() - 1);
+            if (tag.endsWith("-gz")) tag = tag.substring(0, tag.length() - 3);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static String sha1Hex(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(data);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) sb.append(String.format(Locale.US, "%02x", b & 0xff));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java and Android runtime provides SHA-1.
+            throw new IllegalStateException(e);
+        }
+    }
+
     private static byte[] readAllBytes(InputStream is) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         byte[] buf = new byte[8192];
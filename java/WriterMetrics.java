@@ -0,0 +1,96 @@
+package org.firstinspires.ftc.teamcode.logger.java;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Self-instrumentation of one {@link LogWriter}, served by /logger/api/metrics.
+ *
+ * Counters are {@link LongAdder}s and latencies go into {@link LatencyHistogram}s,
+ * so recording takes no lock and never waits for a metrics request. Exceptions
+ * the writer swallows to keep the OpMode running are counted here, with the
+ * last one kept for display.
+ */
+final class WriterMetrics {
+
+    /** Rows handed to the encoder. */
+    final LongAdder rows = new LongAdder();
+    /** Bytes written to the run file. */
+    final LongAdder bytes = new LongAdder();
+    /** Writes of the encode buffer to the file. */
+    final LongAdder flushes = new LongAdder();
+    /** Forces to storage. */
+    final LongAdder syncs = new LongAdder();
+    /** Fields left out of rows by channel policies. */
+    final LongAdder skipped = new LongAdder();
+    /** Exceptions caught while logging, writing or closing. */
+    final LongAdder errors = new LongAdder();
+
+    /** Time to encode one row into the buffer. */
+    final LatencyHistogram encodeNanos = new LatencyHistogram();
+    /** Time of one write of the buffer to the file. */
+    final LatencyHistogram writeNanos = new LatencyHistogram();
+    /** Time of one force to storage. */
+    final LatencyHistogram syncNanos = new LatencyHistogram();
+    /** Time between consecutive log calls, if loop timing is on. */
+    final LatencyHistogram loopNanos = new LatencyHistogram();
+
+    private final long openedMillis = System.currentTimeMillis();
+    private volatile long closedMillis;
+    private volatile String lastError;
+    private volatile RowBuffer queue;
+
+    /**
+     * Counts a swallowed exception.
+     *
+     * @param e Exception that was caught.
+     */
+    void error(Throwable e) {
+        errors.increment();
+        lastError = String.valueOf(e);
+    }
+
+    /**
+     * Attaches the async queue so its depth and drops are reported.
+     *
+     * @param queue Queue or per-thread buffers feeding the writer thread.
+     */
+    void queue(RowBuffer queue) {
+        this.queue = queue;
+    }
+
+    /** Records that the run file was closed. */
+    void closed() {
+        closedMillis = System.currentTimeMillis();
+    }
+
+    long openedMillis() {
+        return openedMillis;
+    }
+
+    /**
+     * Returns when the run file was closed.
+     *
+     * @return Epoch milliseconds, or 0 while open.
+     */
+    long closedMillis() {
+        return closedMillis;
+    }
+
+    /**
+     * Returns the message of the last swallowed exception.
+     *
+     * @return Message or null.
+     */
+    String lastError() {
+        return lastError;
+    }
+
+    /**
+     * Returns the async queue, if the writer has one.
+     *
+     * @return Queue or null in synchronous mode.
+     */
+    RowBuffer queue() {
+        return queue;
+    }
+}
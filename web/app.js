@@ -14,7 +14,16 @@ const state = {
   opMode: "",
   runs: [],
   run: "",
-  data: null,      // {t:[], series:{name:[]}}
+  data: null,      // {t:[], series:{name:[]}, downsampled?}  whole-run overview (visible series only)
+  keys: [],        // every series name in the run, from /keys; fixes each series' color
+  hidden: new Set(), // series turned off; kept across runs and not fetched
+  detail: null,    // {xMin, xMax, data} higher-resolution data around the viewport
+  detailTimer: null,
+  dataSeq: 0,      // bumped per loadData so stale detail responses are ignored
+  statsSeq: 0,     // bumped per summary request so only the latest one renders
+  live: false,     // following the run through /tail
+  compare: { runs: [], align: false, data: null, seq: 0 }, // other runs overlaid via /compare
+  liveSeq: 0,      // bumped per start/stop so an old tail loop exits
   visible: new Set(),
 
   // viewport in data coords:
@@ -88,6 +97,13 @@ function bindDrawerButtons() {
     if (modal) modal.classList.add("hidden");
     updateToggleUI();
   };
+
+  const metricsBtn = $("openMetrics");
+  const metricsBackdrop = $("closeMetrics");
+  const metricsClose = $("closeMetricsBtn");
+  if (metricsBtn) metricsBtn.onclick = openMetrics;
+  if (metricsBackdrop) metricsBackdrop.onclick = closeMetrics;
+  if (metricsClose) metricsClose.onclick = closeMetrics;
 }
 
 function resizeCanvases() {
@@ -201,6 +217,25 @@ function computeFullExtents() {
     }
   }
 
+  const cmp = state.compare.data;
+  if (cmp) {
+    const shift = compareShift();
+    for (const r of Object.values(cmp.runs || {})) {
+      const rt = r.t || [];
+      if (rt.length) {
+        xMin = Math.min(xMin, rt[0] + shift);
+        xMax = Math.max(xMax, rt[rt.length - 1] + shift);
+      }
+      for (const arr of Object.values(r.series || {})) {
+        for (const v of arr || []) {
+          if (typeof v !== "number" || !isFinite(v)) continue;
+          yMin = Math.min(yMin, v);
+          yMax = Math.max(yMax, v);
+        }
+      }
+    }
+  }
+
   if (!isFinite(yMin) || !isFinite(yMax)) { yMin = -1; yMax = 1; }
 
   const yPad = (yMax - yMin) * 0.08 || 1;
@@ -305,8 +340,9 @@ function draw() {
   const axes = drawAxes(ctx, w, h);
   const { marginL, plotW, plotH } = axes;
 
-  const t = state.data.t || [];
-  const names = Object.keys(state.data.series || {});
+  const view = viewData();
+  const t = view.t || [];
+  const names = state.keys;
   const statsByName = new Map(state.stats.map((s) => [s.name, s]));
 
   // draw series within plot area
@@ -331,14 +367,14 @@ function draw() {
     const name = names[idx];
     if (!state.visible.has(name)) continue;
 
-    const arr = state.data.series[name];
+    const arr = (view.series || {})[name];
     if (!arr || !arr.length) continue;
 
     ctx.fillStyle = seriesColor(idx);
     const r = 4.0;
     for (let i = 0; i < Math.min(t.length, arr.length); i++) {
       const x = t[i], y = arr[i];
-      if (!isFinite(x) || !isFinite(y)) continue;
+      if (y == null || !isFinite(x) || !isFinite(y)) continue;
       if (x < state.xMin || x > state.xMax) continue;
 
       const px = (x - state.xMin) / (state.xMax - state.xMin) * plotW;
@@ -349,6 +385,33 @@ function draw() {
     }
   }
 
+  // compared runs: hollow markers, one shape per run, in the series' color
+  const cmp = state.compare.data;
+  if (cmp) {
+    const shift = compareShift();
+    ctx.lineWidth = 1.5;
+    state.compare.runs.forEach((runName, k) => {
+      const r = (cmp.runs || {})[runName];
+      if (!r) return;
+      const rt = r.t || [];
+      for (let idx = 0; idx < names.length; idx++) {
+        const name = names[idx];
+        if (!state.visible.has(name)) continue;
+        const arr = (r.series || {})[name];
+        if (!arr) continue;
+        ctx.strokeStyle = seriesColor(idx);
+        for (let i = 0; i < Math.min(rt.length, arr.length); i++) {
+          const x = rt[i] + shift, y = arr[i];
+          if (y == null || !isFinite(x) || !isFinite(y)) continue;
+          if (x < state.xMin || x > state.xMax) continue;
+          const px = (x - state.xMin) / (state.xMax - state.xMin) * plotW;
+          const py = plotH - (y - state.yMin) / (state.yMax - state.yMin) * plotH;
+          drawCompareMarker(ctx, px, py, k);
+        }
+      }
+    });
+  }
+
   // regression on top of points
   if (state.regressionEnabled) {
     for (let idx = 0; idx < names.length; idx++) {
@@ -409,6 +472,292 @@ function draw() {
     octx.strokeRect(r.x, r.y, r.w, r.h);
     octx.restore();
   }
+
+  scheduleDetailFetch();
+}
+
+// --- Downsampled data ---
+// The overview is fetched with maxPoints, so large runs arrive reduced (min/max per bucket).
+// When zoomed in, a debounced request fetches the visible window at full plot resolution.
+function runUrl(route, params) {
+  let url = `/logger/api/${route}?opMode=${encodeURIComponent(state.opMode)}&run=${encodeURIComponent(state.run)}`;
+  for (const [k, v] of Object.entries(params || {})) url += `&${k}=${encodeURIComponent(v)}`;
+  return url;
+}
+
+function dataUrl(params) {
+  return runUrl("data", params);
+}
+
+// Only visible series are fetched; turning a series on refetches with it included.
+function withSeries(params) {
+  const names = state.keys.filter((n) => !state.hidden.has(n));
+  if (names.length && names.length < state.keys.length) params.series = names.join(",");
+  return params;
+}
+
+async function reloadSeries() {
+  const seq = ++state.dataSeq;
+  clearTimeout(state.detailTimer);
+  state.detail = null;
+  setStatus("Loading…");
+  let j;
+  try {
+    j = await fetchJson(dataUrl(withSeries({ maxPoints: maxPointsForPlot() })));
+  } catch (e) {
+    if (seq !== state.dataSeq) return;
+    setStatus("Error: " + e);
+    console.error(e);
+    return;
+  }
+  if (seq !== state.dataSeq) return;
+  state.data = j;
+  state.compare.seq++;
+  state.compare.data = null;
+
+  setStatus(`${state.opMode} / ${state.run} (${state.keys.length} series)`);
+  computeFullExtents();
+  buildTable();
+  updateStats();
+  updateTableHighlights();
+  draw();
+  if (state.compare.runs.length) loadCompare();
+}
+
+function maxPointsForPlot() {
+  const w = $("plot")?.width || 0;
+  return Math.max(1000, Math.round(w) * 2);
+}
+
+function viewData() {
+  const d = state.detail;
+  if (d && d.xMin <= state.xMin && d.xMax >= state.xMax) return d.data;
+  return state.data;
+}
+
+function scheduleDetailFetch() {
+  if (!state.data || !state.data.downsampled) return;
+  const span = state.xMax - state.xMin;
+  if (state.xMin <= state.full.xMin && state.xMax >= state.full.xMax) {
+    state.detail = null;
+    return;
+  }
+  const d = state.detail;
+  if (d && d.xMin <= state.xMin && d.xMax >= state.xMax && (d.xMax - d.xMin) <= span * 3) return;
+  clearTimeout(state.detailTimer);
+  state.detailTimer = setTimeout(fetchDetail, 250);
+}
+
+async function fetchDetail() {
+  const seq = state.dataSeq;
+  const span = state.xMax - state.xMin;
+  // Pad by half a viewport on each side so small pans stay covered.
+  const xMin = state.xMin - span / 2;
+  const xMax = state.xMax + span / 2;
+  try {
+    const j = await fetchJson(dataUrl(withSeries({ tStart: xMin, tEnd: xMax, maxPoints: maxPointsForPlot() * 2 })));
+    if (seq !== state.dataSeq) return;
+    state.detail = { xMin, xMax, data: j };
+    draw();
+  } catch (e) {
+    console.error(e);
+  }
+}
+
+// --- Run comparison ---
+// Other runs of the OpMode are fetched in one /compare request (parsed in parallel on
+// the robot) and drawn over the current run. Compare series are aligned with t and
+// hold null where a row did not set the field.
+const COMPARE_MARKERS = ["○", "□", "△", "◇", "×"];
+
+function renderCompareList() {
+  const list = $("compareList");
+  if (!list) return;
+  list.innerHTML = "";
+  for (const r of state.runs) {
+    if (r === state.run) continue;
+    const row = document.createElement("label");
+    row.className = "chk";
+
+    const cb = document.createElement("input");
+    cb.type = "checkbox";
+    cb.checked = state.compare.runs.includes(r);
+    cb.onchange = () => {
+      if (cb.checked) state.compare.runs.push(r);
+      else state.compare.runs = state.compare.runs.filter((x) => x !== r);
+      renderCompareList();
+      loadCompare();
+    };
+
+    const span = document.createElement("span");
+    const k = state.compare.runs.indexOf(r);
+    span.textContent = k >= 0 ? `${COMPARE_MARKERS[k % COMPARE_MARKERS.length]} ${r}` : r;
+
+    row.appendChild(cb);
+    row.appendChild(span);
+    list.appendChild(row);
+  }
+}
+
+async function loadCompare() {
+  const seq = ++state.compare.seq;
+  state.compare.runs = state.compare.runs.filter((r) => r !== state.run && state.runs.includes(r));
+  if (!state.data || !state.compare.runs.length) {
+    state.compare.data = null;
+    computeFullExtents();
+    draw();
+    return;
+  }
+
+  const names = Object.keys(state.data.series || {});
+  const url = `/logger/api/compare?opMode=${encodeURIComponent(state.opMode)}` +
+    `&runs=${encodeURIComponent(state.compare.runs.join(","))}` +
+    `&series=${encodeURIComponent(names.join(","))}` +
+    `&align=${state.compare.align ? "start" : "none"}&maxPoints=${maxPointsForPlot()}`;
+  try {
+    const j = await fetchJson(url);
+    if (seq !== state.compare.seq) return;
+    state.compare.data = j;
+  } catch (e) {
+    if (seq !== state.compare.seq) return;
+    setStatus("Compare error: " + e);
+    console.error(e);
+    return;
+  }
+  computeFullExtents();
+  setViewportToFull();
+}
+
+function compareShift() {
+  // Aligned runs start at 0; move them onto the current run's time base.
+  if (!state.compare.align) return 0;
+  const t = state.data?.t || [];
+  return t.length ? t[0] : 0;
+}
+
+function drawCompareMarker(ctx, px, py, k) {
+  const r = 4.0;
+  ctx.beginPath();
+  switch (k % COMPARE_MARKERS.length) {
+    case 0:
+      ctx.arc(px, py, r, 0, Math.PI * 2);
+      break;
+    case 1:
+      ctx.rect(px - r, py - r, 2 * r, 2 * r);
+      break;
+    case 2:
+      ctx.moveTo(px, py - r);
+      ctx.lineTo(px + r, py + r);
+      ctx.lineTo(px - r, py + r);
+      ctx.closePath();
+      break;
+    case 3:
+      ctx.moveTo(px, py - r);
+      ctx.lineTo(px + r, py);
+      ctx.lineTo(px, py + r);
+      ctx.lineTo(px - r, py);
+      ctx.closePath();
+      break;
+    default:
+      ctx.moveTo(px - r, py - r);
+      ctx.lineTo(px + r, py + r);
+      ctx.moveTo(px + r, py - r);
+      ctx.lineTo(px - r, py + r);
+  }
+  ctx.stroke();
+}
+
+// --- Live tail ---
+// While Live is on, the run is long-polled through /tail and new rows are appended
+// to state.data. Tail series are aligned with t (null where unset), so rows the
+// /data snapshot already had are dropped by t before the values are appended.
+async function startLive() {
+  if (!state.opMode || !state.run) return;
+  const liveSeq = ++state.liveSeq;
+  state.live = true;
+  updateToggleUI();
+  try {
+    let j = await fetchJson(runUrl("tail", {}));
+    let offset = j.offset;
+    const run = state.run;
+    await loadData();
+    // Reloads of the same run (e.g. a series turned on) keep following; rows are merged by t.
+    while (state.live && liveSeq === state.liveSeq) {
+      if (state.run !== run) { stopLive(); return; }
+      j = await fetchJson(runUrl("tail", { offset, wait: 20 }));
+      if (!state.live || liveSeq !== state.liveSeq) return;
+      if (state.run !== run) { stopLive(); return; }
+      offset = j.offset;
+      if (j.reset) {
+        await loadData();
+      } else {
+        appendLiveRows(j);
+      }
+      if (!j.active) {
+        stopLive();
+        setStatus(`${state.opMode} / ${state.run} (run finished)`);
+      }
+    }
+  } catch (e) {
+    if (liveSeq !== state.liveSeq) return;
+    stopLive();
+    setStatus("Live error: " + e);
+    console.error(e);
+  }
+}
+
+function stopLive() {
+  state.liveSeq++;
+  state.live = false;
+  updateToggleUI();
+}
+
+function appendLiveRows(j) {
+  const data = state.data;
+  const t = j.t || [];
+  if (!data || !t.length) return;
+
+  const before = data.t.length;
+  const last = before ? data.t[before - 1] : -Infinity;
+  let start = 0;
+  while (start < t.length && t[start] <= last) start++;
+  if (start === t.length) return;
+
+  for (let i = start; i < t.length; i++) data.t.push(t[i]);
+  // Series stay aligned with t: rows that did not set a field hold null.
+  let added = false;
+  for (const [name, vals] of Object.entries(j.series || {})) {
+    let arr = data.series[name];
+    if (!arr) {
+      if (state.keys.includes(name)) continue; // hidden and not loaded
+      state.keys.push(name);
+      arr = data.series[name] = new Array(before).fill(null);
+      if (!state.hidden.has(name)) state.visible.add(name);
+      added = true;
+    }
+    for (let i = start; i < t.length; i++) arr.push(i < vals.length ? vals[i] : null);
+  }
+  for (const arr of Object.values(data.series)) {
+    while (arr.length < data.t.length) arr.push(null);
+  }
+  if (added) buildSeriesToggles(state.keys);
+
+  // Keep following the newest rows if the viewport was at the right edge.
+  const wasFull = state.xMin <= state.full.xMin && state.xMax >= state.full.xMax;
+  const atEdge = state.xMax >= state.full.xMax;
+  computeFullExtents();
+  if (wasFull) {
+    state.xMin = state.full.xMin; state.xMax = state.full.xMax;
+    state.yMin = state.full.yMin; state.yMax = state.full.yMax;
+  } else if (atEdge) {
+    const shift = state.full.xMax - state.xMax;
+    state.xMin += shift; state.xMax += shift;
+  }
+
+  if (before < 2000) buildTable();
+  if (!data.downsampled) updateStats();
+  setStatus(`${state.opMode} / ${state.run} (live, ${data.t.length} rows)`);
+  draw();
 }
 
 // --- Table ---
@@ -455,6 +804,7 @@ function fmt(v) {
 // --- Stats + regression ---
 function updateStats() {
   if (!state.data) {
+    state.statsSeq++;
     state.stats = [];
     renderStats();
     return;
@@ -462,16 +812,62 @@ function updateStats() {
 
   const names = Object.keys(state.data.series || {}).filter((n) => state.visible.has(n));
   const range = getStatsRange();
+  if (state.data.downsampled) {
+    // Reduced data would skew mean/std/regression; ask the server, which reads every row.
+    fetchSummaryStats(names, range);
+    return;
+  }
   state.stats = names.map((name) => computeStatsForSeries(name, range)).filter(Boolean);
   renderStats();
   updateTableHighlights();
 }
 
+async function fetchSummaryStats(names, range) {
+  const seq = ++state.statsSeq;
+  const params = state.selectionRange ? { tStart: range[0], tEnd: range[1] } : {};
+  try {
+    const j = await fetchJson(runUrl("summary", params));
+    if (seq !== state.statsSeq) return;
+    const series = j.series || {};
+    state.stats = names.map((name) => statsFromSummary(name, series[name], range)).filter(Boolean);
+    renderStats();
+    updateTableHighlights();
+    draw();
+  } catch (e) {
+    console.error(e);
+  }
+}
+
+function statsFromSummary(name, s, range) {
+  if (!s || !s.count) return null;
+  const reg = state.regressionEnabled && s.regression
+    ? { m: s.regression.m, b: s.regression.b, r2: s.regression.r2, xMin: range[0], xMax: range[1] }
+    : null;
+  return {
+    name,
+    count: s.count,
+    mean: s.mean,
+    min: s.min,
+    max: s.max,
+    std: s.std,
+    range: s.range,
+    regression: reg,
+  };
+}
+
+// Runs fetched per OpMode per request in the file manager.
+const FS_PAGE_SIZE = 50;
+
+function fsSort() {
+  const sel = $("fsSort");
+  return sel && sel.value === "modified" ? "modified" : "name";
+}
+
 async function loadFileTree() {
   const tree = $("fsTree");
   if (!tree) return;
   try {
-    const j = await fetchJson("/logger/api/fs");
+    const j = await fetchJson(`/logger/api/fs?sort=${fsSort()}&limit=${FS_PAGE_SIZE}`);
     renderFileTree(j.opModes || []);
   } catch (e) {
     tree.textContent = "Failed to load file list: " + e;
@@ -491,6 +887,12 @@ function renderFileTree(opModes) {
     header.className = "fsGroupHeader";
     const title = document.createElement("div");
     title.textContent = op.name;
+    if (op.runCount != null) {
+      const meta = document.createElement("span");
+      meta.className = "fsRunMeta";
+      meta.textContent = `  ${op.runCount} run${op.runCount === 1 ? "" : "s"}, ${formatBytes(op.bytes)}`;
+      title.appendChild(meta);
+    }
     const delOp = document.createElement("button");
     delOp.className = "btn danger";
     delOp.textContent = "Delete OpMode";
@@ -505,76 +907,105 @@ function renderFileTree(opModes) {
     group.appendChild(header);
 
     const runs = op.runs || [];
-    for (const run of runs) {
-      const row = document.createElement("div");
-      row.className = "fsRunRow";
-
-      const name = document.createElement("div");
-      name.textContent = run.name;
-
-      const meta = document.createElement("div");
-      meta.className = "fsRunMeta";
-      meta.textContent = formatBytes(run.bytes);
-
-      const spaceIndex = run.name.indexOf(" ");
-      const baseName = spaceIndex === -1 ? run.name : run.name.slice(0, spaceIndex);
-      const currentSuffix = spaceIndex === -1 ? "" : run.name.slice(spaceIndex + 1).trim();
-
-      const input = document.createElement("input");
-      input.className = "input fsSuffix";
-      input.placeholder = "suffix";
-      input.value = currentSuffix;
-      input.addEventListener("focus", () => {
-        if (!input.dataset.touched) input.select();
-      });
-      input.addEventListener("mousedown", (event) => {
-        if (!input.dataset.touched) {
-          event.preventDefault();
-          input.focus();
-          input.select();
-        }
-      });
-      input.addEventListener("input", () => {
-        input.dataset.touched = "true";
-      });
-      input.addEventListener("blur", () => {
-        delete input.dataset.touched;
-      });
-
-      const rename = document.createElement("button");
-      rename.className = "btn";
-      rename.textContent = "Rename";
-      rename.onclick = async () => {
-        const suffix = input.value.trim();
-        if (suffix === currentSuffix) return;
-        await fetchJson(`/logger/api/rename?opMode=${encodeURIComponent(op.name)}&run=${encodeURIComponent(run.name)}&base=${encodeURIComponent(baseName)}&suffix=${encodeURIComponent(suffix)}`);
-        input.value = "";
-        await refreshOpModeSelection();
-        await loadFileTree();
+    for (const run of runs) group.appendChild(renderFsRunRow(op.name, run));
+
+    let shown = runs.length;
+    if (op.runCount != null && shown < op.runCount) {
+      const more = document.createElement("button");
+      more.className = "btn fsMore";
+      const label = () => {
+        more.textContent = `Show more (${op.runCount - shown} left)`;
       };
-
-      const delRun = document.createElement("button");
-      delRun.className = "btn danger";
-      delRun.textContent = "Delete";
-      delRun.onclick = async () => {
-        if (!confirm(`Delete run "${run.name}"?`)) return;
-        await fetchJson(`/logger/api/delete?opMode=${encodeURIComponent(op.name)}&run=${encodeURIComponent(run.name)}`);
-        await refreshOpModeSelection();
-        await loadFileTree();
+      label();
+      more.onclick = async () => {
+        more.disabled = true;
+        try {
+          const j = await fetchJson(`/logger/api/fs?opMode=${encodeURIComponent(op.name)}&sort=${fsSort()}&offset=${shown}&limit=${FS_PAGE_SIZE}`);
+          const page = (j.opModes && j.opModes[0]) || {};
+          for (const run of page.runs || []) group.insertBefore(renderFsRunRow(op.name, run), more);
+          shown += (page.runs || []).length;
+          if (page.runCount != null) op.runCount = page.runCount;
+          if (shown >= op.runCount || !(page.runs || []).length) more.remove();
+          else label();
+        } catch (e) {
+          more.textContent = "Failed to load more: " + e;
+        } finally {
+          more.disabled = false;
+        }
       };
-
-      row.appendChild(name);
-      row.appendChild(meta);
-      row.appendChild(input);
-      row.appendChild(rename);
-      row.appendChild(delRun);
-      group.appendChild(row);
+      group.appendChild(more);
     }
 
     tree.appendChild(group);
   }
 }
 
+function renderFsRunRow(opMode, run) {
+  const row = document.createElement("div");
+  row.className = "fsRunRow";
+
+  const name = document.createElement("div");
+  name.textContent = run.name;
+
+  const meta = document.createElement("div");
+  meta.className = "fsRunMeta";
+  meta.textContent = formatBytes(run.bytes);
+
+  const spaceIndex = run.name.indexOf(" ");
+  const baseName = spaceIndex === -1 ? run.name : run.name.slice(0, spaceIndex);
+  const currentSuffix = spaceIndex === -1 ? "" : run.name.slice(spaceIndex + 1).trim();
+
+  const input = document.createElement("input");
+  input.className = "input fsSuffix";
+  input.placeholder = "suffix";
+  input.value = currentSuffix;
+  input.addEventListener("focus", () => {
+    if (!input.dataset.touched) input.select();
+  });
+  input.addEventListener("mousedown", (event) => {
+    if (!input.dataset.touched) {
+      event.preventDefault();
+      input.focus();
+      input.select();
+    }
+  });
+  input.addEventListener("input", () => {
+    input.dataset.touched = "true";
+  });
+  input.addEventListener("blur", () => {
+    delete input.dataset.touched;
+  });
+
+  const rename = document.createElement("button");
+  rename.className = "btn";
+  rename.textContent = "Rename";
+  rename.onclick = async () => {
+    const suffix = input.value.trim();
+    if (suffix === currentSuffix) return;
+    await fetchJson(`/logger/api/rename?opMode=${encodeURIComponent(opMode)}&run=${encodeURIComponent(run.name)}&base=${encodeURIComponent(baseName)}&suffix=${encodeURIComponent(suffix)}`);
+    input.value = "";
+    await refreshOpModeSelection();
+    await loadFileTree();
+  };
+
+  const delRun = document.createElement("button");
+  delRun.className = "btn danger";
+  delRun.textContent = "Delete";
+  delRun.onclick = async () => {
+    if (!confirm(`Delete run "${run.name}"?`)) return;
+    await fetchJson(`/logger/api/delete?opMode=${encodeURIComponent(opMode)}&run=${encodeURIComponent(run.name)}`);
+    await refreshOpModeSelection();
+    await loadFileTree();
+  };
+
+  row.appendChild(name);
+  row.appendChild(meta);
+  row.appendChild(input);
+  row.appendChild(rename);
+  row.appendChild(delRun);
+  return row;
+}
+
 function getStatsRange() {
   if (state.selectionRange) return state.selectionRange;
   const t = state.data?.t || [];
@@ -600,7 +1031,7 @@ function computeStatsForSeries(name, range) {
   for (let i = 0; i < nMax; i++) {
     const x = t[i];
     const y = arr[i];
-    if (!isFinite(x) || !isFinite(y)) continue;
+    if (y == null || !isFinite(x) || !isFinite(y)) continue;
     if (x < xLo || x > xHi) continue;
 
     count += 1;
@@ -642,7 +1073,7 @@ function computeRegression(t, arr, range) {
   for (let i = 0; i < nMax; i++) {
     const xSec = t[i];
     const y = arr[i];
-    if (!isFinite(xSec) || !isFinite(y)) continue;
+    if (y == null || !isFinite(xSec) || !isFinite(y)) continue;
     if (xSec < xLo || xSec > xHi) continue;
 
     const x = xSec;
@@ -665,7 +1096,7 @@ function computeRegression(t, arr, range) {
   for (let i = 0; i < nMax; i++) {
     const xSec = t[i];
     const y = arr[i];
-    if (!isFinite(xSec) || !isFinite(y)) continue;
+    if (y == null || !isFinite(xSec) || !isFinite(y)) continue;
     if (xSec < xLo || xSec > xHi) continue;
     const x = xSec;
     const yHat = m * x + b;
@@ -758,6 +1189,146 @@ function formatRange(range) {
   return `${a}–${b}${timeUnitLabel()}`;
 }
 
+// --- logger health (/metrics) ---
+
+// How often the open health panel polls /metrics.
+const METRICS_REFRESH_MS = 1000;
+let metricsTimer = null;
+
+function openMetrics() {
+  const modal = $("metricsModal");
+  if (modal) modal.classList.remove("hidden");
+  updateToggleUI();
+  loadMetrics();
+}
+
+function closeMetrics() {
+  const modal = $("metricsModal");
+  if (modal) modal.classList.add("hidden");
+  clearTimeout(metricsTimer);
+  metricsTimer = null;
+  updateToggleUI();
+}
+
+async function loadMetrics() {
+  const modal = $("metricsModal");
+  const body = $("metricsBody");
+  if (!modal || !body || modal.classList.contains("hidden")) return;
+  clearTimeout(metricsTimer);
+  try {
+    renderMetrics(await fetchJson("/logger/api/metrics"));
+  } catch (e) {
+    body.textContent = "Failed to load metrics: " + e;
+  }
+  if (!modal.classList.contains("hidden")) metricsTimer = setTimeout(loadMetrics, METRICS_REFRESH_MS);
+}
+
+function formatNanos(ns) {
+  if (typeof ns !== "number" || !isFinite(ns)) return "—";
+  if (ns < 1e3) return ns.toFixed(0) + " ns";
+  if (ns < 1e6) return (ns / 1e3).toFixed(1) + " µs";
+  if (ns < 1e9) return (ns / 1e6).toFixed(1) + " ms";
+  return (ns / 1e9).toFixed(2) + " s";
+}
+
+function renderMetrics(j) {
+  const body = $("metricsBody");
+  if (!body) return;
+  body.innerHTML = "";
+
+  const writers = j.writers || [];
+  if (!writers.length) {
+    const empty = document.createElement("div");
+    empty.className = "small";
+    empty.textContent = "No runs written since the Robot Controller started.";
+    body.appendChild(empty);
+  }
+
+  for (const w of writers) {
+    const group = document.createElement("div");
+    group.className = "fsGroup metricsGroup";
+
+    const header = document.createElement("div");
+    header.className = "fsGroupHeader";
+    const title = document.createElement("div");
+    title.textContent = `${w.opMode} / ${w.run}`;
+    const meta = document.createElement("span");
+    meta.className = "fsRunMeta";
+    meta.textContent = w.active ? "  writing" : "  closed";
+    title.appendChild(meta);
+    header.appendChild(title);
+    if (w.errors > 0) {
+      const err = document.createElement("span");
+      err.className = "metricsError";
+      err.textContent = `${w.errors} error${w.errors === 1 ? "" : "s"}`;
+      err.title = w.lastError || "";
+      header.appendChild(err);
+    }
+    group.appendChild(header);
+
+    const counters = [
+      ["Rows", `${w.rows} (${formatNumber(w.rowsPerSecond, 0)}/s)`],
+      ["Written", `${formatBytes(w.bytes)} in ${w.flushes} write${w.flushes === 1 ? "" : "s"}`],
+      ["Syncs", String(w.syncs)],
+    ];
+    if (w.skippedFields > 0) counters.push(["Skipped", `${w.skippedFields} field${w.skippedFields === 1 ? "" : "s"} (channel policies)`]);
+    if (w.queue) {
+      counters.push(["Queue", `${w.queue.queued} / ${w.queue.capacity} (peak ${w.queue.highWater})`]);
+      counters.push(["Dropped", String(w.queue.dropped)]);
+    }
+    if (w.sources) {
+      const names = w.sources.map((s) => `${s.id} ${s.name}: ${s.rows} rows${s.dropped ? `, ${s.dropped} dropped` : ""}`);
+      counters.push(["Sources", names.join("; ")]);
+    }
+    if (w.lastError) counters.push(["Last error", w.lastError]);
+    const list = document.createElement("div");
+    list.className = "metricsCounters";
+    for (const [k, v] of counters) {
+      const key = document.createElement("span");
+      key.className = "fsRunMeta";
+      key.textContent = k;
+      const val = document.createElement("span");
+      val.textContent = v;
+      list.appendChild(key);
+      list.appendChild(val);
+    }
+    group.appendChild(list);
+
+    const tbl = document.createElement("table");
+    const head = document.createElement("tr");
+    for (const h of ["Latency", "count", "mean", "p50", "p90", "p99", "max"]) {
+      const th = document.createElement("th");
+      th.textContent = h;
+      head.appendChild(th);
+    }
+    tbl.appendChild(head);
+    for (const [label, h] of [["Loop period", w.loopNs], ["Encode row", w.encodeNs], ["Write", w.writeNs], ["Sync", w.syncNs]]) {
+      if (!h || !h.count) continue;
+      const tr = document.createElement("tr");
+      const cells = [label, String(h.count), formatNanos(h.mean), formatNanos(h.p50),
+        formatNanos(h.p90), formatNanos(h.p99), formatNanos(h.max)];
+      for (const c of cells) {
+        const td = document.createElement("td");
+        td.textContent = c;
+        tr.appendChild(td);
+      }
+      tbl.appendChild(tr);
+    }
+    group.appendChild(tbl);
+    body.appendChild(group);
+  }
+
+  const c = j.cache;
+  if (c) {
+    const cache = document.createElement("div");
+    cache.className = "small metricsCache";
+    cache.textContent = `Run cache: ${c.entries} run${c.entries === 1 ? "" : "s"}, ` +
+      `${formatBytes(c.bytes)} of ${formatBytes(c.budget)}; ` +
+      `${c.hits} hits, ${c.misses} misses, ${c.evictions} evictions`;
+    body.appendChild(cache);
+  }
+}
+
 function formatNumber(v, digits = 4) {
   if (typeof v !== "number" || !isFinite(v)) return "—";
   return v.toFixed(digits);
@@ -806,8 +1377,17 @@ function buildSeriesToggles(names) {
     cb.type = "checkbox";
     cb.checked = state.visible.has(name);
     cb.onchange = () => {
-      if (cb.checked) state.visible.add(name);
-      else state.visible.delete(name);
+      if (cb.checked) {
+        state.visible.add(name);
+        state.hidden.delete(name);
+      } else {
+        state.visible.delete(name);
+        state.hidden.add(name);
+      }
+      if (cb.checked && state.data && !(name in (state.data.series || {}))) {
+        reloadSeries();
+        return;
+      }
       updateStats();
       draw();
     };
@@ -872,7 +1452,12 @@ async function loadRuns() {
 
   if (state.run) await loadData();
   else {
+    state.dataSeq++;
     state.data = null;
+    state.detail = null;
+    state.compare.data = null;
+    state.keys = [];
+    renderCompareList();
     setStatus("No runs found");
     draw();
   }
@@ -882,17 +1467,29 @@ async function loadData() {
   if (!state.opMode || !state.run) return;
   setStatus("Loading…");
 
-  const j = await fetchJson(`/logger/api/data?opMode=${encodeURIComponent(state.opMode)}&run=${encodeURIComponent(state.run)}`);
+  const seq = ++state.dataSeq;
+  clearTimeout(state.detailTimer);
+  state.detail = null;
+  // Series names first, so hidden series can be left out of the data request.
+  const k = await fetchJson(runUrl("keys", {}));
+  if (seq !== state.dataSeq) return;
+  state.keys = k.keys || [];
+  const j = await fetchJson(dataUrl(withSeries({ maxPoints: maxPointsForPlot() })));
+  if (seq !== state.dataSeq) return;
   state.data = j;
   state.tUnit = normalizeTimeUnit(j.tUnit);
+  state.compare.seq++;
+  state.compare.data = null;
 
-  const seriesNames = Object.keys(j.series || {});
-  state.visible = new Set(seriesNames);
+  for (const name of Object.keys(j.series || {})) {
+    if (!state.keys.includes(name)) state.keys.push(name);
+  }
+  state.visible = new Set(state.keys.filter((n) => !state.hidden.has(n)));
   state.selectionRange = null;
 
-  setStatus(`${state.opMode} / ${state.run} (${seriesNames.length} series)`);
+  setStatus(`${state.opMode} / ${state.run} (${state.keys.length} series)`);
 
-  buildSeriesToggles(seriesNames);
+  buildSeriesToggles(state.keys);
   computeFullExtents();
   setViewportToFull();
   buildTable();
@@ -901,6 +1498,9 @@ async function loadData() {
 
   resizeCanvases();
   draw();
+
+  renderCompareList();
+  if (state.compare.runs.length) loadCompare();
 }
 
 function normalizeTimeUnit(unit) {
@@ -927,6 +1527,10 @@ function wireControls() {
     state.tool = (state.tool === "pan") ? "select" : "pan";
     updateToggleUI();
   };
+  $("liveTool").onclick = () => {
+    if (state.live) stopLive();
+    else startLive();
+  };
   $("toggleReg").onclick = () => {
     state.regressionEnabled = !state.regressionEnabled;
     $("toggleReg").textContent = state.regressionEnabled ? "Hide regression" : "Add regression";
@@ -936,6 +1540,8 @@ function wireControls() {
 
   $("opModeSel").onchange = async () => {
     state.opMode = $("opModeSel").value;
+    state.compare.runs = [];
+    stopLive();
     await loadRuns();
   };
 
@@ -943,11 +1549,19 @@ function wireControls() {
     const next = $("runSel").value;
     if (next === state.run) return;
     state.run = next;
+    stopLive();
     await loadData();
   };
 
+  $("compareAlign").onchange = () => {
+    state.compare.align = $("compareAlign").checked;
+    loadCompare();
+  };
+
   const refreshFs = $("refreshFs");
   if (refreshFs) refreshFs.onclick = () => loadFileTree();
+  const sortFs = $("fsSort");
+  if (sortFs) sortFs.onchange = () => loadFileTree();
 
   updateToggleUI();
 }
@@ -1123,7 +1737,7 @@ function zoomToSelection() {
     for (let i = 0; i < nMax; i++) {
       const x = t[i];
       const y = arr[i];
-      if (!isFinite(x) || !isFinite(y)) continue;
+      if (y == null || !isFinite(x) || !isFinite(y)) continue;
       if (x < xMin || x > xMax) continue;
       yMin = Math.min(yMin, y);
       yMax = Math.max(yMax, y);
@@ -1180,13 +1794,18 @@ function updateHover(ev) {
 function updateToggleUI() {
   const pan = $("panTool");
   const table = $("openTable");
+  const live = $("liveTool");
   const manage = $("openManager");
   const drawer = $("tableDrawer");
   const modal = $("manageModal");
+  const health = $("openMetrics");
+  const metricsModal = $("metricsModal");
   const canvas = $("plot");
   if (pan) pan.classList.toggle("active", state.tool === "pan");
+  if (live) live.classList.toggle("active", state.live);
   if (table && drawer) table.classList.toggle("active", drawer.classList.contains("open"));
   if (manage && modal) manage.classList.toggle("active", !modal.classList.contains("hidden"));
+  if (health && metricsModal) health.classList.toggle("active", !metricsModal.classList.contains("hidden"));
   if (canvas) {
     canvas.style.cursor = state.tool === "pan" ? "grab" : CROSSHAIR_CURSOR;
   }
@@ -1228,6 +1847,8 @@ window.addEventListener("resize", () => { resizeCanvases(); draw(); });
     installCanvasInteractions();
     const modal = $("manageModal");
     if (modal) modal.classList.add("hidden");
+    const metricsModal = $("metricsModal");
+    if (metricsModal) metricsModal.classList.add("hidden");
 
     await loadOpModes();
     await loadRuns();